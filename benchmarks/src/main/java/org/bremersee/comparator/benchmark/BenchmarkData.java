@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import org.bremersee.comparator.benchmark.model.BenchmarkObject;
+
+/**
+ * Creates reproducible benchmark data and the hand-written comparators, the comparators of the
+ * library are measured against.
+ *
+ * @author Christian Bremer
+ */
+public abstract class BenchmarkData {
+
+  /**
+   * The value fields in the order they are added to a chain.
+   */
+  public static final String[] FIELDS = {"text", "number", "date", "amount"};
+
+  private static final long BASE_TIME = 1600000000000L;
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Creates objects with random values. Each value has the given cardinality, so that deeper
+   * levels of a comparator chain are reached. Each object has a chain of children of the given
+   * depth, where the innermost child holds the values.
+   *
+   * @param size        the number of objects
+   * @param cardinality the number of distinct values per field
+   * @param pathDepth   the number of children (0 means the values are on the object itself)
+   * @param seed        the seed of the random generator
+   * @return the objects
+   */
+  public static List<BenchmarkObject> createObjects(int size, int cardinality, int pathDepth,
+      long seed) {
+    Random random = new Random(seed);
+    List<BenchmarkObject> objects = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      BenchmarkObject obj = new BenchmarkObject(
+          random.nextInt(cardinality),
+          "Text-" + random.nextInt(cardinality),
+          new Date(BASE_TIME + 1000L * random.nextInt(cardinality)),
+          BigDecimal.valueOf(random.nextInt(cardinality), 2),
+          null);
+      for (int depth = 0; depth < pathDepth; depth++) {
+        obj = new BenchmarkObject(0, null, null, null, obj);
+      }
+      objects.add(obj);
+    }
+    return objects;
+  }
+
+  /**
+   * Returns the path of the given value field below the given number of children, e. g.
+   * {@code child.child.text}.
+   *
+   * @param field     the value field
+   * @param pathDepth the number of children
+   * @return the path
+   */
+  public static String path(String field, int pathDepth) {
+    StringBuilder sb = new StringBuilder();
+    for (int depth = 0; depth < pathDepth; depth++) {
+      sb.append("child.");
+    }
+    return sb.append(field).toString();
+  }
+
+  /**
+   * Returns the well known text of a chain of the given depth, e. g. {@code text|number}.
+   *
+   * @param chainDepth the number of fields
+   * @param pathDepth  the number of children
+   * @return the well known text
+   */
+  public static String wkt(int chainDepth, int pathDepth) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < chainDepth; i++) {
+      if (i > 0) {
+        sb.append('|');
+      }
+      sb.append(path(FIELDS[i], pathDepth)).append(",asc,false");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Creates the hand-written comparator of the given value field (case sensitive, nulls last).
+   *
+   * @param field     the value field
+   * @param pathDepth the number of children
+   * @return the comparator
+   */
+  public static Comparator<BenchmarkObject> handWritten(String field, int pathDepth) {
+    Function<BenchmarkObject, BenchmarkObject> descend = obj -> {
+      BenchmarkObject current = obj;
+      for (int depth = 0; depth < pathDepth; depth++) {
+        current = current.getChild();
+      }
+      return current;
+    };
+    switch (field) {
+      case "text":
+        return Comparator.comparing(obj -> descend.apply(obj).getText(),
+            Comparator.nullsLast(Comparator.naturalOrder()));
+      case "number":
+        return Comparator.comparingInt(obj -> descend.apply(obj).getNumber());
+      case "date":
+        return Comparator.comparing(obj -> descend.apply(obj).getDate(),
+            Comparator.nullsLast(Comparator.naturalOrder()));
+      case "amount":
+        return Comparator.comparing(obj -> descend.apply(obj).getAmount(),
+            Comparator.nullsLast(Comparator.naturalOrder()));
+      default:
+        throw new IllegalArgumentException("Unknown field [" + field + "].");
+    }
+  }
+
+  /**
+   * Creates the hand-written comparator of a chain of the given depth with
+   * {@code comparing(...).thenComparing(...)}.
+   *
+   * @param chainDepth the number of fields
+   * @param pathDepth  the number of children
+   * @return the comparator
+   */
+  public static Comparator<BenchmarkObject> handWritten(int chainDepth, int pathDepth) {
+    Comparator<BenchmarkObject> comparator = handWritten(FIELDS[0], pathDepth);
+    for (int i = 1; i < chainDepth; i++) {
+      comparator = comparator.thenComparing(handWritten(FIELDS[i], pathDepth));
+    }
+    return comparator;
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.benchmark;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.benchmark.model.BenchmarkObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a single comparison with a comparator chain built from well known text against the
+ * hand-written {@code comparing(...).thenComparing(...)} chain. The values have a low cardinality,
+ * so that the deeper levels of the chain are reached.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChainBenchmark {
+
+  private static final int MASK = 1023;
+
+  /**
+   * The number of fields of the chain.
+   */
+  @Param({"1", "2", "4"})
+  public int chainDepth;
+
+  /**
+   * The number of children before the values are reached.
+   */
+  @Param({"0", "2"})
+  public int pathDepth;
+
+  private BenchmarkObject[] objects;
+
+  private int index;
+
+  private Comparator<Object> comparatorChain;
+
+  private Comparator<BenchmarkObject> handWritten;
+
+  /**
+   * Creates the objects and the comparators.
+   */
+  @Setup
+  public void setup() {
+    objects = BenchmarkData.createObjects(MASK + 1, 2, pathDepth, 36L)
+        .toArray(new BenchmarkObject[0]);
+    comparatorChain = ComparatorBuilder.builder()
+        .fromWellKnownText(BenchmarkData.wkt(chainDepth, pathDepth))
+        .build();
+    handWritten = BenchmarkData.handWritten(chainDepth, pathDepth);
+  }
+
+  private BenchmarkObject next() {
+    index = (index + 1) & MASK;
+    return objects[index];
+  }
+
+  /**
+   * Compares with the comparator chain.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public int comparatorChain() {
+    return comparatorChain.compare(next(), next());
+  }
+
+  /**
+   * Compares with the hand-written chain.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public int handWritten() {
+    return handWritten.compare(next(), next());
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.benchmark;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.comparator.ComparatorChain;
+import org.bremersee.comparator.DelegatingComparator;
+import org.bremersee.comparator.ValueComparator;
+import org.bremersee.comparator.benchmark.model.BenchmarkObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a single comparison of two objects by one field. One operation is one comparison, so
+ * the normalized allocation rate of the GC profiler is the allocation per comparison.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComparisonBenchmark {
+
+  private static final int MASK = 1023;
+
+  /**
+   * The value field and so the value type.
+   */
+  @Param({"number", "text", "date", "amount"})
+  public String field;
+
+  /**
+   * The number of children before the value is reached.
+   */
+  @Param({"0", "1", "3"})
+  public int pathDepth;
+
+  private BenchmarkObject[] objects;
+
+  private int index;
+
+  private Comparator<Object> valueComparator;
+
+  private Comparator<Object> delegatingComparator;
+
+  private Comparator<Object> comparatorChain;
+
+  private Comparator<BenchmarkObject> handWritten;
+
+  /**
+   * Creates the objects and the comparators.
+   */
+  @Setup
+  public void setup() {
+    objects = BenchmarkData.createObjects(MASK + 1, 1000, pathDepth, 36L)
+        .toArray(new BenchmarkObject[0]);
+    String path = BenchmarkData.path(field, pathDepth);
+    valueComparator = new ValueComparator(path, true, false, false);
+    delegatingComparator = new DelegatingComparator(path, Comparator.naturalOrder());
+    //noinspection rawtypes
+    comparatorChain = new ComparatorChain(
+        Arrays.<Comparator>asList(new ValueComparator(path, true, false, false)));
+    handWritten = BenchmarkData.handWritten(field, pathDepth);
+  }
+
+  private BenchmarkObject next() {
+    index = (index + 1) & MASK;
+    return objects[index];
+  }
+
+  /**
+   * Compares with the value comparator.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public int valueComparator() {
+    return valueComparator.compare(next(), next());
+  }
+
+  /**
+   * Compares with the delegating comparator.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public int delegatingComparator() {
+    return delegatingComparator.compare(next(), next());
+  }
+
+  /**
+   * Compares with a comparator chain of one value comparator.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public int comparatorChain() {
+    return comparatorChain.compare(next(), next());
+  }
+
+  /**
+   * Compares with the hand-written comparator.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public int handWritten() {
+    return handWritten.compare(next(), next());
+  }
+
+}
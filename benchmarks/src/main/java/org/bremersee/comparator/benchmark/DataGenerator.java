@@ -0,0 +1,296 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import org.bremersee.comparator.benchmark.model.BenchmarkObject;
+
+/**
+ * The data generator creates reproducible synthetic objects. Like the complex test object, each
+ * generated object holds its values in a child object ({@code child.text}, {@code child.number},
+ * {@code child.date} and {@code child.amount}).
+ *
+ * <p>The distribution of the values can be configured: the number of distinct values per field
+ * (cardinality), the ratio of {@code null} values, the distribution of the text lengths and how
+ * much the objects are already sorted (presortedness).
+ *
+ * @author Christian Bremer
+ */
+public class DataGenerator {
+
+  private static final long BASE_TIME = 1600000000000L;
+
+  private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+  private final int size;
+
+  private final int cardinality;
+
+  private final double nullRatio;
+
+  private final int minTextLength;
+
+  private final int maxTextLength;
+
+  private final LengthDistribution lengthDistribution;
+
+  private final double presortedness;
+
+  private final Comparator<Object> presortComparator;
+
+  private final long seed;
+
+  private DataGenerator(Builder builder) {
+    this.size = builder.size;
+    this.cardinality = builder.cardinality;
+    this.nullRatio = builder.nullRatio;
+    this.minTextLength = builder.minTextLength;
+    this.maxTextLength = builder.maxTextLength;
+    this.lengthDistribution = builder.lengthDistribution;
+    this.presortedness = builder.presortedness;
+    this.presortComparator = builder.presortComparator;
+    this.seed = builder.seed;
+  }
+
+  /**
+   * Creates a new builder of a data generator.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Generates the objects. The same configuration always generates the same objects.
+   *
+   * @return the objects
+   */
+  public List<BenchmarkObject> generate() {
+    Random random = new Random(seed);
+    String[] texts = new String[cardinality];
+    for (int i = 0; i < cardinality; i++) {
+      texts[i] = text(random);
+    }
+    List<BenchmarkObject> objects = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      BenchmarkObject values = new BenchmarkObject(
+          random.nextInt(cardinality),
+          isNull(random) ? null : texts[random.nextInt(cardinality)],
+          isNull(random) ? null : new Date(BASE_TIME + 1000L * random.nextInt(cardinality)),
+          isNull(random) ? null : BigDecimal.valueOf(random.nextInt(cardinality), 2),
+          null);
+      objects.add(new BenchmarkObject(i, null, null, null, values));
+    }
+    if (presortComparator == null || presortedness <= 0.) {
+      Collections.shuffle(objects, random);
+    } else {
+      objects.sort(presortComparator);
+      long swaps = Math.round((1. - Math.min(presortedness, 1.)) * size);
+      for (long i = 0; i < swaps; i++) {
+        Collections.swap(objects, random.nextInt(size), random.nextInt(size));
+      }
+    }
+    return objects;
+  }
+
+  private boolean isNull(Random random) {
+    return nullRatio > 0. && random.nextDouble() < nullRatio;
+  }
+
+  private String text(Random random) {
+    int length = lengthDistribution.length(random, minTextLength, maxTextLength);
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+    }
+    return new String(chars);
+  }
+
+  /**
+   * The distribution of the text lengths.
+   */
+  public enum LengthDistribution {
+
+    /**
+     * All texts have the maximum length.
+     */
+    FIXED {
+      @Override
+      int length(Random random, int min, int max) {
+        return max;
+      }
+    },
+
+    /**
+     * The lengths are uniformly distributed between minimum and maximum.
+     */
+    UNIFORM {
+      @Override
+      int length(Random random, int min, int max) {
+        return min + random.nextInt(max - min + 1);
+      }
+    },
+
+    /**
+     * The lengths are normally distributed around the middle of minimum and maximum.
+     */
+    GAUSSIAN {
+      @Override
+      int length(Random random, int min, int max) {
+        double mean = (min + max) / 2.;
+        double deviation = (max - min) / 6.;
+        long length = Math.round(mean + random.nextGaussian() * deviation);
+        return (int) Math.max(min, Math.min(max, length));
+      }
+    };
+
+    abstract int length(Random random, int min, int max);
+  }
+
+  /**
+   * The builder of the data generator.
+   */
+  public static class Builder {
+
+    private int size = 1000;
+
+    private int cardinality = 1000;
+
+    private double nullRatio;
+
+    private int minTextLength = 4;
+
+    private int maxTextLength = 16;
+
+    private LengthDistribution lengthDistribution = LengthDistribution.UNIFORM;
+
+    private double presortedness;
+
+    private Comparator<Object> presortComparator;
+
+    private long seed = 38L;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the number of objects.
+     *
+     * @param size the number of objects
+     * @return the builder
+     */
+    public Builder size(int size) {
+      if (size < 0) {
+        throw new IllegalArgumentException("Size must not be negative.");
+      }
+      this.size = size;
+      return this;
+    }
+
+    /**
+     * Sets the number of distinct values per field.
+     *
+     * @param cardinality the cardinality
+     * @return the builder
+     */
+    public Builder cardinality(int cardinality) {
+      if (cardinality < 1) {
+        throw new IllegalArgumentException("Cardinality must be greater than zero.");
+      }
+      this.cardinality = cardinality;
+      return this;
+    }
+
+    /**
+     * Sets the ratio of {@code null} values of the text, date and amount.
+     *
+     * @param nullRatio the null ratio (between 0 and 1)
+     * @return the builder
+     */
+    public Builder nullRatio(double nullRatio) {
+      if (nullRatio < 0. || nullRatio > 1.) {
+        throw new IllegalArgumentException("Null ratio must be between 0 and 1.");
+      }
+      this.nullRatio = nullRatio;
+      return this;
+    }
+
+    /**
+     * Sets the text lengths.
+     *
+     * @param min          the minimum length
+     * @param max          the maximum length
+     * @param distribution the distribution of the lengths
+     * @return the builder
+     */
+    public Builder textLength(int min, int max, LengthDistribution distribution) {
+      if (min < 0 || max < min) {
+        throw new IllegalArgumentException("Text lengths must be 0 <= min <= max.");
+      }
+      this.minTextLength = min;
+      this.maxTextLength = max;
+      this.lengthDistribution = distribution != null ? distribution : LengthDistribution.UNIFORM;
+      return this;
+    }
+
+    /**
+     * Sets how much the objects are sorted by the given comparator. With 1 the objects are sorted,
+     * with 0 they are shuffled. Between the sorted objects are disturbed by {@code (1 -
+     * presortedness) * size} random swaps.
+     *
+     * @param presortedness the presortedness (between 0 and 1)
+     * @param comparator    the comparator
+     * @return the builder
+     */
+    public Builder presorted(double presortedness, Comparator<Object> comparator) {
+      if (presortedness < 0. || presortedness > 1.) {
+        throw new IllegalArgumentException("Presortedness must be between 0 and 1.");
+      }
+      this.presortedness = presortedness;
+      this.presortComparator = comparator;
+      return this;
+    }
+
+    /**
+     * Sets the seed of the random generator.
+     *
+     * @param seed the seed
+     * @return the builder
+     */
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Builds the data generator.
+     *
+     * @return the data generator
+     */
+    public DataGenerator build() {
+      return new DataGenerator(this);
+    }
+  }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.benchmark;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.OrderStatistics;
+import org.bremersee.comparator.benchmark.DataGenerator.LengthDistribution;
+import org.bremersee.comparator.benchmark.model.BenchmarkObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures sorting large data sets, that are created by the {@link DataGenerator}, with comparators
+ * built from well known text. Each invocation works on a fresh copy of the generated objects, so
+ * every invocation sorts the same input.
+ *
+ * <p>The defaults model one million objects. Use the JMH option {@code -p} to change the size or
+ * the distribution of the values, e. g. {@code -p size=5000000 -p nullRatio=0.3}.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class LargeSortBenchmark {
+
+  /**
+   * The number of objects.
+   */
+  @Param({"1000000"})
+  public int size;
+
+  /**
+   * The number of distinct values per field.
+   */
+  @Param({"100", "100000"})
+  public int cardinality;
+
+  /**
+   * The ratio of {@code null} values.
+   */
+  @Param({"0.05"})
+  public double nullRatio;
+
+  /**
+   * The distribution of the text lengths between 4 and 32 characters.
+   */
+  @Param({"UNIFORM"})
+  public LengthDistribution textLengths;
+
+  /**
+   * How much the objects are already sorted (0 is shuffled, 1 is sorted).
+   */
+  @Param({"0", "0.9"})
+  public double presortedness;
+
+  /**
+   * The sort order.
+   */
+  @Param({
+      "child.text|child.number,desc",
+      "child.amount,desc,true,true|child.date|child.text,asc,false"
+  })
+  public String wkt;
+
+  /**
+   * The number of elements of the top-K benchmark.
+   */
+  @Param({"100"})
+  public int k;
+
+  private BenchmarkObject[] objects;
+
+  private Comparator<Object> comparator;
+
+  /**
+   * Generates the objects.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    comparator = ComparatorBuilder.builder().fromWellKnownText(wkt).build();
+    objects = DataGenerator.builder()
+        .size(size)
+        .cardinality(cardinality)
+        .nullRatio(nullRatio)
+        .textLength(4, 32, textLengths)
+        .presorted(presortedness, comparator)
+        .build()
+        .generate()
+        .toArray(new BenchmarkObject[0]);
+  }
+
+  /**
+   * Sorts all objects.
+   *
+   * @param work the copy of the objects
+   * @return the sorted objects
+   */
+  @Benchmark
+  public BenchmarkObject[] fullSort(Work work) {
+    Arrays.sort(work.objects, comparator);
+    return work.objects;
+  }
+
+  /**
+   * Selects the k smallest objects and sorts them.
+   *
+   * @param work the copy of the objects
+   * @return the objects, that start with the sorted top-K
+   */
+  @Benchmark
+  public BenchmarkObject[] topK(Work work) {
+    int end = Math.min(k, work.objects.length);
+    if (end < work.objects.length) {
+      OrderStatistics.nthElement(work.objects, end, comparator);
+    }
+    Arrays.sort(work.objects, 0, end, comparator);
+    return work.objects;
+  }
+
+  /**
+   * Sorts all objects with the common fork join pool.
+   *
+   * @param work the copy of the objects
+   * @return the sorted objects
+   */
+  @Benchmark
+  public BenchmarkObject[] parallelSort(Work work) {
+    Arrays.parallelSort(work.objects, comparator);
+    return work.objects;
+  }
+
+  /**
+   * Sorts all objects in four threads at the same time, each thread with its own copy, but all
+   * with the same comparator.
+   *
+   * @param work the copy of the objects
+   * @return the sorted objects
+   */
+  @Benchmark
+  @Threads(4)
+  public BenchmarkObject[] concurrentSorts(Work work) {
+    Arrays.sort(work.objects, comparator);
+    return work.objects;
+  }
+
+  /**
+   * The copy of the objects of a thread.
+   */
+  @State(Scope.Thread)
+  public static class Work {
+
+    private BenchmarkObject[] objects;
+
+    /**
+     * Copies the generated objects before each invocation.
+     *
+     * @param benchmark the benchmark with the generated objects
+     */
+    @Setup(Level.Invocation)
+    public void copy(LargeSortBenchmark benchmark) {
+      objects = benchmark.objects.clone();
+    }
+  }
+
+}
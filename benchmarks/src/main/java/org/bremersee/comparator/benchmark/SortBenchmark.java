@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.benchmark.model.BenchmarkObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures sorting a list of the given size with a comparator chain built from well known text
+ * against the hand-written chain.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+
+  /**
+   * The size of the list.
+   */
+  @Param({"100", "10000", "100000"})
+  public int size;
+
+  /**
+   * The number of fields of the chain.
+   */
+  @Param({"1", "3"})
+  public int chainDepth;
+
+  private List<BenchmarkObject> objects;
+
+  private Comparator<Object> comparatorChain;
+
+  private Comparator<BenchmarkObject> handWritten;
+
+  /**
+   * Creates the objects and the comparators.
+   */
+  @Setup
+  public void setup() {
+    objects = BenchmarkData.createObjects(size, 100, 0, 36L);
+    comparatorChain = ComparatorBuilder.builder()
+        .fromWellKnownText(BenchmarkData.wkt(chainDepth, 0))
+        .build();
+    handWritten = BenchmarkData.handWritten(chainDepth, 0);
+  }
+
+  /**
+   * Sorts a copy of the list with the comparator chain.
+   *
+   * @return the sorted list
+   */
+  @Benchmark
+  public List<BenchmarkObject> comparatorChain() {
+    List<BenchmarkObject> list = new ArrayList<>(objects);
+    list.sort(comparatorChain);
+    return list;
+  }
+
+  /**
+   * Sorts a copy of the list with the hand-written chain.
+   *
+   * @return the sorted list
+   */
+  @Benchmark
+  public List<BenchmarkObject> handWritten() {
+    List<BenchmarkObject> list = new ArrayList<>(objects);
+    list.sort(handWritten);
+    return list;
+  }
+
+}
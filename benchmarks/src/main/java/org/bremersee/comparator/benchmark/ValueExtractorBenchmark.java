@@ -0,0 +1,332 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.comparator.DefaultValueExtractor;
+import org.bremersee.comparator.ValueExtractor;
+import org.bremersee.comparator.ValueExtractorException;
+import org.bremersee.comparator.benchmark.model.BenchmarkObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the value extraction of the {@link DefaultValueExtractor} for the different ways a
+ * value is resolved. It is the baseline for any change of the extraction (like caching of
+ * accessors or generated code). The benchmark {@link #directAccess()} is the lower bound.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueExtractorBenchmark {
+
+  private final ValueExtractor extractor = new DefaultValueExtractor();
+
+  private final ValueExtractor lenientExtractor = new DefaultValueExtractor(false);
+
+  private final FieldObject fieldObject = new FieldObject("field");
+
+  private final GetterObject getterObject = new GetterObject("getter");
+
+  private final IsGetterObject isGetterObject = new IsGetterObject(true);
+
+  private final InheritedObject inheritedObject = new InheritedObject("inherited");
+
+  private final DefaultMethodObject defaultMethodObject = new DefaultMethodObject();
+
+  /**
+   * Resolves a declared field.
+   *
+   * @return the value
+   */
+  @Benchmark
+  public Object field() {
+    return extractor.findValue(fieldObject, "value");
+  }
+
+  /**
+   * Resolves a getter, after no field was found.
+   *
+   * @return the value
+   */
+  @Benchmark
+  public Object getter() {
+    return extractor.findValue(getterObject, "value");
+  }
+
+  /**
+   * Resolves an {@code is}-getter, after no field and no {@code get}-getter was found.
+   *
+   * @return the value
+   */
+  @Benchmark
+  public Object isGetter() {
+    return extractor.findValue(isGetterObject, "active");
+  }
+
+  /**
+   * Resolves a field, that is declared two classes up the hierarchy.
+   *
+   * @return the value
+   */
+  @Benchmark
+  public Object inheritedField() {
+    return extractor.findValue(inheritedObject, "value");
+  }
+
+  /**
+   * Resolves a getter, that is declared two classes up the hierarchy.
+   *
+   * @return the value
+   */
+  @Benchmark
+  public Object inheritedGetter() {
+    return extractor.findValue(inheritedObject, "upperValue");
+  }
+
+  /**
+   * Resolves an interface default method. The default value extractor searches the declared
+   * methods of the class hierarchy only, so the method is looked up on the interface type and then
+   * invoked.
+   *
+   * @return the value
+   */
+  @Benchmark
+  public Object interfaceDefaultMethod() {
+    Method method = extractor.findMethod(Named.class, "name")
+        .orElseThrow(IllegalStateException::new);
+    return extractor.invoke(method, defaultMethodObject);
+  }
+
+  /**
+   * Looks up a missing field with a lenient extractor, that returns {@code null}.
+   *
+   * @return the value
+   */
+  @Benchmark
+  public Object missingFieldLenient() {
+    return lenientExtractor.findValue(fieldObject, "missing");
+  }
+
+  /**
+   * Looks up a missing field with the default extractor, that throws an exception.
+   *
+   * @return the exception
+   */
+  @Benchmark
+  public Object missingFieldException() {
+    try {
+      return extractor.findValue(fieldObject, "missing");
+    } catch (ValueExtractorException e) {
+      return e;
+    }
+  }
+
+  /**
+   * Resolves a path of the given depth.
+   *
+   * @param state the path state
+   * @return the value
+   */
+  @Benchmark
+  public Object deepPath(PathState state) {
+    return extractor.findValue(state.object, state.path);
+  }
+
+  /**
+   * Creates the possible method names of a field.
+   *
+   * @return the method names
+   */
+  @Benchmark
+  public String[] possibleMethodNames() {
+    return extractor.getPossibleMethodNames("value");
+  }
+
+  /**
+   * Calls the getter directly.
+   *
+   * @return the value
+   */
+  @Benchmark
+  public Object directAccess() {
+    return getterObject.getValue();
+  }
+
+  /**
+   * The state of the deep path benchmark.
+   */
+  @State(Scope.Thread)
+  public static class PathState {
+
+    /**
+     * The number of children before the value is reached.
+     */
+    @Param({"1", "4", "8"})
+    public int pathDepth;
+
+    private BenchmarkObject object;
+
+    private String path;
+
+    /**
+     * Creates the object and the path.
+     */
+    @Setup
+    public void setup() {
+      object = BenchmarkData.createObjects(1, 10, pathDepth, 37L).get(0);
+      path = BenchmarkData.path("number", pathDepth);
+    }
+  }
+
+  /**
+   * An object with a field.
+   */
+  public static class FieldObject {
+
+    private final String value;
+
+    FieldObject(String value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * An object with a getter, whose name doesn't match a field.
+   */
+  public static class GetterObject {
+
+    private final String internalValue;
+
+    GetterObject(String internalValue) {
+      this.internalValue = internalValue;
+    }
+
+    /**
+     * Gets value.
+     *
+     * @return the value
+     */
+    public String getValue() {
+      return internalValue;
+    }
+  }
+
+  /**
+   * An object with an {@code is}-getter, whose name doesn't match a field.
+   */
+  public static class IsGetterObject {
+
+    private final boolean flag;
+
+    IsGetterObject(boolean flag) {
+      this.flag = flag;
+    }
+
+    /**
+     * Is active.
+     *
+     * @return the boolean
+     */
+    public boolean isActive() {
+      return flag;
+    }
+  }
+
+  /**
+   * The base class of the inherited object.
+   */
+  public static class BaseObject {
+
+    private final String value;
+
+    BaseObject(String value) {
+      this.value = value;
+    }
+
+    /**
+     * Gets upper value.
+     *
+     * @return the upper value
+     */
+    public String getUpperValue() {
+      return value.toUpperCase();
+    }
+  }
+
+  /**
+   * The intermediate class of the inherited object.
+   */
+  public static class IntermediateObject extends BaseObject {
+
+    private int intermediate;
+
+    IntermediateObject(String value) {
+      super(value);
+    }
+  }
+
+  /**
+   * An object, that inherits its field from a class three levels up.
+   */
+  public static class InheritedObject extends IntermediateObject {
+
+    private int inherited;
+
+    InheritedObject(String value) {
+      super(value);
+    }
+  }
+
+  /**
+   * An interface with a default method.
+   */
+  public interface Named {
+
+    /**
+     * Gets name.
+     *
+     * @return the name
+     */
+    default String getName() {
+      return "named";
+    }
+  }
+
+  /**
+   * An object, that gets its value from an interface default method.
+   */
+  public static class DefaultMethodObject implements Named {
+
+  }
+
+}
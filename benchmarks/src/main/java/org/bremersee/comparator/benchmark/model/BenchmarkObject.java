@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.benchmark.model;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * The benchmark object has a value of each benchmarked value type and an optional child, so that
+ * paths of any depth can be compared.
+ *
+ * @author Christian Bremer
+ */
+public class BenchmarkObject {
+
+  private int number;
+
+  private String text;
+
+  private Date date;
+
+  private BigDecimal amount;
+
+  private BenchmarkObject child;
+
+  /**
+   * Instantiates a new benchmark object.
+   */
+  public BenchmarkObject() {
+  }
+
+  /**
+   * Instantiates a new benchmark object.
+   *
+   * @param number the number
+   * @param text   the text
+   * @param date   the date
+   * @param amount the amount
+   * @param child  the child
+   */
+  public BenchmarkObject(int number, String text, Date date, BigDecimal amount,
+      BenchmarkObject child) {
+    this.number = number;
+    this.text = text;
+    this.date = date;
+    this.amount = amount;
+    this.child = child;
+  }
+
+  /**
+   * Gets number.
+   *
+   * @return the number
+   */
+  public int getNumber() {
+    return number;
+  }
+
+  /**
+   * Sets number.
+   *
+   * @param number the number
+   */
+  public void setNumber(int number) {
+    this.number = number;
+  }
+
+  /**
+   * Gets text.
+   *
+   * @return the text
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Sets text.
+   *
+   * @param text the text
+   */
+  public void setText(String text) {
+    this.text = text;
+  }
+
+  /**
+   * Gets date.
+   *
+   * @return the date
+   */
+  public Date getDate() {
+    return date;
+  }
+
+  /**
+   * Sets date.
+   *
+   * @param date the date
+   */
+  public void setDate(Date date) {
+    this.date = date;
+  }
+
+  /**
+   * Gets amount.
+   *
+   * @return the amount
+   */
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  /**
+   * Sets amount.
+   *
+   * @param amount the amount
+   */
+  public void setAmount(BigDecimal amount) {
+    this.amount = amount;
+  }
+
+  /**
+   * Gets child.
+   *
+   * @return the child
+   */
+  public BenchmarkObject getChild() {
+    return child;
+  }
+
+  /**
+   * Sets child.
+   *
+   * @param child the child
+   */
+  public void setChild(BenchmarkObject child) {
+    this.child = child;
+  }
+
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.bremersee.comparator.ComparatorException;
+import org.bremersee.comparator.ExternalSorter;
+import org.bremersee.comparator.SpillCodec;
+import org.bremersee.comparator.StreamingSorter;
+import org.bremersee.comparator.WellKnownTextConverter;
+import org.bremersee.comparator.csv.CsvColumnType;
+import org.bremersee.comparator.csv.CsvSorter;
+import org.bremersee.comparator.json.JsonSorter;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The sort command sorts a JSON or CSV file, that may be larger than the memory, by the well known
+ * text of comparator fields:
+ * <pre>
+ * java -jar comparator-cli.jar --sort 'lastName|firstName,desc' --in data.ndjson --memory 512m
+ * </pre>
+ *
+ * <p>Runs, that exceed the memory, are spilled into temporary files and merged afterwards (see
+ * {@link org.bremersee.comparator.ExternalSorter}). The exit code is {@code 0} on success,
+ * {@code 1} if sorting fails and {@code 2} if the arguments are invalid.
+ *
+ * @author Christian Bremer
+ */
+public class SortCommand {
+
+  static final String USAGE = String.join(System.lineSeparator(),
+      "Usage: java -jar comparator-cli.jar --sort <wkt> [options]",
+      "",
+      "  --sort <wkt>            the sort order, e. g. 'lastName|firstName,desc'",
+      "  --in <file>             the input file (default: standard input)",
+      "  --out <file>            the output file, can be the input file (default: standard output)",
+      "  --format <format>       json (newline-delimited or array) or csv",
+      "                          (default: by the extension of the input file)",
+      "  --memory <size>         the memory for sorting, e. g. 512m or 2g (default: 256m)",
+      "  --threads <n>           the number of threads, that sort and spill runs (default: 1)",
+      "  --temp <dir>            the directory of the spill files (default: system temp dir)",
+      "  --codec <name>          the compression codec of the spill files, e. g. deflate",
+      "  --delimiter <char>      the delimiter of csv (default: ,)",
+      "  --type <column>=<type>  the type of a csv column: string, long, decimal or date",
+      "  --date-format <pattern> the pattern of csv date columns (default: yyyy-MM-dd)",
+      "  --help                  prints this help");
+
+  private static final long DEFAULT_MEMORY = 256L * 1024L * 1024L;
+
+  private SortCommand() {
+  }
+
+  /**
+   * The entry point of the command line tool.
+   *
+   * @param args the command line arguments
+   */
+  public static void main(String[] args) {
+    System.exit(run(args, System.in, System.out, System.err));
+  }
+
+  /**
+   * Runs the sort command.
+   *
+   * @param args   the command line arguments
+   * @param stdin  the standard input
+   * @param stdout the standard output
+   * @param stderr the standard error output
+   * @return the exit code
+   */
+  static int run(String[] args, InputStream stdin, PrintStream stdout, PrintStream stderr) {
+    Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException e) {
+      stderr.println(e.getMessage());
+      stderr.println(USAGE);
+      return 2;
+    }
+    if (options.help) {
+      stdout.println(USAGE);
+      return 0;
+    }
+    try {
+      StreamingSorter sorter = options.sorter();
+      if (options.out == null) {
+        sort(sorter, options.in, stdin, stdout);
+        stdout.flush();
+      } else {
+        // the input may be the output, so the output is written to a temporary file first
+        Path out = options.out.toAbsolutePath();
+        Path tmp = Files.createTempFile(out.getParent(), out.getFileName().toString(), ".tmp");
+        try {
+          try (OutputStream output = Files.newOutputStream(tmp)) {
+            sort(sorter, options.in, stdin, output);
+          }
+          move(tmp, out);
+        } finally {
+          Files.deleteIfExists(tmp);
+        }
+      }
+      return 0;
+    } catch (IllegalArgumentException e) {
+      stderr.println(e.getMessage());
+      return 2;
+    } catch (IOException | ComparatorException e) {
+      stderr.println("Sorting failed: " + e.getMessage());
+      return 1;
+    }
+  }
+
+  private static void sort(StreamingSorter sorter, Path in, InputStream stdin, OutputStream out)
+      throws IOException {
+    if (in == null) {
+      sorter.sort(stdin, out);
+    } else {
+      try (InputStream input = Files.newInputStream(in)) {
+        sorter.sort(input, out);
+      }
+    }
+  }
+
+  private static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * The command line options.
+   */
+  static final class Options {
+
+    private boolean help;
+
+    private ComparatorFields comparatorFields;
+
+    private Path in;
+
+    private Path out;
+
+    private String format;
+
+    private long memory = DEFAULT_MEMORY;
+
+    private int threads = 1;
+
+    private Path temp;
+
+    private SpillCodec codec;
+
+    private char delimiter = ',';
+
+    private final Map<String, CsvColumnType> columnTypes = new LinkedHashMap<>();
+
+    private DateTimeFormatter dateFormatter;
+
+    private Options() {
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args the command line arguments
+     * @return the options
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    static Options parse(String[] args) {
+      Options options = new Options();
+      for (int i = 0; i < args.length; i++) {
+        String name = args[i];
+        if ("--help".equals(name) || "-h".equals(name)) {
+          options.help = true;
+          return options;
+        }
+        if (i + 1 >= args.length) {
+          throw new IllegalArgumentException("Missing value of option " + name + ".");
+        }
+        String value = args[++i];
+        switch (name) {
+          case "--sort":
+            options.comparatorFields = new WellKnownTextConverter().convert(value);
+            break;
+          case "--in":
+            options.in = Paths.get(value);
+            break;
+          case "--out":
+            options.out = Paths.get(value);
+            break;
+          case "--format":
+            options.format = value.toLowerCase(Locale.ROOT);
+            break;
+          case "--memory":
+            options.memory = parseSize(value);
+            break;
+          case "--threads":
+            options.threads = parsePositive(name, value);
+            break;
+          case "--temp":
+            options.temp = Paths.get(value);
+            break;
+          case "--codec":
+            options.codec = SpillCodec.forName(value);
+            break;
+          case "--delimiter":
+            options.delimiter = "\\t".equals(value) ? '\t' : single(name, value);
+            break;
+          case "--type":
+            int index = value.lastIndexOf('=');
+            if (index <= 0) {
+              throw new IllegalArgumentException("Illegal column type: " + value);
+            }
+            options.columnTypes.put(value.substring(0, index), CsvColumnType
+                .valueOf(value.substring(index + 1).toUpperCase(Locale.ROOT)));
+            break;
+          case "--date-format":
+            options.dateFormatter = DateTimeFormatter.ofPattern(value);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option " + name + ".");
+        }
+      }
+      if (options.comparatorFields == null || options.comparatorFields.getFields().isEmpty()) {
+        throw new IllegalArgumentException("Option --sort is required.");
+      }
+      if (options.format == null) {
+        options.format = formatOf(options.in);
+      }
+      return options;
+    }
+
+    private static String formatOf(Path in) {
+      String name = in != null ? in.getFileName().toString().toLowerCase(Locale.ROOT) : "";
+      if (name.endsWith(".csv")) {
+        return "csv";
+      }
+      if (name.endsWith(".json") || name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+        return "json";
+      }
+      throw new IllegalArgumentException("Option --format is required, if the format cannot "
+          + "be determined by the extension of the input file.");
+    }
+
+    private static long parseSize(String value) {
+      String size = value.trim().toLowerCase(Locale.ROOT);
+      long factor = 1L;
+      if (size.endsWith("k")) {
+        factor = 1024L;
+      } else if (size.endsWith("m")) {
+        factor = 1024L * 1024L;
+      } else if (size.endsWith("g")) {
+        factor = 1024L * 1024L * 1024L;
+      }
+      if (factor > 1L) {
+        size = size.substring(0, size.length() - 1);
+      }
+      return parsePositive("--memory", size) * factor;
+    }
+
+    private static int parsePositive(String name, String value) {
+      try {
+        int number = Integer.parseInt(value);
+        if (number > 0) {
+          return number;
+        }
+      } catch (NumberFormatException e) {
+        // handled below
+      }
+      throw new IllegalArgumentException("Value of option " + name
+          + " must be a positive number: " + value);
+    }
+
+    private static char single(String name, String value) {
+      if (value.length() != 1) {
+        throw new IllegalArgumentException("Value of option " + name
+            + " must be a single character: " + value);
+      }
+      return value.charAt(0);
+    }
+
+    /**
+     * Returns the memory limit of a run. With more than one thread the memory is shared by the
+     * reading thread and the spill threads, each of them holds one run. The limit is not larger
+     * than the largest run file, that can be mapped.
+     *
+     * @return the memory limit of a run in bytes
+     */
+    long runMemoryLimit() {
+      long memoryLimit = threads > 1 ? memory / (threads + 1) : memory;
+      return Math.max(1L, Math.min(memoryLimit, ExternalSorter.MAX_RUN_FILE_SIZE));
+    }
+
+    /**
+     * Creates the sorter of the format.
+     *
+     * @return the sorter
+     */
+    StreamingSorter sorter() {
+      long memoryLimit = runMemoryLimit();
+      switch (format) {
+        case "json":
+        case "ndjson":
+          return JsonSorter.builder()
+              .comparatorFields(comparatorFields)
+              .runSize(Integer.MAX_VALUE)
+              .memoryLimit(memoryLimit)
+              .threads(threads)
+              .tempDirectory(temp)
+              .codec(codec)
+              .build();
+        case "csv":
+          CsvSorter.Builder builder = CsvSorter.builder()
+              .comparatorFields(comparatorFields)
+              .delimiter(delimiter)
+              .dateFormatter(dateFormatter)
+              .runSize(Integer.MAX_VALUE)
+              .memoryLimit(memoryLimit)
+              .threads(threads)
+              .tempDirectory(temp)
+              .codec(codec);
+          columnTypes.forEach(builder::columnType);
+          return builder.build();
+        default:
+          throw new IllegalArgumentException("Unknown format " + format + ".");
+      }
+    }
+  }
+
+}
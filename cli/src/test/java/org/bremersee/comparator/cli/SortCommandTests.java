@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.bremersee.comparator.ExternalSorter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The sort command tests.
+ *
+ * @author Christian Bremer
+ */
+class SortCommandTests {
+
+  private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+
+  private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+  private int run(String stdin, String... args) {
+    return SortCommand.run(args,
+        new ByteArrayInputStream(stdin.getBytes(StandardCharsets.UTF_8)),
+        new PrintStream(stdout, true, StandardCharsets.UTF_8),
+        new PrintStream(stderr, true, StandardCharsets.UTF_8));
+  }
+
+  private static SortCommand.Options options(String... args) {
+    List<String> arguments = new ArrayList<>(List.of("--sort", "a", "--format", "csv"));
+    arguments.addAll(List.of(args));
+    return SortCommand.Options.parse(arguments.toArray(new String[0]));
+  }
+
+  /**
+   * Test sorting a newline-delimited JSON file in place with spilling and spill threads.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if reading or writing the files fails
+   */
+  @Test
+  void testSortJsonFile(@TempDir Path tempDirectory) throws IOException {
+    Random random = new Random(51L);
+    List<Integer> numbers = new ArrayList<>();
+    StringBuilder json = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      int number = random.nextInt(1000);
+      numbers.add(number);
+      json.append("{\"n\":").append(number).append(",\"text\":\"abcdefghijklmnop\"}\n");
+    }
+    Path file = tempDirectory.resolve("data.ndjson");
+    Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+    Path spill = Files.createDirectory(tempDirectory.resolve("spill"));
+
+    assertEquals(0, run("", "--sort", "n,desc", "--in", file.toString(), "--out",
+        file.toString(), "--memory", "16k", "--threads", "3", "--temp", spill.toString(),
+        "--codec", "deflate"), stderr.toString(StandardCharsets.UTF_8));
+
+    numbers.sort(Collections.reverseOrder());
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(numbers.size(), lines.size());
+    for (int i = 0; i < lines.size(); i++) {
+      assertEquals("{\"n\":" + numbers.get(i) + ",\"text\":\"abcdefghijklmnop\"}", lines.get(i));
+    }
+    try (Stream<Path> files = Files.list(spill)) {
+      assertEquals(0L, files.count());
+    }
+    try (Stream<Path> files = Files.list(tempDirectory)) {
+      assertEquals(2L, files.count());
+    }
+  }
+
+  /**
+   * Test sorting CSV from standard input to standard output.
+   */
+  @Test
+  void testSortCsv() {
+    assertEquals(0, run("name\tamount\nb\t10\na\t9\nc\t\n",
+        "--sort", "amount,asc,true,true", "--format", "csv", "--delimiter", "\\t",
+        "--type", "amount=long"));
+    assertEquals("name\tamount\nc\t\na\t9\nb\t10\n", stdout.toString(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Test the memory limit of a run.
+   */
+  @Test
+  void testRunMemoryLimit() {
+    assertEquals(1024L * 1024L, options("--memory", "1m").runMemoryLimit());
+    assertEquals(256L * 1024L, options("--memory", "1m", "--threads", "3").runMemoryLimit());
+    assertEquals(ExternalSorter.MAX_RUN_FILE_SIZE, options("--memory", "8g").runMemoryLimit());
+  }
+
+  /**
+   * Test the exit codes of invalid arguments and failures.
+   */
+  @Test
+  void testExitCodes() {
+    assertEquals(0, run("", "--help"));
+    assertTrue(stdout.toString(StandardCharsets.UTF_8).contains("--sort"));
+    assertEquals(2, run("", "--in", "data.json"));
+    assertEquals(2, run("", "--sort", "a"));
+    assertEquals(2, run("", "--sort", "a", "--format", "xml"));
+    assertEquals(2, run("", "--sort", "a", "--format", "json", "--memory", "lots"));
+    assertEquals(2, run("", "--sort", "a", "--format", "json", "--codec", "unknown"));
+    assertEquals(2, run("", "--sort", "a", "--format", "json", "--threads"));
+    assertEquals(2, run("a\n1", "--sort", "b", "--format", "csv"));
+    assertEquals(1, run("{\"a\":", "--sort", "a", "--format", "json"));
+    assertEquals(1, run("", "--sort", "a", "--in", "does-not-exist.json"));
+  }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.micrometer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.ComparatorListener;
+
+/**
+ * The Micrometer comparator listener records the events of a comparator (see {@link
+ * ComparatorBuilder#builder(ComparatorListener)}) with these meters:
+ *
+ * <ul>
+ *   <li>{@code comparator.comparisons} (timer) with the tags {@code level}, {@code field} and
+ *   {@code outcome} ({@code decided} or {@code tie})</li>
+ *   <li>{@code comparator.extractions} (timer) with the tag {@code field}</li>
+ *   <li>{@code comparator.extraction.failures} (counter) with the tags {@code field} and
+ *   {@code exception}</li>
+ *   <li>{@code comparator.cache.hits} (counter) with the tag {@code field}</li>
+ * </ul>
+ *
+ * <p>All meters have the common tags of this listener, e. g. the name of the sort specification.
+ * The meters are created once and then taken from a local cache.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class MicrometerComparatorListener implements ComparatorListener {
+
+  /**
+   * The name of the comparison timer.
+   */
+  public static final String COMPARISONS = "comparator.comparisons";
+
+  /**
+   * The name of the extraction timer.
+   */
+  public static final String EXTRACTIONS = "comparator.extractions";
+
+  /**
+   * The name of the extraction failure counter.
+   */
+  public static final String EXTRACTION_FAILURES = "comparator.extraction.failures";
+
+  /**
+   * The name of the cache hit counter.
+   */
+  public static final String CACHE_HITS = "comparator.cache.hits";
+
+  private static final String NO_FIELD = "none";
+
+  private final MeterRegistry registry;
+
+  private final Tags tags;
+
+  private final ConcurrentMap<Integer, Timer[]> comparisonTimers = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Timer> extractionTimers = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Counter> failureCounters = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Counter> cacheHitCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new Micrometer comparator listener. The given name is added as tag
+   * {@code comparator} to all meters.
+   *
+   * @param registry the meter registry
+   * @param name     the name of the comparator, e. g. the name of the sort specification
+   */
+  public MicrometerComparatorListener(MeterRegistry registry, String name) {
+    this(registry, Tags.of("comparator", name));
+  }
+
+  /**
+   * Instantiates a new Micrometer comparator listener.
+   *
+   * @param registry the meter registry
+   * @param tags     the common tags of all meters
+   */
+  public MicrometerComparatorListener(MeterRegistry registry, Iterable<Tag> tags) {
+    if (registry == null) {
+      throw new IllegalArgumentException("Meter registry must not be null.");
+    }
+    this.registry = registry;
+    this.tags = Tags.of(tags);
+  }
+
+  private static String field(String field) {
+    return field != null ? field : NO_FIELD;
+  }
+
+  @Override
+  public void onComparison(int level, String field, int result, long nanos) {
+    Timer[] timers = comparisonTimers.get(level);
+    if (timers == null) {
+      timers = comparisonTimers.computeIfAbsent(level, key -> new Timer[]{
+          comparisonTimer(level, field, "tie"),
+          comparisonTimer(level, field, "decided")});
+    }
+    timers[result != 0 ? 1 : 0].record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private Timer comparisonTimer(int level, String field, String outcome) {
+    return Timer.builder(COMPARISONS)
+        .tags(tags)
+        .tag("level", String.valueOf(level))
+        .tag("field", field(field))
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
+  @Override
+  public void onExtraction(String field, long nanos) {
+    String key = field(field);
+    Timer timer = extractionTimers.get(key);
+    if (timer == null) {
+      timer = extractionTimers.computeIfAbsent(key, name -> Timer.builder(EXTRACTIONS)
+          .tags(tags)
+          .tag("field", name)
+          .register(registry));
+    }
+    timer.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void onExtractionFailure(String field, RuntimeException exception) {
+    String exceptionName = exception != null ? exception.getClass().getSimpleName() : "none";
+    failureCounters.computeIfAbsent(field(field) + '|' + exceptionName,
+        key -> Counter.builder(EXTRACTION_FAILURES)
+            .tags(tags)
+            .tag("field", field(field))
+            .tag("exception", exceptionName)
+            .register(registry))
+        .increment();
+  }
+
+  @Override
+  public void onCacheHit(String field) {
+    String key = field(field);
+    Counter counter = cacheHitCounters.get(key);
+    if (counter == null) {
+      counter = cacheHitCounters.computeIfAbsent(key, name -> Counter.builder(CACHE_HITS)
+          .tags(tags)
+          .tag("field", name)
+          .register(registry));
+    }
+    counter.increment();
+  }
+
+}
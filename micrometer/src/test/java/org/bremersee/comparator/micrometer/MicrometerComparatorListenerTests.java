@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.micrometer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Micrometer comparator listener tests.
+ *
+ * @author Christian Bremer
+ */
+class MicrometerComparatorListenerTests {
+
+  /**
+   * Test comparison and extraction meters.
+   */
+  @Test
+  void testMeters() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerComparatorListener listener = new MicrometerComparatorListener(registry, "test");
+    Comparator<Object> comparator = ComparatorBuilder.builder(listener)
+        .fromWellKnownText("length,desc|empty")
+        .build();
+    List<String> list = new ArrayList<>(Arrays.asList("a", "bb", "c", "dd", ""));
+    list.sort(comparator);
+    assertEquals(Arrays.asList("bb", "dd", "a", "c", ""), list);
+
+    long decided = registry.get(MicrometerComparatorListener.COMPARISONS)
+        .tag("comparator", "test").tag("level", "0").tag("outcome", "decided")
+        .timer().count();
+    long ties = registry.get(MicrometerComparatorListener.COMPARISONS)
+        .tag("level", "0").tag("field", "length").tag("outcome", "tie")
+        .timer().count();
+    long second = registry.get(MicrometerComparatorListener.COMPARISONS)
+        .tag("level", "1").tag("field", "empty")
+        .timers().stream().mapToLong(timer -> timer.count()).sum();
+    assertTrue(decided > 0);
+    assertTrue(ties > 0);
+    assertEquals(ties, second);
+    assertEquals(2 * (decided + ties), registry.get(MicrometerComparatorListener.EXTRACTIONS)
+        .tag("field", "length").timer().count());
+  }
+
+  /**
+   * Test failure and cache hit counters.
+   */
+  @Test
+  void testCounters() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerComparatorListener listener = new MicrometerComparatorListener(registry, "test");
+    Comparator<Object> comparator = ComparatorBuilder.builder(listener)
+        .fromWellKnownText("notExists")
+        .build();
+    assertThrows(RuntimeException.class, () -> comparator.compare("a", "b"));
+    assertEquals(1., registry.get(MicrometerComparatorListener.EXTRACTION_FAILURES)
+        .tag("field", "notExists").tag("exception", "ValueExtractorException")
+        .counter().count());
+    listener.onCacheHit(null);
+    listener.onCacheHit(null);
+    assertEquals(2., registry.get(MicrometerComparatorListener.CACHE_HITS)
+        .tag("field", "none").counter().count());
+  }
+
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.bremersee.comparator.model.ComparatorField;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The base of streaming sorters, that keep the records as raw bytes and extract only the values
+ * of the sort fields from them. The raw bytes are the payload of an {@link ExternalSorter} and
+ * are written unchanged to the output.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class AbstractStreamingSorter implements StreamingSorter {
+
+  private static final SpillSerializer<RawRecord> SERIALIZER = new SpillSerializer<RawRecord>() {
+    @Override
+    public byte[] serialize(RawRecord value) {
+      return value.bytes;
+    }
+
+    @Override
+    public RawRecord deserialize(ByteBuffer payload) {
+      byte[] bytes = new byte[payload.remaining()];
+      payload.get(bytes);
+      return new RawRecord(bytes, null);
+    }
+
+    @Override
+    public long sizeOf(RawRecord value) {
+      long size = 48L + value.bytes.length;
+      for (Object sortValue : value.values) {
+        size += 8L + sizeOfValue(sortValue);
+      }
+      return size;
+    }
+  };
+
+  private final Map<String, Integer> sortFieldIndexes;
+
+  private final ExternalSorter<RawRecord> sorter;
+
+  /**
+   * Instantiates a new streaming sorter.
+   *
+   * @param builder the builder
+   * @throws IllegalArgumentException if the comparator fields are {@code null} or empty
+   */
+  protected AbstractStreamingSorter(AbstractBuilder<?> builder) {
+    if (builder.comparatorFields == null || builder.comparatorFields.getFields().isEmpty()) {
+      throw new IllegalArgumentException("Comparator fields must not be null or empty.");
+    }
+    Map<String, Integer> indexes = new LinkedHashMap<>();
+    for (ComparatorField field : builder.comparatorFields.getFields()) {
+      indexes.putIfAbsent(field.getField(), indexes.size());
+    }
+    this.sortFieldIndexes = Collections.unmodifiableMap(indexes);
+    ExternalSorter.Builder<RawRecord> sorterBuilder = ExternalSorter.builder(SERIALIZER)
+        .comparatorFields(builder.comparatorFields)
+        .valueExtractor((obj, field) -> ((RawRecord) obj).getValue(indexes.get(field)))
+        .runSize(builder.runSize)
+        .tempDirectory(builder.tempDirectory)
+        .codec(builder.codec)
+        .threads(builder.threads);
+    if (builder.memoryLimit > 0L) {
+      sorterBuilder.memoryLimit(builder.memoryLimit);
+    }
+    this.sorter = sorterBuilder.build();
+  }
+
+  private static long sizeOfValue(Object value) {
+    if (value == null) {
+      return 0L;
+    }
+    if (value instanceof String) {
+      // the decoded string is about twice as large as its UTF-8 bytes
+      return 40L + 2L * ((String) value).length();
+    }
+    if (value instanceof BigDecimal) {
+      return 64L + ((BigDecimal) value).unscaledValue().bitLength() / 8;
+    }
+    return 24L;
+  }
+
+  /**
+   * Gets the indexes of the distinct sort field names in the order of the comparator fields. The
+   * values of a raw record are stored at these indexes.
+   *
+   * @return the indexes of the sort field names
+   */
+  protected final Map<String, Integer> getSortFieldIndexes() {
+    return sortFieldIndexes;
+  }
+
+  /**
+   * Sorts the records of the given iterator and passes them in sorted order to the given writer.
+   *
+   * @param records the records
+   * @param writer  the writer
+   * @throws IOException if reading, spilling or writing fails
+   */
+  protected final void sort(RawRecordIterator records, RawRecordWriter writer)
+      throws IOException {
+    try {
+      sorter.sort(records, record -> {
+        try {
+          writer.write(record);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * A record with its raw bytes and the values of the sort fields.
+   */
+  protected static final class RawRecord {
+
+    private final byte[] bytes;
+
+    private final Object[] values;
+
+    /**
+     * Instantiates a new raw record.
+     *
+     * @param bytes  the raw bytes
+     * @param values the values of the sort fields in the order of the sort field indexes (can be
+     *               {@code null} after deserialization)
+     */
+    public RawRecord(byte[] bytes, Object[] values) {
+      this.bytes = bytes;
+      this.values = values;
+    }
+
+    /**
+     * Gets the raw bytes.
+     *
+     * @return the raw bytes
+     */
+    public byte[] getBytes() {
+      return bytes;
+    }
+
+    /**
+     * Gets the value of the sort field with the given index.
+     *
+     * @param index the index of the sort field
+     * @return the value
+     */
+    public Object getValue(int index) {
+      return values[index];
+    }
+  }
+
+  /**
+   * An iterator of raw records, that reads the next record on demand and wraps I/O exceptions into
+   * unchecked exceptions. The end of the input is read only once.
+   */
+  protected abstract static class RawRecordIterator implements Iterator<RawRecord> {
+
+    private RawRecord next;
+
+    private boolean done;
+
+    /**
+     * Reads the next record.
+     *
+     * @return the next record or {@code null} at the end of the input
+     * @throws IOException if reading fails or the input is malformed
+     */
+    protected abstract RawRecord readNext() throws IOException;
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !done) {
+        try {
+          next = readNext();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        done = next == null;
+      }
+      return next != null;
+    }
+
+    @Override
+    public RawRecord next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      RawRecord record = next;
+      next = null;
+      return record;
+    }
+  }
+
+  /**
+   * Writes a sorted raw record.
+   */
+  @FunctionalInterface
+  protected interface RawRecordWriter {
+
+    /**
+     * Writes the given record.
+     *
+     * @param record the record
+     * @throws IOException if writing fails
+     */
+    void write(RawRecord record) throws IOException;
+  }
+
+  /**
+   * The base of the builders of streaming sorters.
+   *
+   * @param <B> the type of the builder
+   */
+  public abstract static class AbstractBuilder<B extends AbstractBuilder<B>> {
+
+    private ComparatorFields comparatorFields;
+
+    private int runSize = 100_000;
+
+    private long memoryLimit;
+
+    private Path tempDirectory;
+
+    private SpillCodec codec;
+
+    private int threads = 1;
+
+    /**
+     * Returns this builder.
+     *
+     * @return this builder
+     */
+    protected abstract B self();
+
+    /**
+     * Sets the comparator fields.
+     *
+     * @param comparatorFields the comparator fields
+     * @return the builder
+     */
+    public B comparatorFields(ComparatorFields comparatorFields) {
+      this.comparatorFields = comparatorFields;
+      return self();
+    }
+
+    /**
+     * Sets the maximum number of records of a run (see {@link ExternalSorter.Builder#runSize}).
+     *
+     * @param runSize the run size
+     * @return the builder
+     */
+    public B runSize(int runSize) {
+      this.runSize = runSize;
+      return self();
+    }
+
+    /**
+     * Sets the memory limit of a run (see {@link ExternalSorter.Builder#memoryLimit}).
+     *
+     * @param memoryLimit the memory limit in bytes
+     * @return the builder
+     */
+    public B memoryLimit(long memoryLimit) {
+      this.memoryLimit = memoryLimit;
+      return self();
+    }
+
+    /**
+     * Sets the directory of the run files (see {@link ExternalSorter.Builder#tempDirectory}).
+     *
+     * @param tempDirectory the directory of the run files
+     * @return the builder
+     */
+    public B tempDirectory(Path tempDirectory) {
+      this.tempDirectory = tempDirectory;
+      return self();
+    }
+
+    /**
+     * Sets the codec of the run files (see {@link ExternalSorter.Builder#codec}).
+     *
+     * @param codec the codec
+     * @return the builder
+     */
+    public B codec(SpillCodec codec) {
+      this.codec = codec;
+      return self();
+    }
+
+    /**
+     * Sets the number of threads, that sort and spill runs in parallel (see
+     * {@link ExternalSorter.Builder#threads}).
+     *
+     * @param threads the number of spill threads
+     * @return the builder
+     */
+    public B threads(int threads) {
+      this.threads = threads;
+      return self();
+    }
+  }
+
+}
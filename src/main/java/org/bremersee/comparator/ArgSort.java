@@ -0,0 +1,273 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The arg sort returns the sorting permutation of a list or an array instead of moving its
+ * elements. The element at position {@code i} of the sorted order is the element at position
+ * {@code permutation[i]} of the unsorted list.
+ *
+ * <p>So one backing list can be shown in several orders with lightweight permutations instead of
+ * several sorted copies:
+ * <pre>
+ * int[] byName = ArgSort.argsort(persons, nameFields);
+ * int[] byAge = ArgSort.argsort(persons, ageFields);
+ * List&lt;Person&gt; personsByAge = ArgSort.permuted(persons, byAge);
+ * </pre>
+ *
+ * <p>The sort key values of each element are extracted only once. The sort is stable, so equal
+ * elements keep their order.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class ArgSort {
+
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  private ArgSort() {
+  }
+
+  /**
+   * Returns the sorting permutation of the given list.
+   *
+   * @param list             the list
+   * @param comparatorFields the comparator fields
+   * @return the sorting permutation
+   */
+  public static int[] argsort(List<?> list, ComparatorFields comparatorFields) {
+    return argsort(list, comparatorFields, null);
+  }
+
+  /**
+   * Returns the sorting permutation of the given list. A custom value extractor can be specified.
+   *
+   * @param list             the list
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   * @return the sorting permutation
+   */
+  public static int[] argsort(
+      List<?> list,
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor) {
+    return argsort(list != null ? list.toArray() : new Object[0], comparatorFields,
+        valueExtractor);
+  }
+
+  /**
+   * Returns the sorting permutation of the given array.
+   *
+   * @param array            the array
+   * @param comparatorFields the comparator fields
+   * @return the sorting permutation
+   */
+  public static int[] argsort(Object[] array, ComparatorFields comparatorFields) {
+    return argsort(array, comparatorFields, null);
+  }
+
+  /**
+   * Returns the sorting permutation of the given array. A custom value extractor can be
+   * specified.
+   *
+   * @param array            the array
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   * @return the sorting permutation
+   */
+  public static int[] argsort(
+      Object[] array,
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor) {
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.SORT);
+    SortKeyExtractor keyExtractor = new SortKeyExtractor(comparatorFields, valueExtractor);
+    int length = array != null ? array.length : 0;
+    long start = event.extractionStarted();
+    Object[][] keys = new Object[length][];
+    for (int i = 0; i < length; i++) {
+      keys[i] = keyExtractor.extractValues(array[i]);
+    }
+    event.extractionFinished(start);
+    int[] permutation = identity(length);
+    boolean sorted = sort(permutation, (index1, index2) -> {
+      event.compared();
+      return keyExtractor.compareValues(keys[index1], keys[index2]);
+    });
+    event.finish(keyExtractor.getComparatorFields().toWkt(), length, sorted);
+    return permutation;
+  }
+
+  /**
+   * Returns the identity permutation of the given length.
+   *
+   * @param length the length
+   * @return the identity permutation
+   */
+  public static int[] identity(int length) {
+    int[] permutation = new int[length];
+    for (int i = 0; i < length; i++) {
+      permutation[i] = i;
+    }
+    return permutation;
+  }
+
+  /**
+   * Returns the inverse of the given permutation, that is the position of each element of the
+   * unsorted list in the sorted order.
+   *
+   * @param permutation the permutation
+   * @return the inverse permutation
+   */
+  public static int[] inverse(int[] permutation) {
+    int[] inverse = new int[permutation.length];
+    for (int i = 0; i < permutation.length; i++) {
+      inverse[permutation[i]] = i;
+    }
+    return inverse;
+  }
+
+  /**
+   * Returns an unmodifiable view of the given list in the order of the given permutation. The view
+   * reflects changes of the elements of the list, but the list must not change its size.
+   *
+   * @param <T>         the type of the elements
+   * @param list        the list
+   * @param permutation the permutation
+   * @return the view in the order of the permutation
+   */
+  public static <T> List<T> permuted(List<T> list, int[] permutation) {
+    if (list == null || permutation == null || list.size() != permutation.length) {
+      throw new IllegalArgumentException("List and permutation must have the same size.");
+    }
+    return new PermutedList<>(list, permutation);
+  }
+
+  /**
+   * Returns a copy of the given array in the order of the given permutation.
+   *
+   * @param <T>         the type of the elements
+   * @param array       the array
+   * @param permutation the permutation
+   * @return the permuted copy
+   */
+  public static <T> T[] apply(T[] array, int[] permutation) {
+    if (array == null || permutation == null || array.length != permutation.length) {
+      throw new IllegalArgumentException("Array and permutation must have the same length.");
+    }
+    T[] copy = Arrays.copyOf(array, array.length);
+    for (int i = 0; i < permutation.length; i++) {
+      copy[i] = array[permutation[i]];
+    }
+    return copy;
+  }
+
+  /**
+   * Sorts the given indexes stable by the given order.
+   *
+   * @param indexes the indexes
+   * @param order   the order of the indexes
+   * @return {@code true}, if the indexes were already sorted, otherwise {@code false}
+   */
+  static boolean sort(int[] indexes, IndexOrder order) {
+    for (int i = 1; i < indexes.length; i++) {
+      if (order.compare(indexes[i - 1], indexes[i]) > 0) {
+        sort(indexes, new int[indexes.length], 0, indexes.length, order);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Stable merge sort of the indexes between {@code from} (inclusive) and {@code to} (exclusive).
+   */
+  private static void sort(int[] indexes, int[] buffer, int from, int to, IndexOrder order) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      for (int i = from + 1; i < to; i++) {
+        int index = indexes[i];
+        int j = i - 1;
+        while (j >= from && order.compare(indexes[j], index) > 0) {
+          indexes[j + 1] = indexes[j];
+          j--;
+        }
+        indexes[j + 1] = index;
+      }
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    sort(indexes, buffer, from, mid, order);
+    sort(indexes, buffer, mid, to, order);
+    if (order.compare(indexes[mid - 1], indexes[mid]) <= 0) {
+      return;
+    }
+    System.arraycopy(indexes, from, buffer, from, to - from);
+    int left = from;
+    int right = mid;
+    for (int i = from; i < to; i++) {
+      if (right >= to || (left < mid && order.compare(buffer[left], buffer[right]) <= 0)) {
+        indexes[i] = buffer[left++];
+      } else {
+        indexes[i] = buffer[right++];
+      }
+    }
+  }
+
+  /**
+   * The order of indexes, that compares the elements at the indexes without boxing.
+   */
+  interface IndexOrder {
+
+    /**
+     * Compares the elements at the given indexes.
+     *
+     * @param index1 the first index
+     * @param index2 the second index
+     * @return a negative integer, zero, or a positive integer as the first element is less than,
+     *     equal to, or greater than the second
+     */
+    int compare(int index1, int index2);
+  }
+
+  private static final class PermutedList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<T> list;
+
+    private final int[] permutation;
+
+    private PermutedList(List<T> list, int[] permutation) {
+      this.list = list;
+      this.permutation = permutation;
+    }
+
+    @Override
+    public T get(int index) {
+      return list.get(permutation[index]);
+    }
+
+    @Override
+    public int size() {
+      return permutation.length;
+    }
+  }
+
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bremersee.comparator.ArgSort.IndexOrder;
+import org.bremersee.comparator.model.ComparatorField;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The columnar sorter sorts data, that is held column-wise in arrays ({@code long[]},
+ * {@code double[]} and {@code String[]}), by comparator fields, whose field names are the column
+ * names. It returns the sorting permutation (see {@link ArgSort}) and compares the primitive
+ * values directly, so no row objects are created and no values are boxed.
+ *
+ * <p>The {@code null} values of a primitive column are marked in a null bitmap: if the bit of a
+ * row is set, the value of the row is {@code null}. The order of {@code null} values and the case
+ * insensitive order of strings are the same as of the {@link ValueComparator}.
+ *
+ * <pre>
+ * ColumnarSorter sorter = ColumnarSorter.builder(3)
+ *     .longColumn("id", new long[]{1, 2, 3})
+ *     .doubleColumn("score", new double[]{0.5, 0, 0.7}, BitSet.valueOf(new long[]{2}))
+ *     .stringColumn("name", new String[]{"b", "a", null})
+ *     .build();
+ * int[] permutation = sorter.argsort(comparatorFields);
+ * </pre>
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class ColumnarSorter {
+
+  private final int rowCount;
+
+  private final Map<String, Column> columns;
+
+  private ColumnarSorter(int rowCount, Map<String, Column> columns) {
+    this.rowCount = rowCount;
+    this.columns = columns;
+  }
+
+  /**
+   * Creates a new builder of a columnar sorter.
+   *
+   * @param rowCount the number of rows, that is the length of each column
+   * @return the builder
+   */
+  public static Builder builder(int rowCount) {
+    return new Builder(rowCount);
+  }
+
+  /**
+   * Gets the number of rows.
+   *
+   * @return the number of rows
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Gets the column names.
+   *
+   * @return the column names
+   */
+  public Set<String> getColumnNames() {
+    return Collections.unmodifiableSet(columns.keySet());
+  }
+
+  /**
+   * Returns the sorting permutation of the rows. The sort is stable.
+   *
+   * @param comparatorFields the comparator fields, whose field names are column names
+   * @return the sorting permutation
+   * @throws IllegalArgumentException if the comparator fields are empty or contain an unknown
+   *                                  column
+   */
+  public int[] argsort(ComparatorFields comparatorFields) {
+    List<ComparatorField> fields = comparatorFields != null
+        ? comparatorFields.getFields()
+        : null;
+    if (fields == null || fields.isEmpty()) {
+      throw new IllegalArgumentException("Comparator fields must not be null or empty.");
+    }
+    IndexOrder[] orders = new IndexOrder[fields.size()];
+    for (int i = 0; i < orders.length; i++) {
+      ComparatorField field = fields.get(i);
+      Column column = columns.get(field.getField());
+      if (column == null) {
+        throw new IllegalArgumentException("Column [" + field.getField() + "] does not exist.");
+      }
+      orders[i] = order(column, field.isAsc(), field.isIgnoreCase(), field.isNullIsFirst());
+    }
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.SORT);
+    int[] permutation = ArgSort.identity(rowCount);
+    boolean sorted = ArgSort.sort(permutation, (row1, row2) -> {
+      event.compared();
+      for (IndexOrder order : orders) {
+        int result = order.compare(row1, row2);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    });
+    event.finish(comparatorFields.toWkt(), rowCount, sorted);
+    return permutation;
+  }
+
+  private static IndexOrder order(
+      Column column,
+      boolean asc,
+      boolean ignoreCase,
+      boolean nullIsFirst) {
+    return (row1, row2) -> {
+      boolean null1 = column.isNull(row1);
+      boolean null2 = column.isNull(row2);
+      int result;
+      if (null1 || null2) {
+        if (null1 && null2) {
+          return 0;
+        }
+        result = null1 == nullIsFirst ? -1 : 1;
+      } else {
+        result = column.compare(row1, row2, ignoreCase);
+      }
+      return asc ? result : -result;
+    };
+  }
+
+  private abstract static class Column {
+
+    private final BitSet nulls;
+
+    private Column(BitSet nulls) {
+      this.nulls = nulls;
+    }
+
+    boolean isNull(int row) {
+      return nulls != null && nulls.get(row);
+    }
+
+    abstract int compare(int row1, int row2, boolean ignoreCase);
+  }
+
+  private static final class LongColumn extends Column {
+
+    private final long[] values;
+
+    private LongColumn(long[] values, BitSet nulls) {
+      super(nulls);
+      this.values = values;
+    }
+
+    @Override
+    int compare(int row1, int row2, boolean ignoreCase) {
+      return Long.compare(values[row1], values[row2]);
+    }
+  }
+
+  private static final class DoubleColumn extends Column {
+
+    private final double[] values;
+
+    private DoubleColumn(double[] values, BitSet nulls) {
+      super(nulls);
+      this.values = values;
+    }
+
+    @Override
+    int compare(int row1, int row2, boolean ignoreCase) {
+      return Double.compare(values[row1], values[row2]);
+    }
+  }
+
+  private static final class StringColumn extends Column {
+
+    private final String[] values;
+
+    private StringColumn(String[] values) {
+      super(null);
+      this.values = values;
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return values[row] == null;
+    }
+
+    @Override
+    int compare(int row1, int row2, boolean ignoreCase) {
+      return ignoreCase
+          ? values[row1].compareToIgnoreCase(values[row2])
+          : values[row1].compareTo(values[row2]);
+    }
+  }
+
+  /**
+   * The builder of the columnar sorter.
+   */
+  public static class Builder {
+
+    private final int rowCount;
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    private Builder(int rowCount) {
+      if (rowCount < 0) {
+        throw new IllegalArgumentException("Row count must not be negative.");
+      }
+      this.rowCount = rowCount;
+    }
+
+    private Builder add(String name, int length, Column column) {
+      if (name == null || columns.containsKey(name)) {
+        throw new IllegalArgumentException("Column name [" + name + "] is null or not unique.");
+      }
+      if (length != rowCount) {
+        throw new IllegalArgumentException("Column [" + name + "] has " + length
+            + " rows, expected are " + rowCount + " rows.");
+      }
+      columns.put(name, column);
+      return this;
+    }
+
+    /**
+     * Adds a column of long values without {@code null} values.
+     *
+     * @param name   the column name
+     * @param values the values
+     * @return the builder
+     */
+    public Builder longColumn(String name, long[] values) {
+      return longColumn(name, values, null);
+    }
+
+    /**
+     * Adds a column of long values.
+     *
+     * @param name   the column name
+     * @param values the values
+     * @param nulls  the null bitmap (can be {@code null})
+     * @return the builder
+     */
+    public Builder longColumn(String name, long[] values, BitSet nulls) {
+      return add(name, values.length, new LongColumn(values, nulls));
+    }
+
+    /**
+     * Adds a column of double values without {@code null} values.
+     *
+     * @param name   the column name
+     * @param values the values
+     * @return the builder
+     */
+    public Builder doubleColumn(String name, double[] values) {
+      return doubleColumn(name, values, null);
+    }
+
+    /**
+     * Adds a column of double values.
+     *
+     * @param name   the column name
+     * @param values the values
+     * @param nulls  the null bitmap (can be {@code null})
+     * @return the builder
+     */
+    public Builder doubleColumn(String name, double[] values, BitSet nulls) {
+      return add(name, values.length, new DoubleColumn(values, nulls));
+    }
+
+    /**
+     * Adds a column of strings. A {@code null} element is a {@code null} value.
+     *
+     * @param name   the column name
+     * @param values the values
+     * @return the builder
+     */
+    public Builder stringColumn(String name, String[] values) {
+      return add(name, values.length, new StringColumn(values));
+    }
+
+    /**
+     * Builds the columnar sorter.
+     *
+     * @return the columnar sorter
+     */
+    public ColumnarSorter build() {
+      return new ColumnarSorter(rowCount, new LinkedHashMap<>(columns));
+    }
+  }
+
+}
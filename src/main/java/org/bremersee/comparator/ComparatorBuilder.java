@@ -16,6 +16,7 @@
 
 package org.bremersee.comparator;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedList;
@@ -39,6 +40,18 @@ public interface ComparatorBuilder {
     return new DefaultComparatorBuilder();
   }
 
+  /**
+   * Creates a new comparator builder, whose comparator reports its comparisons and value
+   * extractions to the given listener (see {@link ComparatorMetrics}). Each added comparator is a
+   * level of the built comparator chain; well known text adds one level per field.
+   *
+   * @param listener the listener (can be {@code null} - then nothing is reported)
+   * @return the new comparator builder
+   */
+  static ComparatorBuilder builder(ComparatorListener listener) {
+    return new DefaultComparatorBuilder(listener);
+  }
+
   /**
    * Adds the given comparator to this builder.
    *
@@ -254,6 +267,32 @@ public interface ComparatorBuilder {
     @SuppressWarnings("rawtypes")
     private final List<Comparator> comparatorChain = new LinkedList<>();
 
+    private final List<String> fields = new ArrayList<>();
+
+    private final ComparatorListener listener;
+
+    /**
+     * Instantiates a new default comparator builder.
+     */
+    public DefaultComparatorBuilder() {
+      this(null);
+    }
+
+    /**
+     * Instantiates a new default comparator builder with a listener.
+     *
+     * @param listener the listener (can be {@code null})
+     */
+    public DefaultComparatorBuilder(ComparatorListener listener) {
+      this.listener = listener;
+    }
+
+    private ValueExtractor instrument(ValueExtractor valueExtractor) {
+      return listener != null
+          ? new InstrumentedValueExtractor(valueExtractor, listener)
+          : valueExtractor;
+    }
+
     @Override
     public ComparatorBuilder add(
         String field,
@@ -261,7 +300,9 @@ public interface ComparatorBuilder {
         Comparator<?> comparator) {
 
       if (comparator != null) {
-        comparatorChain.add(new DelegatingComparator(field, valueExtractor, comparator));
+        comparatorChain.add(
+            new DelegatingComparator(field, instrument(valueExtractor), comparator));
+        fields.add(field);
       }
       return this;
     }
@@ -274,7 +315,9 @@ public interface ComparatorBuilder {
         boolean nullIsFirst,
         ValueExtractor valueExtractor) {
 
-      comparatorChain.add(new ValueComparator(field, asc, ignoreCase, nullIsFirst, valueExtractor));
+      comparatorChain.add(
+          new ValueComparator(field, asc, ignoreCase, nullIsFirst, instrument(valueExtractor)));
+      fields.add(field);
       return this;
     }
 
@@ -283,18 +326,46 @@ public interface ComparatorBuilder {
         String wkt,
         WellKnownTextParser wktParser) {
 
-      if (wktParser != null) {
+      if (listener != null) {
+        WellKnownTextParser parser = wktParser != null ? wktParser : ValueComparator::new;
+        for (ComparatorField field : parser.buildComparatorFields(wkt)) {
+          if (wktParser == null) {
+            add(field);
+          } else {
+            //noinspection rawtypes
+            Comparator comparator = wktParser.apply(field);
+            if (comparator != null) {
+              comparatorChain.add(comparator);
+              fields.add(field.getField());
+            }
+          }
+        }
+      } else if (wktParser != null) {
         comparatorChain.add(wktParser.parse(wkt));
+        fields.add(wkt);
       } else {
         WellKnownTextParser parser = ValueComparator::new;
         comparatorChain.add(parser.parse(wkt));
+        fields.add(wkt);
       }
       return this;
     }
 
     @Override
     public Comparator<Object> build() {
-      return new ComparatorChain(comparatorChain);
+      if (listener == null) {
+        return new ComparatorChain(comparatorChain);
+      }
+      //noinspection rawtypes
+      List<Comparator> instrumented = new ArrayList<>(comparatorChain.size());
+      int level = 0;
+      //noinspection rawtypes
+      for (Comparator comparator : comparatorChain) {
+        instrumented.add(
+            new InstrumentedComparator(level, fields.get(level), comparator, listener));
+        level++;
+      }
+      return new ComparatorChain(instrumented);
     }
   }
 
@@ -16,6 +16,8 @@
 
 package org.bremersee.comparator;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
@@ -41,6 +43,28 @@ public class ComparatorChain implements Comparator<Object> {
     this.comparators = comparators != null ? comparators : new LinkedList<>();
   }
 
+  /**
+   * Gets the comparators of this chain.
+   *
+   * @return the unmodifiable list of comparators
+   */
+  @SuppressWarnings("WeakerAccess")
+  public List<Comparator> getComparators() {
+    return Collections.unmodifiableList(comparators);
+  }
+
+  /**
+   * Explains this chain by sorting a copy of the given sample (see {@link
+   * ComparatorChainProfile#explain(Comparator, Collection)}).
+   *
+   * @param sample the sample
+   * @return the profile of this chain
+   */
+  @SuppressWarnings("WeakerAccess")
+  public ComparatorChainProfile explain(Collection<?> sample) {
+    return ComparatorChainProfile.explain(this, sample);
+  }
+
   @Override
   public int compare(Object o1, Object o2) {
     boolean wasCompared = false;
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import org.bremersee.comparator.ComparatorMetrics.LevelStatistics;
+
+/**
+ * The comparator chain profile explains a comparator chain: it sorts a sample with the chain and
+ * reports for each level how often it was reached, how often it decided the comparison and how
+ * often it produced a tie, and its average cost.
+ *
+ * <p>With this profile the fields of a sort specification can be found, that are never reached or
+ * that cost more than they decide. For example
+ * <pre>
+ * Comparator&lt;Object&gt; comparator = ComparatorBuilder.builder()
+ *     .fromWellKnownText("lastName|firstName|birthday")
+ *     .build();
+ * System.out.println(ComparatorChainProfile.explain(comparator, persons));
+ * </pre>
+ *
+ * <p>Nested comparator chains (e. g. of well known text) are flattened, so that each value
+ * comparator is a level of its own.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class ComparatorChainProfile {
+
+  private final int sampleSize;
+
+  private final List<Level> levels;
+
+  private ComparatorChainProfile(int sampleSize, List<Level> levels) {
+    this.sampleSize = sampleSize;
+    this.levels = Collections.unmodifiableList(levels);
+  }
+
+  /**
+   * Explains the given comparator by sorting a copy of the given sample with it. The sample is not
+   * modified.
+   *
+   * @param comparator the comparator (usually a comparator chain)
+   * @param sample     the sample
+   * @return the profile
+   */
+  public static ComparatorChainProfile explain(
+      Comparator<?> comparator,
+      Collection<?> sample) {
+    if (comparator == null) {
+      throw new IllegalArgumentException("Comparator must not be null.");
+    }
+    List<Comparator<?>> comparators = new ArrayList<>();
+    flatten(comparator, comparators);
+    List<String> descriptions = new ArrayList<>(comparators.size());
+    ComparatorMetrics metrics = new ComparatorMetrics();
+    //noinspection rawtypes
+    List<Comparator> instrumented = new ArrayList<>(comparators.size());
+    for (int i = 0; i < comparators.size(); i++) {
+      descriptions.add(describe(comparators.get(i)));
+      instrumented.add(
+          new InstrumentedComparator(i, descriptions.get(i), comparators.get(i), metrics));
+    }
+    List<Object> copy = sample != null ? new ArrayList<>(sample) : new ArrayList<>();
+    copy.sort(new ComparatorChain(instrumented));
+
+    LevelStatistics[] statistics = new LevelStatistics[comparators.size()];
+    for (LevelStatistics levelStatistics : metrics.getLevels()) {
+      statistics[levelStatistics.getLevel()] = levelStatistics;
+    }
+    List<Level> levels = new ArrayList<>(comparators.size());
+    for (int i = 0; i < statistics.length; i++) {
+      levels.add(statistics[i] != null
+          ? new Level(i, descriptions.get(i), statistics[i].getComparisons(),
+          statistics[i].getDecisions(), statistics[i].getNanos())
+          : new Level(i, descriptions.get(i), 0L, 0L, 0L));
+    }
+    return new ComparatorChainProfile(copy.size(), levels);
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static void flatten(Comparator<?> comparator, List<Comparator<?>> comparators) {
+    if (comparator instanceof ComparatorChain) {
+      for (Comparator child : ((ComparatorChain) comparator).getComparators()) {
+        flatten(child, comparators);
+      }
+    } else if (comparator instanceof InstrumentedComparator) {
+      flatten(((InstrumentedComparator) comparator).getComparator(), comparators);
+    } else if (comparator instanceof DelegatingComparator
+        && ((DelegatingComparator) comparator).getField() == null) {
+      // a delegating comparator without field compares the objects themselves
+      flatten(((DelegatingComparator) comparator).getComparator(), comparators);
+    } else {
+      comparators.add(comparator);
+    }
+  }
+
+  private static String describe(Comparator<?> comparator) {
+    if (comparator instanceof ValueComparator) {
+      return ((ValueComparator) comparator).getComparatorField().toWkt();
+    }
+    if (comparator instanceof DelegatingComparator
+        && ((DelegatingComparator) comparator).getField() != null) {
+      return ((DelegatingComparator) comparator).getField();
+    }
+    return comparator.getClass().getSimpleName();
+  }
+
+  /**
+   * Gets the size of the sample.
+   *
+   * @return the sample size
+   */
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  /**
+   * Gets the number of comparisons of the sort.
+   *
+   * @return the number of comparisons
+   */
+  public long getComparisons() {
+    return levels.isEmpty() ? 0L : levels.get(0).getComparisons();
+  }
+
+  /**
+   * Gets the levels of the comparator chain (including the levels, that were never reached).
+   *
+   * @return the levels
+   */
+  public List<Level> getLevels() {
+    return levels;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format(Locale.ROOT, "Sample size: %d, comparisons: %d%n",
+        sampleSize, getComparisons()));
+    sb.append(String.format(Locale.ROOT, "%5s  %-40s  %12s  %12s  %12s  %8s  %10s%n",
+        "level", "comparator", "comparisons", "decisions", "ties", "decided", "avg ns"));
+    for (Level level : levels) {
+      sb.append(String.format(Locale.ROOT, "%5d  %-40s  %12d  %12d  %12d  %7.1f%%  %10.1f%n",
+          level.getLevel(), level.getDescription(), level.getComparisons(),
+          level.getDecisions(), level.getTies(), 100. * level.getDecisionRate(),
+          level.getAverageNanos()));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * The profile of one level of the comparator chain.
+   */
+  public static class Level {
+
+    private final int level;
+
+    private final String description;
+
+    private final long comparisons;
+
+    private final long decisions;
+
+    private final long nanos;
+
+    private Level(int level, String description, long comparisons, long decisions, long nanos) {
+      this.level = level;
+      this.description = description;
+      this.comparisons = comparisons;
+      this.decisions = decisions;
+      this.nanos = nanos;
+    }
+
+    /**
+     * Gets the level (zero based).
+     *
+     * @return the level
+     */
+    public int getLevel() {
+      return level;
+    }
+
+    /**
+     * Gets the description of the comparator, e. g. the well known text of a value comparator.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+      return description;
+    }
+
+    /**
+     * Gets the number of comparisons, that reached this level.
+     *
+     * @return the number of comparisons
+     */
+    public long getComparisons() {
+      return comparisons;
+    }
+
+    /**
+     * Gets the number of comparisons, that were decided by this level.
+     *
+     * @return the number of decisions
+     */
+    public long getDecisions() {
+      return decisions;
+    }
+
+    /**
+     * Gets the number of ties, that were passed to the next level.
+     *
+     * @return the number of ties
+     */
+    public long getTies() {
+      return comparisons - decisions;
+    }
+
+    /**
+     * Gets the time spent in this level in nanoseconds.
+     *
+     * @return the time spent in nanoseconds
+     */
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * Checks whether this level was reached at all.
+     *
+     * @return {@code true} if this level was reached, otherwise {@code false}
+     */
+    public boolean isReached() {
+      return comparisons > 0L;
+    }
+
+    /**
+     * Gets the rate of the comparisons, that were decided by this level.
+     *
+     * @return the decision rate (between 0 and 1)
+     */
+    public double getDecisionRate() {
+      return comparisons > 0L ? (double) decisions / comparisons : 0.;
+    }
+
+    /**
+     * Gets the average cost of a comparison of this level in nanoseconds.
+     *
+     * @return the average cost in nanoseconds
+     */
+    public double getAverageNanos() {
+      return comparisons > 0L ? (double) nanos / comparisons : 0.;
+    }
+
+    @Override
+    public String toString() {
+      return "Level{level=" + level + ", description=" + description
+          + ", comparisons=" + comparisons + ", decisions=" + decisions
+          + ", nanos=" + nanos + '}';
+    }
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+/**
+ * The comparator listener is notified about the comparisons and value extractions of a comparator,
+ * that was built with {@link ComparatorBuilder#builder(ComparatorListener)}.
+ *
+ * <p>The listener is called on the hot path of every comparison, so the implementation must be
+ * cheap and thread safe. All methods do nothing by default. See {@link ComparatorMetrics} for an
+ * implementation, that counts the events.
+ *
+ * @author Christian Bremer
+ */
+public interface ComparatorListener {
+
+  /**
+   * Is called after a level of the comparator chain has compared two objects.
+   *
+   * @param level  the level of the comparator chain (zero based)
+   * @param field  the field name or path of the level (can be {@code null})
+   * @param result the result of the comparison; if it is not zero, the level has decided the
+   *               comparison, otherwise the next level is asked
+   * @param nanos  the time spent in this level (including the value extraction) in nanoseconds
+   */
+  default void onComparison(int level, String field, int result, long nanos) {
+  }
+
+  /**
+   * Is called after a value was extracted.
+   *
+   * @param field the field name or path
+   * @param nanos the time spent in nanoseconds
+   */
+  default void onExtraction(String field, long nanos) {
+  }
+
+  /**
+   * Is called, if the extraction of a value failed. The exception will be thrown after this call.
+   *
+   * @param field     the field name or path
+   * @param exception the exception
+   */
+  default void onExtractionFailure(String field, RuntimeException exception) {
+  }
+
+  /**
+   * Is called, if an extracted value was taken from a cache instead of extracting it again.
+   *
+   * @param field the field name or path
+   */
+  default void onCacheHit(String field) {
+  }
+
+}
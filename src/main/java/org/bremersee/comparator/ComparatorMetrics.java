@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The comparator metrics is a {@link ComparatorListener}, that counts the comparisons per level of
+ * the comparator chain and the extractions, extraction failures and cache hits per field.
+ *
+ * <p>For example
+ * <pre>
+ * ComparatorMetrics metrics = new ComparatorMetrics();
+ * list.sort(ComparatorBuilder.builder(metrics)
+ *     .fromWellKnownText("lastName|firstName")
+ *     .build());
+ * long ties = metrics.getLevels().get(0).getTies();
+ * </pre>
+ *
+ * <p>The metrics is thread safe.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class ComparatorMetrics implements ComparatorListener {
+
+  private final ConcurrentMap<Integer, LevelStatistics> levels = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, FieldStatistics> fields = new ConcurrentHashMap<>();
+
+  @Override
+  public void onComparison(int level, String field, int result, long nanos) {
+    LevelStatistics statistics = levels.get(level);
+    if (statistics == null) {
+      statistics = levels.computeIfAbsent(level, key -> new LevelStatistics(level, field));
+    }
+    statistics.comparisons.increment();
+    if (result != 0) {
+      statistics.decisions.increment();
+    }
+    statistics.nanos.add(nanos);
+  }
+
+  @Override
+  public void onExtraction(String field, long nanos) {
+    FieldStatistics statistics = field(field);
+    statistics.extractions.increment();
+    statistics.nanos.add(nanos);
+  }
+
+  @Override
+  public void onExtractionFailure(String field, RuntimeException exception) {
+    field(field).failures.increment();
+  }
+
+  @Override
+  public void onCacheHit(String field) {
+    field(field).cacheHits.increment();
+  }
+
+  private FieldStatistics field(String field) {
+    String key = field != null ? field : "";
+    FieldStatistics statistics = fields.get(key);
+    return statistics != null
+        ? statistics
+        : fields.computeIfAbsent(key, FieldStatistics::new);
+  }
+
+  /**
+   * Returns the number of comparisons, that is the number of comparisons of the first level.
+   *
+   * @return the number of comparisons
+   */
+  public long getComparisons() {
+    LevelStatistics first = levels.get(0);
+    return first != null ? first.getComparisons() : 0L;
+  }
+
+  /**
+   * Returns the statistics of the levels of the comparator chain ordered by level. Levels, that
+   * were never reached, are missing.
+   *
+   * @return the statistics of the levels
+   */
+  public List<LevelStatistics> getLevels() {
+    List<LevelStatistics> list = new ArrayList<>(levels.values());
+    list.sort((s1, s2) -> Integer.compare(s1.level, s2.level));
+    return list;
+  }
+
+  /**
+   * Returns the statistics of the fields ordered by field name or path. The field of an extraction
+   * without a field name is the empty string.
+   *
+   * @return the statistics of the fields
+   */
+  public List<FieldStatistics> getFields() {
+    List<FieldStatistics> list = new ArrayList<>(fields.values());
+    list.sort((s1, s2) -> s1.field.compareTo(s2.field));
+    return list;
+  }
+
+  /**
+   * Removes all counts.
+   */
+  public void reset() {
+    levels.clear();
+    fields.clear();
+  }
+
+  @Override
+  public String toString() {
+    return "ComparatorMetrics{levels=" + getLevels() + ", fields=" + getFields() + '}';
+  }
+
+  /**
+   * The statistics of one level of a comparator chain.
+   */
+  public static class LevelStatistics {
+
+    private final int level;
+
+    private final String field;
+
+    private final LongAdder comparisons = new LongAdder();
+
+    private final LongAdder decisions = new LongAdder();
+
+    private final LongAdder nanos = new LongAdder();
+
+    private LevelStatistics(int level, String field) {
+      this.level = level;
+      this.field = field;
+    }
+
+    /**
+     * Gets the level (zero based).
+     *
+     * @return the level
+     */
+    public int getLevel() {
+      return level;
+    }
+
+    /**
+     * Gets the field name or path of the level.
+     *
+     * @return the field (can be {@code null})
+     */
+    public String getField() {
+      return field;
+    }
+
+    /**
+     * Gets the number of comparisons, that reached this level.
+     *
+     * @return the number of comparisons
+     */
+    public long getComparisons() {
+      return comparisons.sum();
+    }
+
+    /**
+     * Gets the number of comparisons, that were decided by this level.
+     *
+     * @return the number of decisions
+     */
+    public long getDecisions() {
+      return decisions.sum();
+    }
+
+    /**
+     * Gets the number of comparisons, that were passed to the next level.
+     *
+     * @return the number of ties
+     */
+    public long getTies() {
+      return getComparisons() - getDecisions();
+    }
+
+    /**
+     * Gets the time spent in this level in nanoseconds.
+     *
+     * @return the time spent in nanoseconds
+     */
+    public long getNanos() {
+      return nanos.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "LevelStatistics{level=" + level + ", field=" + field
+          + ", comparisons=" + getComparisons() + ", decisions=" + getDecisions()
+          + ", nanos=" + getNanos() + '}';
+    }
+  }
+
+  /**
+   * The statistics of the extractions of one field.
+   */
+  public static class FieldStatistics {
+
+    private final String field;
+
+    private final LongAdder extractions = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder cacheHits = new LongAdder();
+
+    private final LongAdder nanos = new LongAdder();
+
+    private FieldStatistics(String field) {
+      this.field = field;
+    }
+
+    /**
+     * Gets the field name or path.
+     *
+     * @return the field
+     */
+    public String getField() {
+      return field;
+    }
+
+    /**
+     * Gets the number of successful extractions.
+     *
+     * @return the number of extractions
+     */
+    public long getExtractions() {
+      return extractions.sum();
+    }
+
+    /**
+     * Gets the number of failed extractions.
+     *
+     * @return the number of failures
+     */
+    public long getFailures() {
+      return failures.sum();
+    }
+
+    /**
+     * Gets the number of values, that were taken from a cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getCacheHits() {
+      return cacheHits.sum();
+    }
+
+    /**
+     * Gets the time spent in successful extractions in nanoseconds.
+     *
+     * @return the time spent in nanoseconds
+     */
+    public long getNanos() {
+      return nanos.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "FieldStatistics{field=" + field + ", extractions=" + getExtractions()
+          + ", failures=" + getFailures() + ", cacheHits=" + getCacheHits()
+          + ", nanos=" + getNanos() + '}';
+    }
+  }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * A thread safe sorted index that is ordered by comparator fields and is backed by a concurrent
+ * skip list.
+ *
+ * <p>The sort key values of an element are extracted once, when the element is put into the
+ * index. The skip list compares these precomputed keys, so there is no reflection under
+ * contention. Elements with equal sort keys are ordered by their insertion sequence, which serves
+ * as a unique tie breaker.
+ *
+ * <p>Elements are identified by {@link Object#equals(Object)} and {@link Object#hashCode()}, so
+ * these must not depend on the sort key fields. Putting an element that is already part of the
+ * index replaces the old entry (for example with a new version of an entity or after the sort key
+ * fields of the element have been changed). Writers of the same element are serialized, writers of
+ * different elements and readers don't block each other. Iterators and range views are weakly
+ * consistent.
+ *
+ * @param <T> the type of the elements
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class ConcurrentSortedIndex<T> implements Iterable<T> {
+
+  private final SortKeyExtractor keyExtractor;
+
+  private final ConcurrentSkipListMap<IndexKey, T> index;
+
+  private final Map<T, IndexKey> keys = new ConcurrentHashMap<>();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * Instantiates a new concurrent sorted index.
+   *
+   * @param comparatorFields the comparator fields
+   */
+  public ConcurrentSortedIndex(ComparatorFields comparatorFields) {
+    this(comparatorFields, null);
+  }
+
+  /**
+   * Instantiates a new concurrent sorted index. A custom value extractor can be specified.
+   *
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   */
+  public ConcurrentSortedIndex(ComparatorFields comparatorFields, ValueExtractor valueExtractor) {
+    this.keyExtractor = new SortKeyExtractor(comparatorFields, valueExtractor);
+    this.index = new ConcurrentSkipListMap<>(new IndexKeyComparator(keyExtractor));
+  }
+
+  /**
+   * Puts the given element into the index. If the element is already part of the index, the old
+   * entry is replaced.
+   *
+   * @param element the element
+   */
+  public void put(T element) {
+    if (element == null) {
+      throw new IllegalArgumentException("Element must not be null.");
+    }
+    Object[] values = keyExtractor.extractValues(element);
+    IndexKey key = new IndexKey(values, sequence.incrementAndGet(), 0);
+    keys.compute(element, (e, oldKey) -> {
+      if (oldKey != null) {
+        index.remove(oldKey);
+      }
+      index.put(key, e);
+      return key;
+    });
+  }
+
+  /**
+   * Removes the given element from the index.
+   *
+   * @param element the element
+   * @return {@code true} if the element was removed, otherwise {@code false}
+   */
+  public boolean remove(Object element) {
+    if (element == null) {
+      return false;
+    }
+    boolean[] removed = new boolean[1];
+    //noinspection SuspiciousMethodCalls,unchecked
+    keys.computeIfPresent((T) element, (e, key) -> {
+      index.remove(key);
+      removed[0] = true;
+      return null;
+    });
+    return removed[0];
+  }
+
+  /**
+   * Checks whether the given element is part of the index.
+   *
+   * @param element the element
+   * @return {@code true} if the element is part of the index, otherwise {@code false}
+   */
+  public boolean contains(Object element) {
+    //noinspection SuspiciousMethodCalls
+    return element != null && keys.containsKey(element);
+  }
+
+  /**
+   * Returns the number of elements.
+   *
+   * @return the number of elements
+   */
+  public int size() {
+    return keys.size();
+  }
+
+  /**
+   * Checks whether the index is empty.
+   *
+   * @return {@code true} if the index is empty, otherwise {@code false}
+   */
+  public boolean isEmpty() {
+    return keys.isEmpty();
+  }
+
+  /**
+   * Returns the first (smallest) element.
+   *
+   * @return the first element or {@code null}, if the index is empty
+   */
+  public T first() {
+    Map.Entry<IndexKey, T> entry = index.firstEntry();
+    return entry != null ? entry.getValue() : null;
+  }
+
+  /**
+   * Returns the last (greatest) element.
+   *
+   * @return the last element or {@code null}, if the index is empty
+   */
+  public T last() {
+    Map.Entry<IndexKey, T> entry = index.lastEntry();
+    return entry != null ? entry.getValue() : null;
+  }
+
+  /**
+   * Returns a weakly consistent view of all elements whose sort keys are in the given range. The
+   * bounds are given as sort key values in the order of the comparator fields. A bound may contain
+   * fewer values than there are comparator fields, then only this prefix of the sort key is
+   * compared. For example with the comparator fields {@code lastName|firstName} the range from
+   * {@code ["A"]} inclusive to {@code ["C"]} exclusive contains all elements whose last name starts
+   * with 'A' or 'B'.
+   *
+   * @param fromValues    the sort key values of the lower bound (can be {@code null} - then there
+   *                      is no lower bound)
+   * @param fromInclusive specifies whether elements with the sort key of the lower bound are
+   *                      included
+   * @param toValues      the sort key values of the upper bound (can be {@code null} - then there
+   *                      is no upper bound)
+   * @param toInclusive   specifies whether elements with the sort key of the upper bound are
+   *                      included
+   * @return the elements of the range in sorted order
+   */
+  public Collection<T> range(
+      Object[] fromValues,
+      boolean fromInclusive,
+      Object[] toValues,
+      boolean toInclusive) {
+    ConcurrentNavigableMap<IndexKey, T> range = index;
+    if (fromValues != null) {
+      range = range.tailMap(bound(fromValues, fromInclusive ? -1 : 1));
+    }
+    if (toValues != null) {
+      range = range.headMap(bound(toValues, toInclusive ? 1 : -1));
+    }
+    return range.values();
+  }
+
+  /**
+   * Returns a weakly consistent view of all elements in descending order.
+   *
+   * @return the elements in descending order
+   */
+  public Collection<T> descending() {
+    return index.descendingMap().values();
+  }
+
+  /**
+   * Returns a weakly consistent iterator over all elements in ascending order. The iterator
+   * supports removal.
+   *
+   * @return the iterator
+   */
+  @Override
+  public Iterator<T> iterator() {
+    Iterator<T> iterator = index.values().iterator();
+    return new Iterator<T>() {
+
+      private T current;
+
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public T next() {
+        current = iterator.next();
+        return current;
+      }
+
+      @Override
+      public void remove() {
+        if (current == null) {
+          throw new IllegalStateException();
+        }
+        ConcurrentSortedIndex.this.remove(current);
+        current = null;
+      }
+    };
+  }
+
+  /**
+   * Removes all elements.
+   */
+  public void clear() {
+    for (T element : keys.keySet()) {
+      remove(element);
+    }
+  }
+
+  private IndexKey bound(Object[] values, int tie) {
+    if (values.length > keyExtractor.size()) {
+      throw new IllegalArgumentException("There are more values than comparator fields.");
+    }
+    return new IndexKey(values.clone(), 0L, tie);
+  }
+
+  /**
+   * The precomputed sort key of an element or a bound of a range.
+   */
+  private static final class IndexKey {
+
+    private final Object[] values;
+
+    private final long sequence;
+
+    /**
+     * Is zero for the key of an element. For a bound it is {@code -1} or {@code 1} and places the
+     * bound before or behind all keys that start with the values of the bound.
+     */
+    private final int tie;
+
+    private IndexKey(Object[] values, long sequence, int tie) {
+      this.values = values;
+      this.sequence = sequence;
+      this.tie = tie;
+    }
+  }
+
+  private static final class IndexKeyComparator implements Comparator<IndexKey> {
+
+    private final SortKeyExtractor keyExtractor;
+
+    private IndexKeyComparator(SortKeyExtractor keyExtractor) {
+      this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public int compare(IndexKey k1, IndexKey k2) {
+      int length = Math.min(k1.values.length, k2.values.length);
+      for (int i = 0; i < length; i++) {
+        int result = keyExtractor.getComparator(i).compareValues(k1.values[i], k2.values[i]);
+        if (result != 0) {
+          return result;
+        }
+      }
+      if (k1.tie != 0 || k2.tie != 0) {
+        return Integer.compare(k1.tie, k2.tie);
+      }
+      return Long.compare(k1.sequence, k2.sequence);
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The spill codec with the deflate algorithm of {@link Deflater} and {@link Inflater}. The codec
+ * is thread-safe, every call uses its own deflater or inflater.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class DeflateSpillCodec implements SpillCodec {
+
+  /**
+   * The name of the codec.
+   */
+  public static final String NAME = "deflate";
+
+  private final int level;
+
+  /**
+   * Instantiates a new deflate spill codec with the fastest compression level, because spilling is
+   * usually limited by the disk and not by the size of the files.
+   */
+  public DeflateSpillCodec() {
+    this(Deflater.BEST_SPEED);
+  }
+
+  /**
+   * Instantiates a new deflate spill codec.
+   *
+   * @param level the compression level (0-9 or -1 for the default level)
+   */
+  public DeflateSpillCodec(int level) {
+    if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("Illegal compression level: " + level);
+    }
+    this.level = level;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] compress(byte[] data, int length) {
+    Deflater deflater = new Deflater(level);
+    try {
+      deflater.setInput(data, 0, length);
+      deflater.finish();
+      byte[] compressed = new byte[Math.max(64, length / 2)];
+      int compressedLength = 0;
+      while (!deflater.finished()) {
+        if (compressedLength == compressed.length) {
+          compressed = Arrays.copyOf(compressed, compressed.length * 2);
+        }
+        compressedLength += deflater.deflate(
+            compressed, compressedLength, compressed.length - compressedLength);
+      }
+      return Arrays.copyOf(compressed, compressedLength);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public void decompress(ByteBuffer compressed, byte[] data, int length) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(compressed);
+      int decompressedLength = 0;
+      while (decompressedLength < length) {
+        int n = inflater.inflate(data, decompressedLength, length - decompressedLength);
+        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new IOException("Compressed block is truncated.");
+        }
+        decompressedLength += n;
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Compressed block is corrupt.", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+}
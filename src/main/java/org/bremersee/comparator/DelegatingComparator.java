@@ -67,6 +67,24 @@ public class DelegatingComparator implements Comparator<Object> {
     this.valueExtractor = valueExtractor != null ? valueExtractor : new DefaultValueExtractor();
   }
 
+  /**
+   * Gets the field name or path.
+   *
+   * @return the field name or path (can be {@code null})
+   */
+  public String getField() {
+    return field;
+  }
+
+  /**
+   * Gets the comparator, that compares the values of the field.
+   *
+   * @return the comparator
+   */
+  Comparator<?> getComparator() {
+    return comparator;
+  }
+
   @Override
   public int compare(Object o1, Object o2) {
     final Object v1 = valueExtractor.findValue(o1, field);
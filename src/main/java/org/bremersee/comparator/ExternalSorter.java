@@ -0,0 +1,512 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The external sorter sorts more elements than fit into memory by comparator fields. The elements
+ * are sorted in runs, that are limited by a number of elements and optionally by memory; if there
+ * is more than one run, the runs are spilled into memory-mapped files, that are merged afterwards.
+ *
+ * <p>A spilled run consists of the normalized keys of the elements (byte sequences, whose unsigned
+ * order is the order of the comparator fields) with the offsets of the serialized elements (see
+ * {@link SpillSerializer}). The merge compares the keys directly in the mapped files and
+ * deserializes only the element, that is emitted next, so the operating system's page cache does
+ * the buffering. A run, that is too large to be mapped (2 GiB), is split into several run files.
+ * The sort is stable.
+ *
+ * <p>The run files can be compressed with a {@link SpillCodec}. Then they are written and read in
+ * blocks, and the merge decompresses one block of each run at a time.
+ *
+ * <pre>
+ * ExternalSorter&lt;String&gt; sorter = ExternalSorter.builder(SpillSerializer.utf8())
+ *     .comparatorFields(new ComparatorFields(...))
+ *     .valueExtractor((line, field) -&gt; ...)
+ *     .runSize(1_000_000)
+ *     .build();
+ * sorter.sort(lines.iterator(), writer::println);
+ * </pre>
+ *
+ * <p>The sort key values must be supported by normalized keys: strings, characters, booleans,
+ * integral and floating point numbers, big decimals, big integers, enums, dates, instants, local
+ * dates, local date times and local times.
+ *
+ * @param <T> the type of the elements
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class ExternalSorter<T> {
+
+  // estimated bytes per buffered element besides the key bytes and SpillSerializer#sizeOf: the
+  // header of the key array and the references in the key and value lists
+  private static final int ENTRY_OVERHEAD = 48;
+
+  /**
+   * The maximum number of bytes of a run file, that can be memory-mapped. A larger run is split
+   * into several run files.
+   */
+  public static final long MAX_RUN_FILE_SIZE = RunFile.MAX_SIZE;
+
+  private final SortKeyExtractor keyExtractor;
+
+  private final SpillSerializer<T> serializer;
+
+  private final int runSize;
+
+  private final long memoryLimit;
+
+  private final Path tempDirectory;
+
+  private final SpillCodec codec;
+
+  private final int threads;
+
+  private final long maxRunFileSize;
+
+  private ExternalSorter(Builder<T> builder) {
+    this.keyExtractor = new SortKeyExtractor(builder.comparatorFields, builder.valueExtractor);
+    this.serializer = builder.serializer;
+    this.runSize = builder.runSize;
+    this.memoryLimit = builder.memoryLimit;
+    this.tempDirectory = builder.tempDirectory;
+    this.codec = builder.codec;
+    this.threads = builder.threads;
+    this.maxRunFileSize = builder.maxRunFileSize;
+  }
+
+  /**
+   * Creates a new builder of an external sorter.
+   *
+   * @param <T>        the type of the elements
+   * @param serializer the serializer of the elements
+   * @return the builder
+   */
+  public static <T> Builder<T> builder(SpillSerializer<T> serializer) {
+    return new Builder<>(serializer);
+  }
+
+  /**
+   * Gets the comparator fields.
+   *
+   * @return the comparator fields
+   */
+  public ComparatorFields getComparatorFields() {
+    return keyExtractor.getComparatorFields();
+  }
+
+  /**
+   * Sorts the elements of the given input and passes them in sorted order to the given output.
+   *
+   * @param input  the input
+   * @param output the output
+   * @throws IOException if spilling fails
+   * @throws ComparatorException if a sort key value cannot be encoded into a normalized key
+   */
+  public void sort(Iterator<? extends T> input, Consumer<? super T> output) throws IOException {
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.SORT);
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(keyExtractor);
+    ExecutorService executor = threads > 1
+        ? Executors.newFixedThreadPool(threads, ExternalSorter::newSpillThread)
+        : null;
+    Deque<Future<List<Path>>> spilling = new ArrayDeque<>();
+    List<Path> runs = new ArrayList<>();
+    List<byte[]> keys = new ArrayList<>();
+    List<T> values = new ArrayList<>();
+    long count = 0L;
+    long memory = 0L;
+    try {
+      while (input.hasNext()) {
+        T value = input.next();
+        long start = event.extractionStarted();
+        byte[] key = encoder.encode(value);
+        event.extractionFinished(start);
+        keys.add(key);
+        values.add(value);
+        count++;
+        if (memoryLimit < Long.MAX_VALUE) {
+          memory += ENTRY_OVERHEAD + key.length + serializer.sizeOf(value);
+        }
+        if (values.size() == runSize || memory >= memoryLimit) {
+          if (executor == null) {
+            runs.addAll(spill(keys, values, event));
+          } else {
+            // the run is sorted and written by a spill thread, while the input is read further;
+            // the runs are collected in input order, so the merge stays stable
+            List<byte[]> runKeys = keys;
+            List<T> runValues = values;
+            spilling.add(executor.submit(() -> spill(runKeys, runValues, null)));
+            keys = new ArrayList<>();
+            values = new ArrayList<>();
+            if (spilling.size() >= threads) {
+              runs.addAll(await(spilling.peek()));
+              spilling.poll();
+            }
+          }
+          memory = 0L;
+        }
+      }
+      while (!spilling.isEmpty()) {
+        runs.addAll(await(spilling.peek()));
+        spilling.poll();
+      }
+      if (runs.isEmpty()) {
+        for (int index : sort(keys, event)) {
+          output.accept(values.get(index));
+        }
+      } else {
+        if (!values.isEmpty()) {
+          runs.addAll(spill(keys, values, event));
+        }
+        merge(runs, output, event);
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdown();
+        deletePending(spilling);
+      }
+      for (Path run : runs) {
+        delete(run);
+      }
+    }
+    event.finish(getComparatorFields().toWkt(), count, runs.isEmpty());
+  }
+
+  private static Thread newSpillThread(Runnable runnable) {
+    Thread thread = new Thread(runnable, "external-sorter-spill");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private static void deletePending(Deque<Future<List<Path>>> spilling) {
+    // the pending spills are awaited without interruption, so that their run files are deleted;
+    // the interrupt status is restored afterwards
+    boolean interrupted = Thread.interrupted();
+    for (Future<List<Path>> future : spilling) {
+      while (true) {
+        try {
+          future.get().forEach(ExternalSorter::delete);
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          // the run files were already deleted by the failed spill
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static List<Path> await(Future<List<Path>> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a spilled run.");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException("Spilling a run failed.", cause);
+    }
+  }
+
+  private static int[] sort(List<byte[]> keys, SortOperationEvent event) {
+    int[] indexes = ArgSort.identity(keys.size());
+    ArgSort.sort(indexes, (index1, index2) -> {
+      if (event != null) {
+        event.compared();
+      }
+      return NormalizedKeyEncoder.compare(keys.get(index1), keys.get(index2));
+    });
+    return indexes;
+  }
+
+  private List<Path> spill(List<byte[]> keys, List<T> values, SortOperationEvent event)
+      throws IOException {
+    int[] indexes = sort(keys, event);
+    List<Path> files = new ArrayList<>(1);
+    List<byte[]> sortedKeys = new ArrayList<>(indexes.length);
+    List<byte[]> payloads = new ArrayList<>(indexes.length);
+    long size = RunFile.HEADER_LENGTH;
+    try {
+      for (int index : indexes) {
+        byte[] key = keys.get(index);
+        byte[] payload = serializer.serialize(values.get(index));
+        long entrySize = RunFile.entrySize(key, payload);
+        if (!sortedKeys.isEmpty() && size + entrySize > maxRunFileSize) {
+          // a run, that is too large to be mapped, is split into consecutive run files; they are
+          // merged like separate runs in their order, so the merge stays stable
+          files.add(write(sortedKeys, payloads));
+          sortedKeys.clear();
+          payloads.clear();
+          size = RunFile.HEADER_LENGTH;
+        }
+        sortedKeys.add(key);
+        payloads.add(payload);
+        size += entrySize;
+      }
+      files.add(write(sortedKeys, payloads));
+    } catch (IOException | RuntimeException e) {
+      files.forEach(ExternalSorter::delete);
+      throw e;
+    }
+    keys.clear();
+    values.clear();
+    return files;
+  }
+
+  private Path write(List<byte[]> keys, List<byte[]> payloads) throws IOException {
+    Path file = tempDirectory != null
+        ? Files.createTempFile(tempDirectory, "sort-run-", ".bin")
+        : Files.createTempFile("sort-run-", ".bin");
+    try {
+      RunFile.write(file, keys, payloads, codec);
+    } catch (IOException | RuntimeException e) {
+      delete(file);
+      throw e;
+    }
+    return file;
+  }
+
+  private void merge(List<Path> runs, Consumer<? super T> output, SortOperationEvent event)
+      throws IOException {
+    // ties are resolved by the run number, so the merge is stable
+    PriorityQueue<Run> queue = new PriorityQueue<>(runs.size(), (run1, run2) -> {
+      event.compared();
+      int result = run1.cursor.compareKey(run2.cursor);
+      return result != 0 ? result : Integer.compare(run1.number, run2.number);
+    });
+    for (int i = 0; i < runs.size(); i++) {
+      Run run = new Run(i, RunFile.open(runs.get(i), codec));
+      if (run.cursor.next()) {
+        queue.add(run);
+      }
+    }
+    while (!queue.isEmpty()) {
+      Run run = queue.poll();
+      output.accept(serializer.deserialize(run.cursor.payload()));
+      if (run.cursor.next()) {
+        queue.add(run);
+      }
+    }
+  }
+
+  private static void delete(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // a mapped file may not be deletable on some platforms until the mapping is released
+      file.toFile().deleteOnExit();
+    }
+  }
+
+  private static final class Run {
+
+    private final int number;
+
+    private final RunFile.Cursor cursor;
+
+    private Run(int number, RunFile.Cursor cursor) {
+      this.number = number;
+      this.cursor = cursor;
+    }
+  }
+
+  /**
+   * The builder of the external sorter.
+   *
+   * @param <T> the type of the elements
+   */
+  public static class Builder<T> {
+
+    private final SpillSerializer<T> serializer;
+
+    private ComparatorFields comparatorFields;
+
+    private ValueExtractor valueExtractor;
+
+    private int runSize = 100_000;
+
+    private long memoryLimit = Long.MAX_VALUE;
+
+    private Path tempDirectory;
+
+    private SpillCodec codec;
+
+    private int threads = 1;
+
+    private long maxRunFileSize = RunFile.MAX_SIZE;
+
+    private Builder(SpillSerializer<T> serializer) {
+      if (serializer == null) {
+        throw new IllegalArgumentException("Spill serializer must not be null.");
+      }
+      this.serializer = serializer;
+    }
+
+    /**
+     * Sets the comparator fields.
+     *
+     * @param comparatorFields the comparator fields
+     * @return the builder
+     */
+    public Builder<T> comparatorFields(ComparatorFields comparatorFields) {
+      this.comparatorFields = comparatorFields;
+      return this;
+    }
+
+    /**
+     * Sets the value extractor (default is the {@link DefaultValueExtractor}).
+     *
+     * @param valueExtractor the value extractor
+     * @return the builder
+     */
+    public Builder<T> valueExtractor(ValueExtractor valueExtractor) {
+      this.valueExtractor = valueExtractor;
+      return this;
+    }
+
+    /**
+     * Sets the number of elements, that are sorted in memory before they are spilled into a run
+     * file (default is 100.000).
+     *
+     * @param runSize the run size
+     * @return the builder
+     */
+    public Builder<T> runSize(int runSize) {
+      if (runSize <= 0) {
+        throw new IllegalArgumentException("Run size must be greater than zero.");
+      }
+      this.runSize = runSize;
+      return this;
+    }
+
+    /**
+     * Sets the number of bytes, that the elements of a run may occupy in memory, before they are
+     * spilled into a run file (default is no limit, only the run size is used). The size of an
+     * element is estimated by {@link SpillSerializer#sizeOf(Object)}.
+     *
+     * @param memoryLimit the memory limit in bytes
+     * @return the builder
+     */
+    public Builder<T> memoryLimit(long memoryLimit) {
+      if (memoryLimit <= 0L) {
+        throw new IllegalArgumentException("Memory limit must be greater than zero.");
+      }
+      this.memoryLimit = memoryLimit;
+      return this;
+    }
+
+    /**
+     * Sets the directory of the run files (default is the temporary directory of the system).
+     *
+     * @param tempDirectory the directory of the run files
+     * @return the builder
+     */
+    public Builder<T> tempDirectory(Path tempDirectory) {
+      this.tempDirectory = tempDirectory;
+      return this;
+    }
+
+    /**
+     * Sets the codec, that compresses the run files (default is {@code null}, the run files are
+     * not compressed). Compression trades CPU time for fewer bytes, that are written to and read
+     * from the disk.
+     *
+     * @param codec the codec
+     * @return the builder
+     */
+    public Builder<T> codec(SpillCodec codec) {
+      this.codec = codec;
+      return this;
+    }
+
+    /**
+     * Sets the number of threads, that sort and spill runs in parallel, while the input is read
+     * (default is one, the runs are spilled by the calling thread). Each of these threads holds
+     * one run in memory, so the memory use is up to {@code threads + 1} times the memory limit
+     * of a run. The comparisons of the spill threads are not counted in the flight recorder event.
+     * With more than one thread the spill serializer and the codec are called concurrently, so
+     * they must be thread-safe.
+     *
+     * @param threads the number of spill threads
+     * @return the builder
+     */
+    public Builder<T> threads(int threads) {
+      if (threads <= 0) {
+        throw new IllegalArgumentException("Number of threads must be greater than zero.");
+      }
+      this.threads = threads;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of bytes of a run file (default is the largest file, that can be
+     * mapped). A larger run is split into several run files.
+     *
+     * @param maxRunFileSize the maximum number of bytes of a run file
+     * @return the builder
+     */
+    Builder<T> maxRunFileSize(long maxRunFileSize) {
+      if (maxRunFileSize <= RunFile.HEADER_LENGTH || maxRunFileSize > RunFile.MAX_SIZE) {
+        throw new IllegalArgumentException("Maximum run file size must be greater than "
+            + RunFile.HEADER_LENGTH + " and not greater than " + RunFile.MAX_SIZE + ".");
+      }
+      this.maxRunFileSize = maxRunFileSize;
+      return this;
+    }
+
+    /**
+     * Builds the external sorter.
+     *
+     * @return the external sorter
+     */
+    public ExternalSorter<T> build() {
+      if (comparatorFields == null || comparatorFields.getFields().isEmpty()) {
+        throw new IllegalArgumentException("Comparator fields must not be null or empty.");
+      }
+      return new ExternalSorter<>(this);
+    }
+  }
+
+}
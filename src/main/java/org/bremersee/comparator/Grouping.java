@@ -0,0 +1,254 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * This utility class groups elements by the sort key of comparator fields. The sort key values of
+ * each element are extracted once, the elements are sorted once by these values and then adjacent
+ * elements are compared to find the groups. So no hash map of extracted values is needed and the
+ * groups are in sorted order.
+ *
+ * <p>Two elements belong to the same group, if the comparator of the comparator fields returns
+ * zero, e. g. the values of a case insensitive field are grouped case insensitive. The sorting is
+ * stable, so the elements of a group keep their encounter order.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class Grouping {
+
+  private Grouping() {
+  }
+
+  /**
+   * Groups the given elements by the given comparator fields.
+   *
+   * @param <T>              the type of the elements
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @return the groups in sorted order
+   */
+  public static <T> List<List<T>> group(
+      Collection<? extends T> elements,
+      ComparatorFields comparatorFields) {
+    return group(elements, comparatorFields, null);
+  }
+
+  /**
+   * Groups the given elements by the given comparator fields. A custom value extractor can be
+   * specified.
+   *
+   * @param <T>              the type of the elements
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   * @return the groups in sorted order
+   */
+  public static <T> List<List<T>> group(
+      Collection<? extends T> elements,
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor) {
+    List<List<T>> groups = new ArrayList<>();
+    Grouping.<T>forEachGroup(elements, comparatorFields, valueExtractor,
+        (key, group) -> groups.add(group));
+    return groups;
+  }
+
+  /**
+   * Groups the given elements by the given comparator fields and calls the given consumer for each
+   * group in sorted order. The consumer gets the sort key of the first element of the group and the
+   * elements of the group.
+   *
+   * @param <T>              the type of the elements
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   * @param consumer         the consumer
+   */
+  public static <T> void forEachGroup(
+      Collection<? extends T> elements,
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor,
+      BiConsumer<SortKey, List<T>> consumer) {
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.SORT);
+    SortKeyExtractor keyExtractor = new SortKeyExtractor(comparatorFields, valueExtractor);
+    long start = event.extractionStarted();
+    List<Entry<T>> entries = extract(elements, keyExtractor);
+    event.extractionFinished(start);
+    entries.sort(event.counting((e1, e2) -> e1.key.compareTo(e2.key)));
+    event.finish(keyExtractor.getComparatorFields().toWkt(), entries.size(), false);
+    forEachRun(entries, consumer);
+  }
+
+  /**
+   * Returns the distinct elements by the given comparator fields. Of each group of equal elements
+   * the first one in encounter order is returned.
+   *
+   * @param <T>              the type of the elements
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @return the distinct elements in sorted order
+   */
+  public static <T> List<T> distinct(
+      Collection<? extends T> elements,
+      ComparatorFields comparatorFields) {
+    return distinct(elements, comparatorFields, null);
+  }
+
+  /**
+   * Returns the distinct elements by the given comparator fields. Of each group of equal elements
+   * the first one in encounter order is returned. A custom value extractor can be specified.
+   *
+   * @param <T>              the type of the elements
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   * @return the distinct elements in sorted order
+   */
+  public static <T> List<T> distinct(
+      Collection<? extends T> elements,
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor) {
+    List<T> distinct = new ArrayList<>();
+    Grouping.<T>forEachGroup(elements, comparatorFields, valueExtractor,
+        (key, group) -> distinct.add(group.get(0)));
+    return distinct;
+  }
+
+  /**
+   * Counts the elements per sort key. The key of the returned map is the sort key of the first
+   * element of each group. As the sort key is consistent with the comparator, the map can be
+   * queried with the sort key of any element of a group (see {@link SortKeyExtractor}).
+   *
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @return the number of elements per sort key in sorted order
+   */
+  public static Map<SortKey, Integer> count(
+      Collection<?> elements,
+      ComparatorFields comparatorFields) {
+    return count(elements, comparatorFields, null);
+  }
+
+  /**
+   * Counts the elements per sort key (see {@link #count(Collection, ComparatorFields)}). A custom
+   * value extractor can be specified.
+   *
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   * @return the number of elements per sort key in sorted order
+   */
+  public static Map<SortKey, Integer> count(
+      Collection<?> elements,
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor) {
+    Map<SortKey, Integer> counts = new LinkedHashMap<>();
+    forEachGroup(elements, comparatorFields, valueExtractor,
+        (key, group) -> counts.merge(key, group.size(), Integer::sum));
+    return counts;
+  }
+
+  /**
+   * Splits the given list into runs of adjacent equal elements without sorting it (run-length
+   * grouping). If the list is sorted by the comparator fields, the runs are the groups.
+   *
+   * @param <T>              the type of the elements
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @return the runs in the order of the list
+   */
+  public static <T> List<List<T>> runs(
+      List<? extends T> elements,
+      ComparatorFields comparatorFields) {
+    return runs(elements, comparatorFields, null);
+  }
+
+  /**
+   * Splits the given list into runs of adjacent equal elements without sorting it (run-length
+   * grouping). A custom value extractor can be specified.
+   *
+   * @param <T>              the type of the elements
+   * @param elements         the elements
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   * @return the runs in the order of the list
+   */
+  public static <T> List<List<T>> runs(
+      List<? extends T> elements,
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor) {
+    SortKeyExtractor keyExtractor = new SortKeyExtractor(comparatorFields, valueExtractor);
+    List<List<T>> runs = new ArrayList<>();
+    List<Entry<T>> entries = extract(elements, keyExtractor);
+    forEachRun(entries, (key, run) -> runs.add(run));
+    return runs;
+  }
+
+  private static <T> List<Entry<T>> extract(
+      Collection<? extends T> elements,
+      SortKeyExtractor keyExtractor) {
+    List<Entry<T>> entries = new ArrayList<>(elements != null ? elements.size() : 0);
+    if (elements != null) {
+      for (T element : elements) {
+        entries.add(new Entry<>(keyExtractor.extract(element), element));
+      }
+    }
+    return entries;
+  }
+
+  private static <T> void forEachRun(
+      List<Entry<T>> entries,
+      BiConsumer<SortKey, List<T>> consumer) {
+    int size = entries.size();
+    int start = 0;
+    while (start < size) {
+      SortKey key = entries.get(start).key;
+      int end = start + 1;
+      while (end < size && key.compareTo(entries.get(end).key) == 0) {
+        end++;
+      }
+      List<T> run = new ArrayList<>(end - start);
+      for (int i = start; i < end; i++) {
+        run.add(entries.get(i).element);
+      }
+      consumer.accept(key, run);
+      start = end;
+    }
+  }
+
+  private static final class Entry<T> {
+
+    private final SortKey key;
+
+    private final T element;
+
+    private Entry(SortKey key, T element) {
+      this.key = key;
+      this.element = element;
+    }
+  }
+
+}
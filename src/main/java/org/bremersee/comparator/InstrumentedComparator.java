@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.Comparator;
+
+/**
+ * The instrumented comparator reports the result and the duration of each comparison of one level
+ * of a comparator chain to a {@link ComparatorListener}.
+ *
+ * @author Christian Bremer
+ */
+class InstrumentedComparator implements Comparator<Object> {
+
+  private final int level;
+
+  private final String field;
+
+  @SuppressWarnings("rawtypes")
+  private final Comparator comparator;
+
+  private final ComparatorListener listener;
+
+  /**
+   * Instantiates a new instrumented comparator.
+   *
+   * @param level      the level of the comparator chain
+   * @param field      the field name or path of the level (can be {@code null})
+   * @param comparator the comparator of the level
+   * @param listener   the listener
+   */
+  InstrumentedComparator(
+      int level,
+      String field,
+      Comparator<?> comparator,
+      ComparatorListener listener) {
+    this.level = level;
+    this.field = field;
+    this.comparator = comparator;
+    this.listener = listener;
+  }
+
+  /**
+   * Gets the comparator of the level.
+   *
+   * @return the comparator
+   */
+  Comparator<?> getComparator() {
+    return comparator;
+  }
+
+  @Override
+  public int compare(Object o1, Object o2) {
+    long start = System.nanoTime();
+    //noinspection unchecked
+    int result = comparator.compare(o1, o2);
+    listener.onComparison(level, field, result, System.nanoTime() - start);
+    return result;
+  }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+/**
+ * The instrumented value extractor reports each extraction and its duration to a {@link
+ * ComparatorListener}.
+ *
+ * @author Christian Bremer
+ */
+class InstrumentedValueExtractor implements ValueExtractor {
+
+  private final ValueExtractor valueExtractor;
+
+  private final ComparatorListener listener;
+
+  /**
+   * Instantiates a new instrumented value extractor.
+   *
+   * @param valueExtractor the value extractor (if it is {@code null}, a default will be used)
+   * @param listener       the listener
+   */
+  InstrumentedValueExtractor(ValueExtractor valueExtractor, ComparatorListener listener) {
+    this.valueExtractor = valueExtractor != null ? valueExtractor : new DefaultValueExtractor();
+    this.listener = listener;
+  }
+
+  @Override
+  public Object findValue(Object obj, String field) {
+    long start = System.nanoTime();
+    Object value;
+    try {
+      value = valueExtractor.findValue(obj, field);
+    } catch (RuntimeException e) {
+      listener.onExtractionFailure(field, e);
+      throw e;
+    }
+    listener.onExtraction(field, System.nanoTime() - start);
+    return value;
+  }
+
+}
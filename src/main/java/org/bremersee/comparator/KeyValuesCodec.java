@@ -0,0 +1,356 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Encodes extracted key values into a compact binary form and decodes them again. Only value
+ * types with a well defined natural order are supported.
+ *
+ * <p>Enum constants are encoded by name. They are decoded into an {@link EnumName}, that must be
+ * resolved against the enum type of a concrete value (see {@link EnumName#resolve(Object)}). So no
+ * classes are loaded by name when decoding, which makes it safe to decode data of untrusted
+ * sources (like a cursor that is sent by a client).
+ *
+ * @author Christian Bremer
+ */
+final class KeyValuesCodec {
+
+  private static final int NULL = 0;
+  private static final int STRING = 1;
+  private static final int TRUE = 2;
+  private static final int FALSE = 3;
+  private static final int BYTE = 4;
+  private static final int SHORT = 5;
+  private static final int INTEGER = 6;
+  private static final int LONG = 7;
+  private static final int FLOAT = 8;
+  private static final int DOUBLE = 9;
+  private static final int CHARACTER = 10;
+  private static final int BIG_INTEGER = 11;
+  private static final int BIG_DECIMAL = 12;
+  private static final int DATE = 13;
+  private static final int INSTANT = 14;
+  private static final int LOCAL_DATE = 15;
+  private static final int LOCAL_DATE_TIME = 16;
+  private static final int LOCAL_TIME = 17;
+  private static final int OFFSET_DATE_TIME = 18;
+  private static final int ZONED_DATE_TIME = 19;
+  private static final int UUID_VALUE = 20;
+  private static final int ENUM = 21;
+
+  private KeyValuesCodec() {
+  }
+
+  /**
+   * Encodes the given values.
+   *
+   * @param values the values
+   * @return the encoded values
+   * @throws ComparatorException if the type of a value is not supported
+   */
+  static byte[] encode(Object[] values) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(16 * values.length + 4);
+    writeVarLong(out, values.length);
+    for (Object value : values) {
+      writeValue(out, value);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes the given bytes.
+   *
+   * @param bytes the encoded values
+   * @param offset the offset where the encoded values begin
+   * @return the values
+   * @throws IllegalArgumentException if the bytes are not valid
+   */
+  static Object[] decode(byte[] bytes, int offset) {
+    try {
+      Reader in = new Reader(bytes, offset);
+      long size = in.readVarLong();
+      if (size < 0 || size > bytes.length) {
+        throw new IllegalArgumentException("Invalid number of encoded values.");
+      }
+      Object[] values = new Object[(int) size];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = in.readValue();
+      }
+      if (in.position != bytes.length) {
+        throw new IllegalArgumentException("There are unexpected trailing bytes.");
+      }
+      return values;
+    } catch (ArrayIndexOutOfBoundsException | ArithmeticException | NumberFormatException
+        | java.time.DateTimeException e) {
+      throw new IllegalArgumentException("The encoded values are not valid.", e);
+    }
+  }
+
+  private static void writeValue(ByteArrayOutputStream out, Object value) {
+    if (value == null) {
+      out.write(NULL);
+    } else if (value instanceof String) {
+      out.write(STRING);
+      writeString(out, (String) value);
+    } else if (value instanceof Boolean) {
+      out.write((Boolean) value ? TRUE : FALSE);
+    } else if (value instanceof Byte) {
+      out.write(BYTE);
+      out.write((Byte) value);
+    } else if (value instanceof Short) {
+      out.write(SHORT);
+      writeVarLong(out, zigZag((Short) value));
+    } else if (value instanceof Integer) {
+      out.write(INTEGER);
+      writeVarLong(out, zigZag((Integer) value));
+    } else if (value instanceof Long) {
+      out.write(LONG);
+      writeVarLong(out, zigZag((Long) value));
+    } else if (value instanceof Float) {
+      out.write(FLOAT);
+      writeFixed(out, Float.floatToIntBits((Float) value), 4);
+    } else if (value instanceof Double) {
+      out.write(DOUBLE);
+      writeFixed(out, Double.doubleToLongBits((Double) value), 8);
+    } else if (value instanceof Character) {
+      out.write(CHARACTER);
+      writeVarLong(out, (Character) value);
+    } else if (value instanceof BigInteger) {
+      out.write(BIG_INTEGER);
+      writeBytes(out, ((BigInteger) value).toByteArray());
+    } else if (value instanceof BigDecimal) {
+      out.write(BIG_DECIMAL);
+      writeVarLong(out, zigZag(((BigDecimal) value).scale()));
+      writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+    } else if (value.getClass() == Date.class) {
+      out.write(DATE);
+      writeVarLong(out, zigZag(((Date) value).getTime()));
+    } else if (value instanceof Instant) {
+      out.write(INSTANT);
+      writeVarLong(out, zigZag(((Instant) value).getEpochSecond()));
+      writeVarLong(out, ((Instant) value).getNano());
+    } else if (value instanceof LocalDate) {
+      out.write(LOCAL_DATE);
+      writeVarLong(out, zigZag(((LocalDate) value).toEpochDay()));
+    } else if (value instanceof LocalDateTime) {
+      out.write(LOCAL_DATE_TIME);
+      writeVarLong(out, zigZag(((LocalDateTime) value).toLocalDate().toEpochDay()));
+      writeVarLong(out, ((LocalDateTime) value).toLocalTime().toNanoOfDay());
+    } else if (value instanceof LocalTime) {
+      out.write(LOCAL_TIME);
+      writeVarLong(out, ((LocalTime) value).toNanoOfDay());
+    } else if (value instanceof OffsetDateTime) {
+      out.write(OFFSET_DATE_TIME);
+      writeString(out, value.toString());
+    } else if (value instanceof ZonedDateTime) {
+      out.write(ZONED_DATE_TIME);
+      writeString(out, value.toString());
+    } else if (value instanceof UUID) {
+      out.write(UUID_VALUE);
+      writeFixed(out, ((UUID) value).getMostSignificantBits(), 8);
+      writeFixed(out, ((UUID) value).getLeastSignificantBits(), 8);
+    } else if (value instanceof Enum) {
+      out.write(ENUM);
+      writeString(out, ((Enum<?>) value).name());
+    } else {
+      throw new ComparatorException("Values of type '" + value.getClass().getName()
+          + "' cannot be encoded.");
+    }
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    long v = value;
+    while ((v & ~0x7FL) != 0) {
+      out.write((int) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.write((int) v);
+  }
+
+  private static void writeFixed(ByteArrayOutputStream out, long value, int length) {
+    for (int shift = (length - 1) * 8; shift >= 0; shift -= 8) {
+      out.write((int) (value >>> shift));
+    }
+  }
+
+  private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+    writeVarLong(out, bytes.length);
+    out.write(bytes, 0, bytes.length);
+  }
+
+  private static void writeString(ByteArrayOutputStream out, String value) {
+    writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * The name of an enum constant, that is decoded without knowing the enum type.
+   */
+  static final class EnumName {
+
+    private final String name;
+
+    private EnumName(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Resolves the placeholder against the enum type of the given value. If the given value is not
+     * an enum constant, the name is returned as string.
+     *
+     * @param value the value which enum type is used
+     * @return the enum constant or the name
+     * @throws IllegalArgumentException if the enum type has no such constant
+     */
+    Object resolve(Object value) {
+      if (value instanceof Enum) {
+        //noinspection unchecked,rawtypes
+        return Enum.valueOf(((Enum) value).getDeclaringClass(), name);
+      }
+      return name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private static final class Reader {
+
+    private final byte[] bytes;
+
+    private int position;
+
+    private Reader(byte[] bytes, int position) {
+      this.bytes = bytes;
+      this.position = position;
+    }
+
+    private Object readValue() {
+      int type = bytes[position++];
+      switch (type) {
+        case NULL:
+          return null;
+        case STRING:
+          return readString();
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case BYTE:
+          return bytes[position++];
+        case SHORT:
+          return (short) unZigZag(readVarLong());
+        case INTEGER:
+          return Math.toIntExact(unZigZag(readVarLong()));
+        case LONG:
+          return unZigZag(readVarLong());
+        case FLOAT:
+          return Float.intBitsToFloat((int) readFixed(4));
+        case DOUBLE:
+          return Double.longBitsToDouble(readFixed(8));
+        case CHARACTER:
+          return (char) readVarLong();
+        case BIG_INTEGER:
+          return new BigInteger(readBytes());
+        case BIG_DECIMAL:
+          int scale = Math.toIntExact(unZigZag(readVarLong()));
+          return new BigDecimal(new BigInteger(readBytes()), scale);
+        case DATE:
+          return new Date(unZigZag(readVarLong()));
+        case INSTANT:
+          long seconds = unZigZag(readVarLong());
+          return Instant.ofEpochSecond(seconds, readVarLong());
+        case LOCAL_DATE:
+          return LocalDate.ofEpochDay(unZigZag(readVarLong()));
+        case LOCAL_DATE_TIME:
+          LocalDate date = LocalDate.ofEpochDay(unZigZag(readVarLong()));
+          return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong()));
+        case LOCAL_TIME:
+          return LocalTime.ofNanoOfDay(readVarLong());
+        case OFFSET_DATE_TIME:
+          return OffsetDateTime.parse(readString());
+        case ZONED_DATE_TIME:
+          return ZonedDateTime.parse(readString());
+        case UUID_VALUE:
+          long mostSigBits = readFixed(8);
+          return new UUID(mostSigBits, readFixed(8));
+        case ENUM:
+          return new EnumName(readString());
+        default:
+          throw new IllegalArgumentException("Unknown value type [" + type + "].");
+      }
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = bytes[position++];
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed variable length number.");
+    }
+
+    private long readFixed(int length) {
+      long value = 0;
+      for (int i = 0; i < length; i++) {
+        value = (value << 8) | (bytes[position++] & 0xFF);
+      }
+      return value;
+    }
+
+    private byte[] readBytes() {
+      int length = Math.toIntExact(readVarLong());
+      if (length < 0 || length > bytes.length - position) {
+        throw new IllegalArgumentException("Invalid length of encoded bytes.");
+      }
+      byte[] result = new byte[length];
+      System.arraycopy(bytes, position, result, 0, length);
+      position += length;
+      return result;
+    }
+
+    private String readString() {
+      return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+}
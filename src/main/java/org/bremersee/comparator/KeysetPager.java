@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.bremersee.comparator.KeyValuesCodec.EnumName;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.model.ImmutableComparatorFields;
+
+/**
+ * The keyset pager pages through a collection that is sorted by the given comparator fields
+ * without skipping the elements of the previous pages (also known as seek pagination).
+ *
+ * <p>The sort key values of the last element of a page are encoded into an opaque cursor (see
+ * {@link #createCursor(Object)}). The next page contains the smallest elements whose sort keys are
+ * greater than the sort key of the cursor (see {@link #nextPage(Collection, String, int)}). These
+ * elements are selected with a bounded heap, so a deep page is as cheap as the first one and the
+ * collection is never sorted completely.
+ *
+ * <p>The sort key must be unique, otherwise elements with the same sort key as the last element
+ * of a page are skipped. So the last comparator field should be a unique field like an id.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class KeysetPager {
+
+  private static final byte VERSION = 1;
+
+  private final ImmutableComparatorFields comparatorFields;
+
+  private final SortKeyExtractor keyExtractor;
+
+  private final int fingerprint;
+
+  /**
+   * Instantiates a new keyset pager.
+   *
+   * @param comparatorFields the comparator fields (must not be empty)
+   */
+  public KeysetPager(ComparatorFields comparatorFields) {
+    this(comparatorFields, null);
+  }
+
+  /**
+   * Instantiates a new keyset pager.
+   *
+   * @param comparatorFields the comparator fields (must not be empty)
+   * @param valueExtractor   the value extractor (if it is {@code null}, a default will be used)
+   */
+  public KeysetPager(ComparatorFields comparatorFields, ValueExtractor valueExtractor) {
+    this.keyExtractor = new SortKeyExtractor(comparatorFields, valueExtractor);
+    this.comparatorFields = comparatorFields.freeze();
+    this.fingerprint = this.comparatorFields.hashCode();
+  }
+
+  /**
+   * Gets the comparator fields.
+   *
+   * @return the comparator fields
+   */
+  public ImmutableComparatorFields getComparatorFields() {
+    return comparatorFields;
+  }
+
+  /**
+   * Creates the cursor of the given element. This is normally the last element of a page.
+   *
+   * @param element the element
+   * @return the cursor
+   * @throws ComparatorException if a sort key value cannot be encoded
+   */
+  public String createCursor(Object element) {
+    byte[] keyValues = KeyValuesCodec.encode(keyExtractor.extractValues(element));
+    ByteBuffer buffer = ByteBuffer.allocate(keyValues.length + 5)
+        .put(VERSION)
+        .putInt(fingerprint)
+        .put(keyValues);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /**
+   * Gets the first page.
+   *
+   * @param <T>      the type of the elements
+   * @param elements the elements (can be unsorted)
+   * @param limit    the maximum number of elements of the page
+   * @return the first page in the order of the comparator fields
+   */
+  public <T> List<T> firstPage(Collection<? extends T> elements, int limit) {
+    return nextPage(elements, null, limit);
+  }
+
+  /**
+   * Gets the page after the given cursor.
+   *
+   * @param <T>      the type of the elements
+   * @param elements the elements (can be unsorted)
+   * @param cursor   the cursor (if it is {@code null} or empty, the first page is returned)
+   * @param limit    the maximum number of elements of the page
+   * @return the page in the order of the comparator fields
+   * @throws IllegalArgumentException if the cursor is invalid or was created with other
+   *                                  comparator fields
+   */
+  public <T> List<T> nextPage(Collection<? extends T> elements, String cursor, int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit must not be negative.");
+    }
+    if (elements == null || elements.isEmpty() || limit == 0) {
+      return new ArrayList<>();
+    }
+    Object[] cursorKey = cursor != null && cursor.length() > 0 ? decodeCursor(cursor) : null;
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.TOP_K);
+    Comparator<Entry<T>> entryComparator = event.counting(
+        (e1, e2) -> keyExtractor.compareValues(e1.key, e2.key));
+    PriorityQueue<Entry<T>> heap = new PriorityQueue<>(
+        Math.min(limit, elements.size()) + 1,
+        entryComparator.reversed());
+    for (T element : elements) {
+      long start = event.extractionStarted();
+      Object[] key = keyExtractor.extractValues(element);
+      event.extractionFinished(start);
+      if (cursorKey != null) {
+        event.compared();
+        if (compareToCursor(key, cursorKey) <= 0) {
+          continue;
+        }
+      }
+      if (heap.size() < limit) {
+        heap.add(new Entry<>(key, element));
+      } else {
+        event.compared();
+        if (keyExtractor.compareValues(key, heap.peek().key) < 0) {
+          heap.poll();
+          heap.add(new Entry<>(key, element));
+        }
+      }
+    }
+    List<Entry<T>> entries = new ArrayList<>(heap);
+    entries.sort(entryComparator);
+    event.finish(comparatorFields.toWkt(), elements.size(), false);
+    List<T> page = new ArrayList<>(entries.size());
+    for (Entry<T> entry : entries) {
+      page.add(entry.element);
+    }
+    return page;
+  }
+
+  private int compareToCursor(Object[] key, Object[] cursorKey) {
+    for (int i = 0; i < keyExtractor.size(); i++) {
+      Object cursorValue = cursorKey[i];
+      if (cursorValue instanceof EnumName) {
+        cursorValue = ((EnumName) cursorValue).resolve(key[i]);
+      }
+      int result = keyExtractor.getComparator(i).compareValues(key[i], cursorValue);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private Object[] decodeCursor(String cursor) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Cursor [" + cursor + "] is not valid.", e);
+    }
+    if (bytes.length < 5 || bytes[0] != VERSION
+        || ByteBuffer.wrap(bytes, 1, 4).getInt() != fingerprint) {
+      throw new IllegalArgumentException("Cursor [" + cursor
+          + "] was not created by a pager with comparator fields [" + comparatorFields + "].");
+    }
+    Object[] key = KeyValuesCodec.decode(bytes, 5);
+    if (key.length != keyExtractor.size()) {
+      throw new IllegalArgumentException("Cursor [" + cursor + "] has a wrong number of values.");
+    }
+    return key;
+  }
+
+  private static final class Entry<T> {
+
+    private final Object[] key;
+
+    private final T element;
+
+    private Entry(Object[] key, T element) {
+      this.key = key;
+      this.element = element;
+    }
+  }
+
+}
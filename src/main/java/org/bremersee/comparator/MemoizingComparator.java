@@ -0,0 +1,205 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The memoizing comparator caches the extracted values of each compared element, so that
+ * expensive getters (like computed properties or lazy loaded associations) are called at most
+ * once per element and field instead of {@code O(n log n)} times.
+ *
+ * <p>The values are cached by the identity of the elements and extracted lazily: the value of a
+ * field is only extracted, if a comparison reaches this field. The cache lives as long as the
+ * comparator, so it should be used for a single sort operation and closed afterwards:
+ * <pre>
+ * try (MemoizingComparator comparator = new MemoizingComparator(comparatorFields)) {
+ *   list.sort(comparator);
+ * }
+ * </pre>
+ * or simply
+ * <pre>
+ * MemoizingComparator.sort(list, comparatorFields);
+ * </pre>
+ *
+ * <p>The elements must not be changed during the sort. This class is not thread safe, so it must
+ * not be used for a parallel sort.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class MemoizingComparator implements Comparator<Object>, AutoCloseable {
+
+  private static final Object NOT_EXTRACTED = new Object();
+
+  private final SortKeyExtractor keyExtractor;
+
+  private final String[] fields;
+
+  private final ComparatorListener listener;
+
+  private Map<Object, Object[]> cache = new IdentityHashMap<>();
+
+  private boolean timingExtractions;
+
+  private long extractionNanos;
+
+  /**
+   * Instantiates a new memoizing comparator.
+   *
+   * @param comparatorFields the comparator fields (must not be empty)
+   */
+  public MemoizingComparator(ComparatorFields comparatorFields) {
+    this(comparatorFields, null, null);
+  }
+
+  /**
+   * Instantiates a new memoizing comparator. A custom value extractor can be specified.
+   *
+   * @param comparatorFields the comparator fields (must not be empty)
+   * @param valueExtractor   the value extractor (can be {@code null})
+   */
+  public MemoizingComparator(ComparatorFields comparatorFields, ValueExtractor valueExtractor) {
+    this(comparatorFields, valueExtractor, null);
+  }
+
+  /**
+   * Instantiates a new memoizing comparator, that reports its extractions and cache hits to the
+   * given listener (see {@link ComparatorListener#onCacheHit(String)}).
+   *
+   * @param comparatorFields the comparator fields (must not be empty)
+   * @param valueExtractor   the value extractor (can be {@code null})
+   * @param listener         the listener (can be {@code null})
+   */
+  public MemoizingComparator(
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor,
+      ComparatorListener listener) {
+    this.keyExtractor = new SortKeyExtractor(comparatorFields, listener != null
+        ? new InstrumentedValueExtractor(valueExtractor, listener)
+        : valueExtractor);
+    this.fields = new String[keyExtractor.size()];
+    for (int i = 0; i < fields.length; i++) {
+      fields[i] = keyExtractor.getComparatorFields().getFields().get(i).getField();
+    }
+    this.listener = listener;
+  }
+
+  /**
+   * Sorts the given list with a memoizing comparator, that is closed afterwards.
+   *
+   * @param <T>              the type of the elements
+   * @param list             the list
+   * @param comparatorFields the comparator fields
+   */
+  public static <T> void sort(List<T> list, ComparatorFields comparatorFields) {
+    sort(list, comparatorFields, null);
+  }
+
+  /**
+   * Sorts the given list with a memoizing comparator, that is closed afterwards. A custom value
+   * extractor can be specified.
+   *
+   * @param <T>              the type of the elements
+   * @param list             the list
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   */
+  public static <T> void sort(
+      List<T> list,
+      ComparatorFields comparatorFields,
+      ValueExtractor valueExtractor) {
+    if (list == null) {
+      return;
+    }
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.SORT);
+    try (MemoizingComparator comparator = new MemoizingComparator(comparatorFields,
+        valueExtractor)) {
+      comparator.timingExtractions = event.isEnabled();
+      list.sort(event.counting(comparator));
+      event.extractionTime = comparator.extractionNanos;
+      event.finish(comparator.keyExtractor.getComparatorFields().toWkt(), list.size(), false);
+    }
+  }
+
+  @Override
+  public int compare(Object o1, Object o2) {
+    Object[] values1 = values(o1);
+    Object[] values2 = values(o2);
+    for (int i = 0; i < values1.length; i++) {
+      int result = keyExtractor.getComparator(i)
+          .compareValues(value(o1, values1, i), value(o2, values2, i));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private Object[] values(Object obj) {
+    Object[] values = cache.get(obj);
+    if (values == null) {
+      values = new Object[fields.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = NOT_EXTRACTED;
+      }
+      cache.put(obj, values);
+    }
+    return values;
+  }
+
+  private Object value(Object obj, Object[] values, int index) {
+    Object value = values[index];
+    if (value != NOT_EXTRACTED) {
+      if (listener != null) {
+        listener.onCacheHit(fields[index]);
+      }
+      return value;
+    }
+    if (timingExtractions) {
+      long start = System.nanoTime();
+      value = keyExtractor.getComparator(index).extractValue(obj);
+      extractionNanos += System.nanoTime() - start;
+    } else {
+      value = keyExtractor.getComparator(index).extractValue(obj);
+    }
+    values[index] = value;
+    return value;
+  }
+
+  /**
+   * Returns the number of cached elements.
+   *
+   * @return the number of cached elements
+   */
+  public int size() {
+    return cache.size();
+  }
+
+  /**
+   * Releases the cached values. The comparator can be used again afterwards.
+   */
+  @Override
+  public void close() {
+    cache = new IdentityHashMap<>();
+  }
+
+}
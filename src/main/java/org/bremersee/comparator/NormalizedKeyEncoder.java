@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.bremersee.comparator.model.ComparatorField;
+
+/**
+ * The normalized key encoder encodes the sort key values of an object into a byte sequence, so
+ * that the unsigned lexicographic order of the byte sequences is the order of the comparator
+ * fields. Spilled sort runs can so be compared without deserialization.
+ *
+ * <p>Each value is encoded as a null marker followed by the value bytes, the bytes of descending
+ * fields are inverted. Supported are strings (with case folding, if case is ignored), characters,
+ * booleans, integral numbers, floating point numbers, big decimals and big integers (which can be
+ * mixed in one field), enums, {@link Date}, {@link Instant}, {@link LocalDate},
+ * {@link LocalDateTime} and {@link LocalTime}. The encoder is not thread-safe.
+ *
+ * @author Christian Bremer
+ */
+final class NormalizedKeyEncoder {
+
+  private static final byte NULL_FIRST = 0;
+
+  private static final byte NOT_NULL = 1;
+
+  private static final byte NULL_LAST = 2;
+
+  private static final byte END_OF_STRING = 0;
+
+  private static final byte CHARACTER = 1;
+
+  private static final byte DECIMAL_NEGATIVE = 0;
+
+  private static final byte DECIMAL_ZERO = 1;
+
+  private static final byte DECIMAL_POSITIVE = 2;
+
+  private static final byte END_OF_DIGITS = 0;
+
+  private final SortKeyExtractor keyExtractor;
+
+  private final ComparatorField[] fields;
+
+  private byte[] bytes = new byte[64];
+
+  private int length;
+
+  /**
+   * Instantiates a new normalized key encoder.
+   *
+   * @param keyExtractor the sort key extractor
+   */
+  NormalizedKeyEncoder(SortKeyExtractor keyExtractor) {
+    this.keyExtractor = keyExtractor;
+    List<ComparatorField> list = keyExtractor.getComparatorFields().getFields();
+    this.fields = list.toArray(new ComparatorField[0]);
+  }
+
+  /**
+   * Encodes the sort key of the given object.
+   *
+   * @param obj the object
+   * @return the normalized key
+   * @throws ComparatorException if a sort key value cannot be encoded
+   */
+  byte[] encode(Object obj) {
+    Object[] values = keyExtractor.extractValues(obj);
+    length = 0;
+    for (int i = 0; i < fields.length; i++) {
+      int start = length;
+      encode(fields[i], values[i]);
+      if (!fields[i].isAsc()) {
+        for (int j = start; j < length; j++) {
+          bytes[j] = (byte) ~bytes[j];
+        }
+      }
+    }
+    return Arrays.copyOf(bytes, length);
+  }
+
+  private void encode(ComparatorField field, Object value) {
+    if (value == null) {
+      writeByte(field.isNullIsFirst() ? NULL_FIRST : NULL_LAST);
+      return;
+    }
+    writeByte(NOT_NULL);
+    if (value instanceof String) {
+      String str = (String) value;
+      for (int i = 0; i < str.length(); i++) {
+        char c = str.charAt(i);
+        writeByte(CHARACTER);
+        writeChar(field.isIgnoreCase() ? Character.toLowerCase(Character.toUpperCase(c)) : c);
+      }
+      writeByte(END_OF_STRING);
+    } else if (value instanceof Long || value instanceof Integer
+        || value instanceof Short || value instanceof Byte) {
+      writeLong(((Number) value).longValue() ^ Long.MIN_VALUE);
+    } else if (value instanceof Double) {
+      long bits = Double.doubleToLongBits((Double) value);
+      writeLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+    } else if (value instanceof Float) {
+      int bits = Float.floatToIntBits((Float) value);
+      writeInt(bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE);
+    } else if (value instanceof BigDecimal) {
+      writeDecimal((BigDecimal) value);
+    } else if (value instanceof BigInteger) {
+      writeDecimal(new BigDecimal((BigInteger) value));
+    } else if (value instanceof Boolean) {
+      writeByte((Boolean) value ? 1 : 0);
+    } else if (value instanceof Character) {
+      writeChar((Character) value);
+    } else if (value instanceof Enum) {
+      writeInt(((Enum<?>) value).ordinal());
+    } else if (value instanceof Date) {
+      writeLong(((Date) value).getTime() ^ Long.MIN_VALUE);
+    } else if (value instanceof Instant) {
+      writeLong(((Instant) value).getEpochSecond() ^ Long.MIN_VALUE);
+      writeInt(((Instant) value).getNano());
+    } else if (value instanceof LocalDate) {
+      writeLong(((LocalDate) value).toEpochDay() ^ Long.MIN_VALUE);
+    } else if (value instanceof LocalDateTime) {
+      writeLong(((LocalDateTime) value).toLocalDate().toEpochDay() ^ Long.MIN_VALUE);
+      writeLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+    } else if (value instanceof LocalTime) {
+      writeLong(((LocalTime) value).toNanoOfDay());
+    } else {
+      throw new ComparatorException("Value of field '" + field.getField() + "' with type "
+          + value.getClass().getName() + " cannot be encoded into a normalized key.");
+    }
+  }
+
+  private void writeDecimal(BigDecimal value) {
+    // sign, exponent and digits of the normalized form 0.d1d2d3... * 10^exponent
+    int signum = value.signum();
+    if (signum == 0) {
+      writeByte(DECIMAL_ZERO);
+      return;
+    }
+    writeByte(signum > 0 ? DECIMAL_POSITIVE : DECIMAL_NEGATIVE);
+    int start = length;
+    BigDecimal normalized = value.stripTrailingZeros();
+    String digits = normalized.unscaledValue().abs().toString();
+    writeLong(((long) digits.length() - normalized.scale()) ^ Long.MIN_VALUE);
+    for (int i = 0; i < digits.length(); i++) {
+      writeByte(digits.charAt(i) - '0' + 1);
+    }
+    writeByte(END_OF_DIGITS);
+    if (signum < 0) {
+      for (int i = start; i < length; i++) {
+        bytes[i] = (byte) ~bytes[i];
+      }
+    }
+  }
+
+  private void ensureCapacity(int additional) {
+    if (length + additional > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+    }
+  }
+
+  private void writeByte(int value) {
+    ensureCapacity(1);
+    bytes[length++] = (byte) value;
+  }
+
+  private void writeChar(char value) {
+    ensureCapacity(2);
+    bytes[length++] = (byte) (value >>> 8);
+    bytes[length++] = (byte) value;
+  }
+
+  private void writeInt(int value) {
+    ensureCapacity(4);
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      bytes[length++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void writeLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      bytes[length++] = (byte) (value >>> shift);
+    }
+  }
+
+  /**
+   * Compares two normalized keys.
+   *
+   * @param key1 the first key
+   * @param key2 the second key
+   * @return a negative integer, zero, or a positive integer as the first key is less than, equal
+   *     to, or greater than the second
+   */
+  static int compare(byte[] key1, byte[] key2) {
+    return Arrays.compareUnsigned(key1, key2);
+  }
+
+  /**
+   * Compares two normalized keys, that are stored in buffers. The buffers must have big endian
+   * byte order.
+   *
+   * @param buffer1   the buffer of the first key
+   * @param position1 the position of the first key
+   * @param length1   the length of the first key
+   * @param buffer2   the buffer of the second key
+   * @param position2 the position of the second key
+   * @param length2   the length of the second key
+   * @return a negative integer, zero, or a positive integer as the first key is less than, equal
+   *     to, or greater than the second
+   */
+  static int compare(
+      ByteBuffer buffer1, int position1, int length1,
+      ByteBuffer buffer2, int position2, int length2) {
+    int length = Math.min(length1, length2);
+    int i = 0;
+    for (; i + 8 <= length; i += 8) {
+      long value1 = buffer1.getLong(position1 + i);
+      long value2 = buffer2.getLong(position2 + i);
+      if (value1 != value2) {
+        return Long.compareUnsigned(value1, value2);
+      }
+    }
+    for (; i < length; i++) {
+      int value1 = buffer1.get(position1 + i) & 0xff;
+      int value2 = buffer2.get(position2 + i) & 0xff;
+      if (value1 != value2) {
+        return value1 - value2;
+      }
+    }
+    return length1 - length2;
+  }
+
+}
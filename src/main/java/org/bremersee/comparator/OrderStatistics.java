@@ -0,0 +1,319 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * This utility class provides order statistics (the n-th smallest element, the median and
+ * percentiles) without sorting the whole list.
+ *
+ * <p>The elements are selected by introselect: a quickselect with a median of three pivot and a
+ * three way partitioning (so that many equal sort keys are cheap), which is running in expected
+ * linear time. If the recursion gets too deep, the remaining range is sorted, so the worst case
+ * is {@code O(n log n)}.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class OrderStatistics {
+
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  private OrderStatistics() {
+  }
+
+  /**
+   * Returns the element that would be at index {@code k} if the list were sorted with the given
+   * comparator. The list is not modified.
+   *
+   * @param <T>        the type of the elements
+   * @param list       the list
+   * @param k          the index (zero based)
+   * @param comparator the comparator
+   * @return the k-th smallest element
+   */
+  public static <T> T nthElement(List<? extends T> list, int k, Comparator<? super T> comparator) {
+    T[] array = toArray(list);
+    return nthElement(array, k, comparator);
+  }
+
+  /**
+   * Returns the element that would be at index {@code k} if the list were sorted by the given
+   * comparator fields. The list is not modified.
+   *
+   * @param <T>    the type of the elements
+   * @param list   the list
+   * @param k      the index (zero based)
+   * @param fields the comparator fields
+   * @return the k-th smallest element
+   */
+  public static <T> T nthElement(List<? extends T> list, int k, ComparatorFields fields) {
+    return nthElement(list, k, comparator(fields));
+  }
+
+  /**
+   * Rearranges the given array, so that the element at index {@code k} is the element that would
+   * be there if the array were sorted. All elements before are less than or equal to it and all
+   * elements after are greater than or equal to it.
+   *
+   * @param <T>        the type of the elements
+   * @param array      the array
+   * @param k          the index (zero based)
+   * @param comparator the comparator
+   * @return the k-th smallest element
+   */
+  public static <T> T nthElement(T[] array, int k, Comparator<? super T> comparator) {
+    if (array == null || array.length == 0) {
+      throw new IllegalArgumentException("Array or list must not be null or empty.");
+    }
+    if (k < 0 || k >= array.length) {
+      throw new IllegalArgumentException("Index [" + k + "] is out of range [0, "
+          + (array.length - 1) + "].");
+    }
+    if (comparator == null) {
+      throw new IllegalArgumentException("Comparator must not be null.");
+    }
+    select(array, 0, array.length - 1, k, comparator);
+    return array[k];
+  }
+
+  /**
+   * Returns the median of the list. If the list has an even number of elements, the lower median
+   * is returned. The list is not modified.
+   *
+   * @param <T>        the type of the elements
+   * @param list       the list
+   * @param comparator the comparator
+   * @return the median
+   */
+  public static <T> T median(List<? extends T> list, Comparator<? super T> comparator) {
+    return nthElement(list, list != null ? (list.size() - 1) / 2 : 0, comparator);
+  }
+
+  /**
+   * Returns the median of the list sorted by the given comparator fields (see {@link
+   * #median(List, Comparator)}).
+   *
+   * @param <T>    the type of the elements
+   * @param list   the list
+   * @param fields the comparator fields
+   * @return the median
+   */
+  public static <T> T median(List<? extends T> list, ComparatorFields fields) {
+    return median(list, comparator(fields));
+  }
+
+  /**
+   * Returns the percentile of the list by the nearest rank method: the element at the (zero
+   * based) index {@code ceil(percentile / 100 * size) - 1} of the sorted list. The list is not
+   * modified.
+   *
+   * @param <T>        the type of the elements
+   * @param list       the list
+   * @param percentile the percentile (between 0 and 100)
+   * @param comparator the comparator
+   * @return the element of the percentile
+   */
+  public static <T> T percentile(
+      List<? extends T> list,
+      double percentile,
+      Comparator<? super T> comparator) {
+    return nthElement(list, rank(percentile, list != null ? list.size() : 0), comparator);
+  }
+
+  /**
+   * Returns the percentile of the list sorted by the given comparator fields (see {@link
+   * #percentile(List, double, Comparator)}).
+   *
+   * @param <T>        the type of the elements
+   * @param list       the list
+   * @param percentile the percentile (between 0 and 100)
+   * @param fields     the comparator fields
+   * @return the element of the percentile
+   */
+  public static <T> T percentile(List<? extends T> list, double percentile,
+      ComparatorFields fields) {
+    return percentile(list, percentile, comparator(fields));
+  }
+
+  /**
+   * Returns several percentiles of the list at once (see {@link #percentile(List, double,
+   * Comparator)}). Each selection works only on the part of the list that was not yet excluded by
+   * the previous one, so this is cheaper than calling {@link #percentile(List, double,
+   * Comparator)} for each percentile. The list is not modified.
+   *
+   * @param <T>         the type of the elements
+   * @param list        the list
+   * @param comparator  the comparator
+   * @param percentiles the percentiles (between 0 and 100)
+   * @return the elements of the percentiles in the order of the given percentiles
+   */
+  public static <T> List<T> percentiles(
+      List<? extends T> list,
+      Comparator<? super T> comparator,
+      double... percentiles) {
+    T[] array = toArray(list);
+    if (array.length == 0) {
+      throw new IllegalArgumentException("Array or list must not be null or empty.");
+    }
+    if (comparator == null) {
+      throw new IllegalArgumentException("Comparator must not be null.");
+    }
+    int[] ranks = new int[percentiles != null ? percentiles.length : 0];
+    for (int i = 0; i < ranks.length; i++) {
+      ranks[i] = rank(percentiles[i], array.length);
+    }
+    int[] sortedRanks = ranks.clone();
+    Arrays.sort(sortedRanks);
+    int left = 0;
+    for (int rank : sortedRanks) {
+      select(array, left, array.length - 1, rank, comparator);
+      left = rank;
+    }
+    List<T> result = new ArrayList<>(ranks.length);
+    for (int rank : ranks) {
+      result.add(array[rank]);
+    }
+    return result;
+  }
+
+  /**
+   * Returns several percentiles of the list sorted by the given comparator fields (see {@link
+   * #percentiles(List, Comparator, double...)}).
+   *
+   * @param <T>         the type of the elements
+   * @param list        the list
+   * @param fields      the comparator fields
+   * @param percentiles the percentiles (between 0 and 100)
+   * @return the elements of the percentiles in the order of the given percentiles
+   */
+  public static <T> List<T> percentiles(
+      List<? extends T> list,
+      ComparatorFields fields,
+      double... percentiles) {
+    return percentiles(list, comparator(fields), percentiles);
+  }
+
+  private static int rank(double percentile, int size) {
+    if (Double.isNaN(percentile) || percentile < 0. || percentile > 100.) {
+      throw new IllegalArgumentException("Percentile [" + percentile
+          + "] must be between 0 and 100.");
+    }
+    int rank = (int) Math.ceil(percentile / 100. * size) - 1;
+    return Math.max(0, Math.min(rank, size - 1));
+  }
+
+  private static Comparator<Object> comparator(ComparatorFields fields) {
+    return ComparatorBuilder.builder().addAll(fields).build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T[] toArray(List<? extends T> list) {
+    return list != null ? (T[]) list.toArray() : (T[]) new Object[0];
+  }
+
+  private static <T> void select(
+      T[] a,
+      int from,
+      int to,
+      int k,
+      Comparator<? super T> comparator) {
+    int left = from;
+    int right = to;
+    int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(right - left + 1));
+    while (right > left) {
+      if (right - left < INSERTION_SORT_THRESHOLD) {
+        insertionSort(a, left, right, comparator);
+        return;
+      }
+      if (depthLimit-- == 0) {
+        Arrays.sort(a, left, right + 1, comparator);
+        return;
+      }
+      T pivot = medianOfThree(a, left, left + ((right - left) >>> 1), right, comparator);
+      int lt = left;
+      int gt = right;
+      int i = left;
+      while (i <= gt) {
+        int cmp = comparator.compare(a[i], pivot);
+        if (cmp < 0) {
+          swap(a, lt++, i++);
+        } else if (cmp > 0) {
+          swap(a, i, gt--);
+        } else {
+          i++;
+        }
+      }
+      if (k < lt) {
+        right = lt - 1;
+      } else if (k > gt) {
+        left = gt + 1;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private static <T> T medianOfThree(
+      T[] a,
+      int i,
+      int j,
+      int k,
+      Comparator<? super T> comparator) {
+    T x = a[i];
+    T y = a[j];
+    T z = a[k];
+    if (comparator.compare(x, y) < 0) {
+      if (comparator.compare(y, z) < 0) {
+        return y;
+      }
+      return comparator.compare(x, z) < 0 ? z : x;
+    }
+    if (comparator.compare(x, z) < 0) {
+      return x;
+    }
+    return comparator.compare(y, z) < 0 ? z : y;
+  }
+
+  private static <T> void insertionSort(
+      T[] a,
+      int left,
+      int right,
+      Comparator<? super T> comparator) {
+    for (int i = left + 1; i <= right; i++) {
+      T value = a[i];
+      int j = i - 1;
+      while (j >= left && comparator.compare(a[j], value) > 0) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = value;
+    }
+  }
+
+  private static void swap(Object[] a, int i, int j) {
+    Object tmp = a[i];
+    a[i] = a[j];
+    a[j] = tmp;
+  }
+
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The schema of fixed-width binary records. It maps field names to the offset and the type of the
+ * field inside a record, so that records in a {@link ByteBuffer} can be sorted by comparator
+ * fields (see {@link RecordSorter}) without creating objects.
+ *
+ * <p>Numbers are read in the byte order of the buffer. Strings are fixed-width ISO-8859-1 byte
+ * sequences, that are padded with zero bytes. If the schema has a null bitmap, the bit {@code i}
+ * of the bitmap ({@code byte i / 8}, {@code bit i % 8}) marks the {@code i}-th field of the schema
+ * as {@code null}.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class RecordSchema {
+
+  /**
+   * The field types.
+   */
+  public enum Type {
+
+    /**
+     * A signed byte.
+     */
+    BYTE(1),
+
+    /**
+     * A signed short.
+     */
+    SHORT(2),
+
+    /**
+     * A signed int.
+     */
+    INT(4),
+
+    /**
+     * A signed long.
+     */
+    LONG(8),
+
+    /**
+     * A float.
+     */
+    FLOAT(4),
+
+    /**
+     * A double.
+     */
+    DOUBLE(8),
+
+    /**
+     * A fixed-width ISO-8859-1 string, that is padded with zero bytes.
+     */
+    STRING(-1);
+
+    private final int length;
+
+    Type(int length) {
+      this.length = length;
+    }
+  }
+
+  private final int recordLength;
+
+  private final Map<String, Field> fields;
+
+  private RecordSchema(int recordLength, Map<String, Field> fields) {
+    this.recordLength = recordLength;
+    this.fields = fields;
+  }
+
+  /**
+   * Creates a new builder of a record schema.
+   *
+   * @param recordLength the length of a record in bytes
+   * @return the builder
+   */
+  public static Builder builder(int recordLength) {
+    return new Builder(recordLength);
+  }
+
+  /**
+   * Gets the length of a record in bytes.
+   *
+   * @return the record length
+   */
+  public int getRecordLength() {
+    return recordLength;
+  }
+
+  /**
+   * Gets the field names in the order of the schema.
+   *
+   * @return the field names
+   */
+  public Set<String> getFieldNames() {
+    return Collections.unmodifiableSet(fields.keySet());
+  }
+
+  /**
+   * Gets the field with the given name.
+   *
+   * @param name the field name
+   * @return the field
+   * @throws IllegalArgumentException if the field does not exist
+   */
+  Field getField(String name) {
+    Field field = fields.get(name);
+    if (field == null) {
+      throw new IllegalArgumentException("Field [" + name + "] does not exist in record schema.");
+    }
+    return field;
+  }
+
+  /**
+   * A field of the schema.
+   */
+  static final class Field {
+
+    private final int index;
+
+    private final Type type;
+
+    private final int offset;
+
+    private final int length;
+
+    private final int nullBitmapOffset;
+
+    private Field(int index, Type type, int offset, int length, int nullBitmapOffset) {
+      this.index = index;
+      this.type = type;
+      this.offset = offset;
+      this.length = length;
+      this.nullBitmapOffset = nullBitmapOffset;
+    }
+
+    /**
+     * Determines whether the field of the record at the given position is {@code null}.
+     *
+     * @param buffer the buffer
+     * @param record the position of the record
+     * @return {@code true} if the field is {@code null}, otherwise {@code false}
+     */
+    boolean isNull(ByteBuffer buffer, int record) {
+      return nullBitmapOffset >= 0
+          && (buffer.get(record + nullBitmapOffset + (index >>> 3)) & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * Compares the non-null field values of the records at the given positions.
+     *
+     * @param buffer     the buffer
+     * @param record1    the position of the first record
+     * @param record2    the position of the second record
+     * @param ignoreCase the ignore case flag of strings
+     * @return the result of the comparison
+     */
+    int compare(ByteBuffer buffer, int record1, int record2, boolean ignoreCase) {
+      int position1 = record1 + offset;
+      int position2 = record2 + offset;
+      switch (type) {
+        case BYTE:
+          return Byte.compare(buffer.get(position1), buffer.get(position2));
+        case SHORT:
+          return Short.compare(buffer.getShort(position1), buffer.getShort(position2));
+        case INT:
+          return Integer.compare(buffer.getInt(position1), buffer.getInt(position2));
+        case LONG:
+          return Long.compare(buffer.getLong(position1), buffer.getLong(position2));
+        case FLOAT:
+          return Float.compare(buffer.getFloat(position1), buffer.getFloat(position2));
+        case DOUBLE:
+          return Double.compare(buffer.getDouble(position1), buffer.getDouble(position2));
+        default:
+          return compareStrings(buffer, position1, position2, ignoreCase);
+      }
+    }
+
+    private int compareStrings(ByteBuffer buffer, int position1, int position2,
+        boolean ignoreCase) {
+      for (int i = 0; i < length; i++) {
+        char c1 = (char) (buffer.get(position1 + i) & 0xff);
+        char c2 = (char) (buffer.get(position2 + i) & 0xff);
+        if (c1 != c2) {
+          if (ignoreCase) {
+            c1 = Character.toLowerCase(Character.toUpperCase(c1));
+            c2 = Character.toLowerCase(Character.toUpperCase(c2));
+            if (c1 == c2) {
+              continue;
+            }
+          }
+          return c1 - c2;
+        }
+      }
+      return 0;
+    }
+  }
+
+  /**
+   * The builder of the record schema.
+   */
+  public static class Builder {
+
+    private final int recordLength;
+
+    private int nullBitmapOffset = -1;
+
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+
+    private Builder(int recordLength) {
+      if (recordLength <= 0) {
+        throw new IllegalArgumentException("Record length must be greater than zero.");
+      }
+      this.recordLength = recordLength;
+    }
+
+    private void checkRange(String name, int offset, int length) {
+      if (offset < 0 || length <= 0 || offset + length > recordLength) {
+        throw new IllegalArgumentException("Field [" + name + "] with offset " + offset
+            + " and length " + length + " does not fit into record of length " + recordLength
+            + ".");
+      }
+    }
+
+    /**
+     * Adds a numeric field.
+     *
+     * @param name   the field name
+     * @param type   the type of the field
+     * @param offset the offset of the field in the record
+     * @return the builder
+     */
+    public Builder field(String name, Type type, int offset) {
+      if (type == null || type == Type.STRING) {
+        throw new IllegalArgumentException("Type must be numeric, use stringField for strings.");
+      }
+      return add(name, type, offset, type.length);
+    }
+
+    /**
+     * Adds a fixed-width ISO-8859-1 string field.
+     *
+     * @param name   the field name
+     * @param offset the offset of the field in the record
+     * @param length the length of the field in bytes
+     * @return the builder
+     */
+    public Builder stringField(String name, int offset, int length) {
+      return add(name, Type.STRING, offset, length);
+    }
+
+    private Builder add(String name, Type type, int offset, int length) {
+      if (name == null || fields.containsKey(name)) {
+        throw new IllegalArgumentException("Field name [" + name + "] is null or not unique.");
+      }
+      checkRange(name, offset, length);
+      fields.put(name, new Field(fields.size(), type, offset, length, -1));
+      return this;
+    }
+
+    /**
+     * Sets the offset of the null bitmap. The bitmap has one bit for each field of the schema in
+     * the order, in which the fields were added.
+     *
+     * @param offset the offset of the null bitmap in the record
+     * @return the builder
+     */
+    public Builder nullBitmap(int offset) {
+      this.nullBitmapOffset = offset;
+      return this;
+    }
+
+    /**
+     * Builds the record schema.
+     *
+     * @return the record schema
+     */
+    public RecordSchema build() {
+      if (nullBitmapOffset >= 0) {
+        checkRange("null bitmap", nullBitmapOffset, Math.max(1, (fields.size() + 7) / 8));
+      }
+      Map<String, Field> schemaFields = new LinkedHashMap<>();
+      for (Map.Entry<String, Field> entry : fields.entrySet()) {
+        Field field = entry.getValue();
+        schemaFields.put(entry.getKey(),
+            new Field(field.index, field.type, field.offset, field.length, nullBitmapOffset));
+      }
+      return new RecordSchema(recordLength, schemaFields);
+    }
+  }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.List;
+import org.bremersee.comparator.ArgSort.IndexOrder;
+import org.bremersee.comparator.RecordSchema.Field;
+import org.bremersee.comparator.model.ComparatorField;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The record sorter sorts fixed-width binary records, that are described by a
+ * {@link RecordSchema}, by comparator fields, whose field names are the field names of the
+ * schema. The records are the bytes between position and limit of a {@link ByteBuffer} (heap,
+ * direct or memory-mapped), the values are compared directly in the buffer, so no objects are
+ * created.
+ *
+ * <pre>
+ * RecordSchema schema = RecordSchema.builder(24)
+ *     .field("timestamp", RecordSchema.Type.LONG, 0)
+ *     .field("level", RecordSchema.Type.INT, 8)
+ *     .stringField("host", 12, 12)
+ *     .build();
+ * new RecordSorter(schema).sort(buffer, comparatorFields);
+ * </pre>
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class RecordSorter {
+
+  private final RecordSchema schema;
+
+  /**
+   * Instantiates a new record sorter.
+   *
+   * @param schema the record schema
+   */
+  public RecordSorter(RecordSchema schema) {
+    if (schema == null) {
+      throw new IllegalArgumentException("Record schema must not be null.");
+    }
+    this.schema = schema;
+  }
+
+  /**
+   * Gets the record schema.
+   *
+   * @return the record schema
+   */
+  public RecordSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns the sorting permutation of the records, that is the index of the records (relative to
+   * the position of the buffer) in sorted order. The byte offset of the {@code i}-th sorted record
+   * is {@code buffer.position() + permutation[i] * schema.getRecordLength()}. The sort is stable
+   * and does not change the buffer.
+   *
+   * @param buffer           the buffer with the records between position and limit
+   * @param comparatorFields the comparator fields
+   * @return the sorting permutation
+   * @throws IllegalArgumentException if the remaining bytes of the buffer are no whole records,
+   *                                  or if a field does not exist in the schema
+   */
+  public int[] argsort(ByteBuffer buffer, ComparatorFields comparatorFields) {
+    int count = count(buffer);
+    int start = buffer.position();
+    int recordLength = schema.getRecordLength();
+    IndexOrder order = order(buffer, comparatorFields);
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.SORT);
+    int[] permutation = ArgSort.identity(count);
+    boolean sorted = ArgSort.sort(permutation, (index1, index2) -> {
+      event.compared();
+      return order.compare(start + index1 * recordLength, start + index2 * recordLength);
+    });
+    event.finish(comparatorFields.toWkt(), count, sorted);
+    return permutation;
+  }
+
+  /**
+   * Sorts the records of the buffer in place. The sort is stable.
+   *
+   * @param buffer           the buffer with the records between position and limit
+   * @param comparatorFields the comparator fields
+   * @throws IllegalArgumentException if the remaining bytes of the buffer are no whole records,
+   *                                  or if a field does not exist in the schema
+   */
+  public void sort(ByteBuffer buffer, ComparatorFields comparatorFields) {
+    int[] permutation = argsort(buffer, comparatorFields);
+    int start = buffer.position();
+    int recordLength = schema.getRecordLength();
+    byte[] first = new byte[recordLength];
+    byte[] next = new byte[recordLength];
+    BitSet done = new BitSet(permutation.length);
+    for (int i = 0; i < permutation.length; i++) {
+      if (done.get(i) || permutation[i] == i) {
+        continue;
+      }
+      // follow the cycle: the record at index permutation[j] moves to index j
+      read(buffer, start + i * recordLength, first);
+      int j = i;
+      while (permutation[j] != i) {
+        read(buffer, start + permutation[j] * recordLength, next);
+        write(buffer, start + j * recordLength, next);
+        done.set(j);
+        j = permutation[j];
+      }
+      write(buffer, start + j * recordLength, first);
+      done.set(j);
+    }
+  }
+
+  private int count(ByteBuffer buffer) {
+    if (buffer == null || buffer.remaining() % schema.getRecordLength() != 0) {
+      throw new IllegalArgumentException("The remaining bytes of the buffer must be a multiple of "
+          + "the record length " + schema.getRecordLength() + ".");
+    }
+    return buffer.remaining() / schema.getRecordLength();
+  }
+
+  private IndexOrder order(ByteBuffer buffer, ComparatorFields comparatorFields) {
+    List<ComparatorField> fields = comparatorFields != null
+        ? comparatorFields.getFields()
+        : null;
+    if (fields == null || fields.isEmpty()) {
+      throw new IllegalArgumentException("Comparator fields must not be null or empty.");
+    }
+    IndexOrder[] orders = new IndexOrder[fields.size()];
+    for (int i = 0; i < orders.length; i++) {
+      ComparatorField field = fields.get(i);
+      orders[i] = order(buffer, schema.getField(field.getField()),
+          field.isAsc(), field.isIgnoreCase(), field.isNullIsFirst());
+    }
+    return (record1, record2) -> {
+      for (IndexOrder order : orders) {
+        int result = order.compare(record1, record2);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    };
+  }
+
+  private static IndexOrder order(
+      ByteBuffer buffer,
+      Field field,
+      boolean asc,
+      boolean ignoreCase,
+      boolean nullIsFirst) {
+    return (record1, record2) -> {
+      boolean null1 = field.isNull(buffer, record1);
+      boolean null2 = field.isNull(buffer, record2);
+      int result;
+      if (null1 || null2) {
+        if (null1 && null2) {
+          return 0;
+        }
+        result = null1 == nullIsFirst ? -1 : 1;
+      } else {
+        result = field.compare(buffer, record1, record2, ignoreCase);
+      }
+      return asc ? result : -result;
+    };
+  }
+
+  private static void read(ByteBuffer buffer, int position, byte[] record) {
+    for (int i = 0; i < record.length; i++) {
+      record[i] = buffer.get(position + i);
+    }
+  }
+
+  private static void write(ByteBuffer buffer, int position, byte[] record) {
+    for (int i = 0; i < record.length; i++) {
+      buffer.put(position + i, record[i]);
+    }
+  }
+
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The run file stores a sorted run of an {@link ExternalSorter}. The run is read as a
+ * memory-mapped file, so the merge compares the normalized keys directly in the page cache.
+ *
+ * <p>An uncompressed run file consists of a header ({@code int} magic number, {@code int} number
+ * of entries), the entries ({@code int} key length, {@code int} payload length, {@code int}
+ * payload offset, key bytes) and the payloads.
+ *
+ * <p>A compressed run file consists of a header ({@code int} magic number, {@code int} number of
+ * entries, {@code short} length and UTF-8 bytes of the codec name) and blocks ({@code int}
+ * decompressed length, {@code int} compressed length, compressed bytes). A decompressed block
+ * contains whole entries ({@code int} key length, {@code int} payload length, key bytes, payload
+ * bytes), so the merge decompresses one block per run at a time.
+ *
+ * <p>All numbers are big endian.
+ *
+ * @author Christian Bremer
+ */
+final class RunFile {
+
+  private static final int MAGIC = 0x42435231;
+
+  private static final int COMPRESSED_MAGIC = 0x42435232;
+
+  /**
+   * The maximum number of bytes of a run file, that can be mapped.
+   */
+  static final long MAX_SIZE = Integer.MAX_VALUE;
+
+  /**
+   * The number of bytes of the header of an uncompressed run file.
+   */
+  static final int HEADER_LENGTH = 8;
+
+  private static final int ENTRY_HEADER_LENGTH = 12;
+
+  private static final int BLOCK_ENTRY_HEADER_LENGTH = 8;
+
+  private static final int BLOCK_HEADER_LENGTH = 8;
+
+  private static final int BLOCK_SIZE = 64 * 1024;
+
+  private RunFile() {
+  }
+
+  /**
+   * Writes a sorted run.
+   *
+   * @param file     the file
+   * @param keys     the normalized keys in sorted order
+   * @param payloads the payloads in the order of the keys
+   * @param codec    the codec (can be {@code null})
+   * @throws IOException if writing fails or the run is too large to be mapped
+   */
+  static void write(Path file, List<byte[]> keys, List<byte[]> payloads, SpillCodec codec)
+      throws IOException {
+    if (codec != null) {
+      writeCompressed(file, keys, payloads, codec);
+      return;
+    }
+    long payloadOffset = HEADER_LENGTH;
+    for (byte[] key : keys) {
+      payloadOffset += ENTRY_HEADER_LENGTH + key.length;
+    }
+    long size = payloadOffset;
+    for (byte[] payload : payloads) {
+      size += payload.length;
+    }
+    checkSize(size);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0L, size);
+      buffer.putInt(MAGIC).putInt(keys.size());
+      int offset = (int) payloadOffset;
+      for (int i = 0; i < keys.size(); i++) {
+        byte[] key = keys.get(i);
+        int length = payloads.get(i).length;
+        buffer.putInt(key.length).putInt(length).putInt(offset).put(key);
+        offset += length;
+      }
+      for (byte[] payload : payloads) {
+        buffer.put(payload);
+      }
+    }
+  }
+
+  private static void writeCompressed(
+      Path file,
+      List<byte[]> keys,
+      List<byte[]> payloads,
+      SpillCodec codec) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      byte[] name = codec.getName().getBytes(StandardCharsets.UTF_8);
+      ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH + 2 + name.length)
+          .putInt(COMPRESSED_MAGIC).putInt(keys.size()).putShort((short) name.length).put(name);
+      header.flip();
+      long size = header.remaining();
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+      for (int i = 0; i < keys.size(); i++) {
+        byte[] key = keys.get(i);
+        byte[] payload = payloads.get(i);
+        int length = BLOCK_ENTRY_HEADER_LENGTH + key.length + payload.length;
+        if (block.position() > 0 && block.remaining() < length) {
+          size = writeBlock(channel, block, codec, size);
+        }
+        if (block.remaining() < length) {
+          block = ByteBuffer.allocate(length);
+        }
+        block.putInt(key.length).putInt(payload.length).put(key).put(payload);
+      }
+      if (block.position() > 0) {
+        writeBlock(channel, block, codec, size);
+      }
+    }
+  }
+
+  private static long writeBlock(FileChannel channel, ByteBuffer block, SpillCodec codec,
+      long size) throws IOException {
+    byte[] compressed = codec.compress(block.array(), block.position());
+    long newSize = size + BLOCK_HEADER_LENGTH + compressed.length;
+    checkSize(newSize);
+    ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_LENGTH + compressed.length)
+        .putInt(block.position()).putInt(compressed.length).put(compressed);
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    block.clear();
+    return newSize;
+  }
+
+  /**
+   * Returns the number of bytes, that the given entry occupies in an uncompressed run file.
+   *
+   * @param key     the normalized key
+   * @param payload the payload
+   * @return the number of bytes
+   */
+  static long entrySize(byte[] key, byte[] payload) {
+    return (long) ENTRY_HEADER_LENGTH + key.length + payload.length;
+  }
+
+  private static void checkSize(long size) throws IOException {
+    if (size > MAX_SIZE) {
+      throw new IOException("Run of " + size + " bytes is too large to be mapped, "
+          + "the run size must be decreased.");
+    }
+  }
+
+  /**
+   * Opens a cursor of a run file.
+   *
+   * @param file  the file
+   * @param codec the codec (can be {@code null})
+   * @return the cursor before the first entry
+   * @throws IOException if reading fails or the file is no run file of the given codec
+   */
+  static Cursor open(Path file, SpillCodec codec) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      checkSize(channel.size());
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0L, channel.size());
+      int magic = buffer.remaining() >= HEADER_LENGTH ? buffer.getInt(0) : 0;
+      if (magic == MAGIC && codec == null) {
+        return new MappedCursor(buffer, buffer.getInt(4));
+      }
+      if (magic == COMPRESSED_MAGIC && codec != null) {
+        byte[] name = new byte[buffer.getShort(HEADER_LENGTH)];
+        buffer.position(HEADER_LENGTH + 2);
+        buffer.get(name);
+        if (codec.getName().equals(new String(name, StandardCharsets.UTF_8))) {
+          return new BlockCursor(buffer, buffer.getInt(4), codec);
+        }
+      }
+      throw new IOException("File [" + file + "] is not a run file of codec ["
+          + (codec != null ? codec.getName() : null) + "].");
+    }
+  }
+
+  /**
+   * The cursor of a run file.
+   */
+  abstract static class Cursor {
+
+    /**
+     * The buffer of the current entry.
+     */
+    ByteBuffer buffer;
+
+    /**
+     * The position of the key of the current entry.
+     */
+    int keyPosition;
+
+    /**
+     * The length of the key of the current entry.
+     */
+    int keyLength;
+
+    /**
+     * The position of the payload of the current entry.
+     */
+    int payloadPosition;
+
+    /**
+     * The length of the payload of the current entry.
+     */
+    int payloadLength;
+
+    /**
+     * The number of remaining entries.
+     */
+    int remaining;
+
+    /**
+     * Moves the cursor to the next entry.
+     *
+     * @return {@code true}, if there is a next entry, otherwise {@code false}
+     * @throws IOException if the next block cannot be read
+     */
+    abstract boolean next() throws IOException;
+
+    /**
+     * Compares the normalized key of the current entry with the one of the given cursor.
+     *
+     * @param other the other cursor
+     * @return the result of the comparison
+     */
+    int compareKey(Cursor other) {
+      return NormalizedKeyEncoder.compare(
+          buffer, keyPosition, keyLength,
+          other.buffer, other.keyPosition, other.keyLength);
+    }
+
+    /**
+     * Returns a view of the payload of the current entry.
+     *
+     * @return the payload
+     */
+    ByteBuffer payload() {
+      ByteBuffer payload = buffer.duplicate();
+      payload.limit(payloadPosition + payloadLength).position(payloadPosition);
+      return payload;
+    }
+  }
+
+  private static final class MappedCursor extends Cursor {
+
+    private int next = HEADER_LENGTH;
+
+    private MappedCursor(ByteBuffer buffer, int count) {
+      this.buffer = buffer;
+      this.remaining = count;
+    }
+
+    @Override
+    boolean next() {
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+      keyLength = buffer.getInt(next);
+      payloadLength = buffer.getInt(next + 4);
+      payloadPosition = buffer.getInt(next + 8);
+      keyPosition = next + ENTRY_HEADER_LENGTH;
+      next = keyPosition + keyLength;
+      return true;
+    }
+  }
+
+  private static final class BlockCursor extends Cursor {
+
+    private final ByteBuffer file;
+
+    private final SpillCodec codec;
+
+    private int filePosition;
+
+    private byte[] block = new byte[BLOCK_SIZE];
+
+    private int next;
+
+    private int limit;
+
+    private BlockCursor(ByteBuffer file, int count, SpillCodec codec) {
+      this.file = file;
+      this.remaining = count;
+      this.codec = codec;
+      this.filePosition = file.position();
+      this.buffer = ByteBuffer.wrap(block);
+    }
+
+    @Override
+    boolean next() throws IOException {
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+      if (next == limit) {
+        readBlock();
+      }
+      keyLength = buffer.getInt(next);
+      payloadLength = buffer.getInt(next + 4);
+      keyPosition = next + BLOCK_ENTRY_HEADER_LENGTH;
+      payloadPosition = keyPosition + keyLength;
+      next = payloadPosition + payloadLength;
+      return true;
+    }
+
+    private void readBlock() throws IOException {
+      limit = file.getInt(filePosition);
+      int compressedLength = file.getInt(filePosition + 4);
+      if (limit > block.length) {
+        block = new byte[limit];
+        buffer = ByteBuffer.wrap(block);
+      }
+      ByteBuffer compressed = file.duplicate();
+      compressed.limit(filePosition + BLOCK_HEADER_LENGTH + compressedLength)
+          .position(filePosition + BLOCK_HEADER_LENGTH);
+      codec.decompress(compressed, block, limit);
+      filePosition += BLOCK_HEADER_LENGTH + compressedLength;
+      next = 0;
+    }
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The sort key is an immutable tuple of the extracted sort key values of an object (see {@link
+ * SortKeyExtractor#extract(Object)}).
+ *
+ * <p>Its order is the order of the comparator fields of the extractor. The methods {@code equals}
+ * and {@code hashCode} are consistent with this order: two sort keys are equal, if they are
+ * created with equal comparator fields and their comparison returns zero. String values of case
+ * insensitive fields are case folded and decimal values are compared without trailing zeros. So a
+ * sort key can be used as key of a {@code HashMap} and of a {@code TreeMap} and for joins, without
+ * extracting the values again.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public final class SortKey implements Comparable<SortKey> {
+
+  private final SortKeyExtractor extractor;
+
+  private final Object[] values;
+
+  private int hash;
+
+  SortKey(SortKeyExtractor extractor, Object[] values) {
+    this.extractor = extractor;
+    this.values = values;
+  }
+
+  /**
+   * Folds the case of the given string like {@link String#compareToIgnoreCase(String)} does, so
+   * that two strings are equal ignoring case, if their folded strings are equal.
+   *
+   * @param value the string
+   * @return the case folded string
+   */
+  static String foldCase(String value) {
+    int length = value.length();
+    int i = 0;
+    while (i < length && foldCase(value.charAt(i)) == value.charAt(i)) {
+      i++;
+    }
+    if (i == length) {
+      return value;
+    }
+    char[] chars = value.toCharArray();
+    for (; i < length; i++) {
+      chars[i] = foldCase(chars[i]);
+    }
+    return new String(chars);
+  }
+
+  private static char foldCase(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  /**
+   * Returns the number of values.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Returns the value at the given position (in the order of the comparator fields).
+   *
+   * @param index the position
+   * @return the value
+   */
+  public Object get(int index) {
+    return values[index];
+  }
+
+  /**
+   * Returns the values in the order of the comparator fields.
+   *
+   * @return the unmodifiable list of values
+   */
+  public List<Object> getValues() {
+    return Collections.unmodifiableList(Arrays.asList(values));
+  }
+
+  /**
+   * Gets the extractor, that has created this sort key.
+   *
+   * @return the extractor
+   */
+  public SortKeyExtractor getExtractor() {
+    return extractor;
+  }
+
+  @Override
+  public int compareTo(SortKey other) {
+    return extractor.compareValues(values, other.values);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SortKey)) {
+      return false;
+    }
+    SortKey that = (SortKey) o;
+    if (values.length != that.values.length || hashCode() != that.hashCode()) {
+      return false;
+    }
+    if (extractor != that.extractor
+        && !extractor.getComparatorFields().equals(that.extractor.getComparatorFields())) {
+      return false;
+    }
+    return compareTo(that) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      h = 1;
+      for (Object value : values) {
+        h = 31 * h + hashCode(value);
+      }
+      hash = h;
+    }
+    return h;
+  }
+
+  private static int hashCode(Object value) {
+    if (value instanceof BigDecimal) {
+      BigDecimal decimal = (BigDecimal) value;
+      return decimal.signum() == 0 ? 0 : decimal.stripTrailingZeros().hashCode();
+    }
+    return value != null ? value.hashCode() : 0;
+  }
+
+  @Override
+  public String toString() {
+    return "SortKey" + Arrays.toString(values);
+  }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.List;
+import org.bremersee.comparator.model.ComparatorField;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.model.ImmutableComparatorFields;
+
+/**
+ * The sort key extractor extracts the sort key values of an object once, so that they can be
+ * compared many times without reflection.
+ *
+ * <p>With {@link #extract(Object)} a {@link SortKey} is created, that can be used as key of a
+ * {@code HashMap} or a {@code TreeMap}.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class SortKeyExtractor {
+
+  private final ImmutableComparatorFields comparatorFields;
+
+  private final ValueComparator[] comparators;
+
+  private final boolean[] ignoreCase;
+
+  /**
+   * Instantiates a new sort key extractor.
+   *
+   * @param comparatorFields the comparator fields (must not be empty)
+   */
+  public SortKeyExtractor(ComparatorFields comparatorFields) {
+    this(comparatorFields, null);
+  }
+
+  /**
+   * Instantiates a new sort key extractor. A custom value extractor can be specified.
+   *
+   * @param comparatorFields the comparator fields (must not be empty)
+   * @param valueExtractor   the value extractor (can be {@code null})
+   */
+  public SortKeyExtractor(ComparatorFields comparatorFields, ValueExtractor valueExtractor) {
+    List<ComparatorField> fields = comparatorFields != null
+        ? comparatorFields.getFields()
+        : null;
+    if (fields == null || fields.isEmpty()) {
+      throw new IllegalArgumentException("Comparator fields must not be null or empty.");
+    }
+    this.comparatorFields = comparatorFields.freeze();
+    this.comparators = new ValueComparator[fields.size()];
+    this.ignoreCase = new boolean[fields.size()];
+    for (int i = 0; i < comparators.length; i++) {
+      comparators[i] = new ValueComparator(fields.get(i), valueExtractor);
+      ignoreCase[i] = fields.get(i).isIgnoreCase();
+    }
+  }
+
+  /**
+   * Gets the comparator fields.
+   *
+   * @return the comparator fields
+   */
+  public ImmutableComparatorFields getComparatorFields() {
+    return comparatorFields;
+  }
+
+  /**
+   * Extracts the sort key of the given object. String values of case insensitive fields are case
+   * folded, so that {@code equals} and {@code hashCode} of the sort key are consistent with its
+   * order.
+   *
+   * @param obj the object
+   * @return the sort key
+   */
+  public SortKey extract(Object obj) {
+    Object[] values = extractValues(obj);
+    for (int i = 0; i < values.length; i++) {
+      if (ignoreCase[i] && values[i] instanceof String) {
+        values[i] = SortKey.foldCase((String) values[i]);
+      }
+    }
+    return new SortKey(this, values);
+  }
+
+  /**
+   * Returns the number of sort key values.
+   *
+   * @return the number of sort key values
+   */
+  int size() {
+    return comparators.length;
+  }
+
+  /**
+   * Gets the comparator of the sort key value at the given position.
+   *
+   * @param index the position
+   * @return the comparator
+   */
+  ValueComparator getComparator(int index) {
+    return comparators[index];
+  }
+
+  /**
+   * Extracts the sort key values of the given object.
+   *
+   * @param obj the object
+   * @return the sort key values
+   */
+  Object[] extractValues(Object obj) {
+    Object[] values = new Object[comparators.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = comparators[i].extractValue(obj);
+    }
+    return values;
+  }
+
+  /**
+   * Compares two arrays of sort key values.
+   *
+   * @param values1 the first sort key values
+   * @param values2 the second sort key values
+   * @return a negative integer, zero, or a positive integer as the first values are less than,
+   *     equal to, or greater than the second
+   */
+  int compareValues(Object[] values1, Object[] values2) {
+    for (int i = 0; i < comparators.length; i++) {
+      int result = comparators[i].compareValues(values1[i], values2[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.bremersee.comparator.model.ComparatorField;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The sort merge join joins two collections by their sort keys in a single merge pass.
+ *
+ * <p>The left and the right side have their own comparator fields (e. g. {@code customer.id} and
+ * {@code id}), which must have the same number of fields with the same order description
+ * ({@code asc}, {@code ignoreCase} and {@code nullIsFirst}). The values of the corresponding fields
+ * must be comparable with each other. The key values of each element are extracted only once. As
+ * in SQL, a key that contains a {@code null} value never matches.
+ *
+ * <p>The result is ordered by the keys. Elements with equal keys keep their encounter order.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class SortMergeJoin {
+
+  private final SortKeyExtractor leftExtractor;
+
+  private final SortKeyExtractor rightExtractor;
+
+  /**
+   * Instantiates a new sort merge join.
+   *
+   * @param leftFields  the comparator fields of the left side
+   * @param rightFields the comparator fields of the right side
+   */
+  public SortMergeJoin(ComparatorFields leftFields, ComparatorFields rightFields) {
+    this(leftFields, rightFields, null);
+  }
+
+  /**
+   * Instantiates a new sort merge join. A custom value extractor can be specified.
+   *
+   * @param leftFields     the comparator fields of the left side
+   * @param rightFields    the comparator fields of the right side
+   * @param valueExtractor the value extractor (can be {@code null})
+   */
+  public SortMergeJoin(
+      ComparatorFields leftFields,
+      ComparatorFields rightFields,
+      ValueExtractor valueExtractor) {
+    this.leftExtractor = new SortKeyExtractor(leftFields, valueExtractor);
+    this.rightExtractor = new SortKeyExtractor(rightFields, valueExtractor);
+    List<ComparatorField> left = leftExtractor.getComparatorFields().getFields();
+    List<ComparatorField> right = rightExtractor.getComparatorFields().getFields();
+    if (left.size() != right.size()) {
+      throw new IllegalArgumentException("Left and right comparator fields must have the same "
+          + "size.");
+    }
+    for (int i = 0; i < left.size(); i++) {
+      ComparatorField l = left.get(i);
+      ComparatorField r = right.get(i);
+      if (l.isAsc() != r.isAsc()
+          || l.isIgnoreCase() != r.isIgnoreCase()
+          || l.isNullIsFirst() != r.isNullIsFirst()) {
+        throw new IllegalArgumentException("Left field [" + l.getField() + "] and right field ["
+            + r.getField() + "] must have the same order description.");
+      }
+    }
+  }
+
+  /**
+   * Returns the pairs of left and right elements with equal keys.
+   *
+   * @param <L>   the type of the left elements
+   * @param <R>   the type of the right elements
+   * @param left  the left elements
+   * @param right the right elements
+   * @return the joined pairs
+   */
+  public <L, R> List<Map.Entry<L, R>> innerJoin(
+      Collection<? extends L> left,
+      Collection<? extends R> right) {
+    List<Map.Entry<L, R>> pairs = new ArrayList<>();
+    this.<L, R>join(left, right, false, false,
+        (l, r) -> pairs.add(new SimpleImmutableEntry<>(l, r)));
+    return pairs;
+  }
+
+  /**
+   * Returns the pairs of left and right elements with equal keys and the left elements without a
+   * matching right element paired with {@code null}.
+   *
+   * @param <L>   the type of the left elements
+   * @param <R>   the type of the right elements
+   * @param left  the left elements
+   * @param right the right elements
+   * @return the joined pairs
+   */
+  public <L, R> List<Map.Entry<L, R>> leftJoin(
+      Collection<? extends L> left,
+      Collection<? extends R> right) {
+    List<Map.Entry<L, R>> pairs = new ArrayList<>();
+    this.<L, R>join(left, right, true, false,
+        (l, r) -> pairs.add(new SimpleImmutableEntry<>(l, r)));
+    return pairs;
+  }
+
+  /**
+   * Joins the left and the right elements and calls the consumer for each pair.
+   *
+   * <p>If the inputs are already sorted by their comparator fields, sorting can be skipped. In this
+   * case the order is verified during the join and an {@link IllegalArgumentException} is thrown,
+   * if an input is not sorted.
+   *
+   * @param <L>       the type of the left elements
+   * @param <R>       the type of the right elements
+   * @param left      the left elements
+   * @param right     the right elements
+   * @param leftOuter if {@code true}, left elements without a match are paired with {@code null}
+   * @param sorted    {@code true}, if both inputs are already sorted
+   * @param consumer  the consumer of the pairs
+   */
+  public <L, R> void join(
+      Collection<? extends L> left,
+      Collection<? extends R> right,
+      boolean leftOuter,
+      boolean sorted,
+      BiConsumer<? super L, ? super R> consumer) {
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.MERGE);
+    List<Entry<L>> leftEntries = extract(left, leftExtractor, sorted, "Left", event);
+    List<Entry<R>> rightEntries = extract(right, rightExtractor, sorted, "Right", event);
+    int leftSize = leftEntries.size();
+    int rightSize = rightEntries.size();
+    int i = 0;
+    int j = 0;
+    while (i < leftSize) {
+      Entry<L> leftEntry = leftEntries.get(i);
+      int result = 1;
+      if (!leftEntry.matchable) {
+        i++;
+      } else {
+        while (j < rightSize) {
+          Entry<R> rightEntry = rightEntries.get(j);
+          if (rightEntry.matchable) {
+            result = compareKeys(leftEntry.key, rightEntry.key, event);
+            if (result <= 0) {
+              break;
+            }
+          }
+          j++;
+        }
+        if (j < rightSize && result == 0) {
+          int end = j + 1;
+          while (end < rightSize
+              && compareKeys(leftEntry.key, rightEntries.get(end).key, event) == 0) {
+            end++;
+          }
+          do {
+            for (int k = j; k < end; k++) {
+              consumer.accept(leftEntries.get(i).element, rightEntries.get(k).element);
+            }
+            i++;
+          } while (i < leftSize
+              && compareLeftKeys(leftEntry.key, leftEntries.get(i).key, event) == 0);
+          j = end;
+          continue;
+        }
+        i++;
+      }
+      if (leftOuter) {
+        consumer.accept(leftEntry.element, null);
+      }
+    }
+    event.finish(leftExtractor.getComparatorFields().toWkt() + " = "
+        + rightExtractor.getComparatorFields().toWkt(), leftSize + rightSize, sorted);
+  }
+
+  private int compareLeftKeys(Object[] key1, Object[] key2, SortOperationEvent event) {
+    event.compared();
+    return leftExtractor.compareValues(key1, key2);
+  }
+
+  private int compareKeys(Object[] leftKey, Object[] rightKey, SortOperationEvent event) {
+    event.compared();
+    for (int i = 0; i < leftKey.length; i++) {
+      int result = leftExtractor.getComparator(i).compareValues(leftKey[i], rightKey[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private static <T> List<Entry<T>> extract(
+      Collection<? extends T> elements,
+      SortKeyExtractor keyExtractor,
+      boolean sorted,
+      String side,
+      SortOperationEvent event) {
+    List<Entry<T>> entries = new ArrayList<>(elements != null ? elements.size() : 0);
+    long start = event.extractionStarted();
+    if (elements != null) {
+      for (T element : elements) {
+        entries.add(new Entry<>(keyExtractor.extractValues(element), element));
+      }
+    }
+    event.extractionFinished(start);
+    Comparator<Object[]> keyComparator = event.counting(keyExtractor::compareValues);
+    if (!sorted) {
+      entries.sort((e1, e2) -> keyComparator.compare(e1.key, e2.key));
+    } else {
+      for (int i = 1; i < entries.size(); i++) {
+        if (keyComparator.compare(entries.get(i - 1).key, entries.get(i).key) > 0) {
+          throw new IllegalArgumentException(side + " elements are not sorted (position " + i
+              + ").");
+        }
+      }
+    }
+    return entries;
+  }
+
+  private static final class Entry<T> {
+
+    private final Object[] key;
+
+    private final T element;
+
+    private final boolean matchable;
+
+    private Entry(Object[] key, T element) {
+      this.key = key;
+      this.element = element;
+      boolean hasNull = false;
+      for (Object value : key) {
+        hasNull = hasNull || value == null;
+      }
+      this.matchable = !hasNull;
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.Comparator;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The Java Flight Recorder event of a sort, top-K or merge operation of this library.
+ *
+ * <p>If the event is not enabled in a recording, it is not committed and the comparisons and the
+ * extraction time are not measured.
+ *
+ * @author Christian Bremer
+ */
+@Name(SortOperationEvent.NAME)
+@Label("Sort Operation")
+@Category({"Bremersee", "Comparator"})
+@Description("A sort, top-K or merge operation of the comparator library")
+@StackTrace(false)
+class SortOperationEvent extends Event {
+
+  /**
+   * The name of the event.
+   */
+  static final String NAME = "org.bremersee.comparator.SortOperation";
+
+  /**
+   * The operation, that sorts all elements.
+   */
+  static final String SORT = "sort";
+
+  /**
+   * The operation, that selects the smallest elements.
+   */
+  static final String TOP_K = "top-k";
+
+  /**
+   * The operation, that merges sorted inputs.
+   */
+  static final String MERGE = "merge";
+
+  @Label("Operation")
+  @Description("The kind of operation: sort, top-k or merge")
+  String operation;
+
+  @Label("Specification")
+  @Description("The well known text of the comparator fields")
+  String specification;
+
+  @Label("Element Count")
+  long elementCount;
+
+  @Label("Comparisons")
+  long comparisons;
+
+  @Label("Key Extraction Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long extractionTime;
+
+  @Label("Fast Path")
+  @Description("Whether a shortcut was taken, e. g. because the input was already sorted")
+  boolean fastPath;
+
+  private SortOperationEvent(String operation) {
+    this.operation = operation;
+  }
+
+  /**
+   * Creates and begins a new event.
+   *
+   * @param operation the operation
+   * @return the event
+   */
+  static SortOperationEvent start(String operation) {
+    SortOperationEvent event = new SortOperationEvent(operation);
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Returns a comparator, that counts the comparisons, if this event is enabled. Otherwise the
+   * given comparator is returned.
+   *
+   * @param <T>        the type of the compared objects
+   * @param comparator the comparator
+   * @return the comparator
+   */
+  <T> Comparator<T> counting(Comparator<T> comparator) {
+    if (!isEnabled()) {
+      return comparator;
+    }
+    return (o1, o2) -> {
+      comparisons++;
+      return comparator.compare(o1, o2);
+    };
+  }
+
+  /**
+   * Counts a comparison, that is not done by a comparator of {@link #counting(Comparator)}.
+   */
+  void compared() {
+    comparisons++;
+  }
+
+  /**
+   * Returns the start time of a key extraction or zero, if this event is not enabled.
+   *
+   * @return the start time
+   */
+  long extractionStarted() {
+    return isEnabled() ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Adds the time since the given start time to the key extraction time.
+   *
+   * @param start the start time (see {@link #extractionStarted()})
+   */
+  void extractionFinished(long start) {
+    if (start != 0L) {
+      extractionTime += System.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Ends this event and commits it, if it should be committed.
+   *
+   * @param specification the well known text of the comparator fields
+   * @param elementCount  the number of elements
+   * @param fastPath      whether a shortcut was taken
+   */
+  void finish(String specification, long elementCount, boolean fastPath) {
+    end();
+    if (shouldCommit()) {
+      this.specification = specification;
+      this.elementCount = elementCount;
+      this.fastPath = fastPath;
+      commit();
+    }
+  }
+
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The sorted view keeps its elements in a sorted array and maintains the order under inserts,
+ * removals and updates, so that the whole collection must not be sorted again after each
+ * mutation.
+ *
+ * <p>Inserts and removals find their position by binary search. Equal elements keep their
+ * insertion order. If the sort key fields of an element are changed, the element must be
+ * repositioned: either by changing it with {@link #update(Object, Consumer)} or by calling {@link
+ * #reposition(Object)} after it was changed.
+ *
+ * <p>This class is not thread safe.
+ *
+ * @param <T> the type of the elements
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class SortedView<T> implements Iterable<T> {
+
+  private static final int BULK_SORT_THRESHOLD = 8;
+
+  private final Comparator<? super T> comparator;
+
+  private Object[] elements;
+
+  private int size;
+
+  private int modCount;
+
+  /**
+   * Instantiates a new sorted view that is sorted by the given comparator fields.
+   *
+   * @param comparatorFields the comparator fields
+   */
+  public SortedView(ComparatorFields comparatorFields) {
+    this(comparatorFields, null);
+  }
+
+  /**
+   * Instantiates a new sorted view that is sorted by the given comparator fields. A custom value
+   * extractor can be specified.
+   *
+   * @param comparatorFields the comparator fields
+   * @param valueExtractor   the value extractor (can be {@code null})
+   */
+  public SortedView(ComparatorFields comparatorFields, ValueExtractor valueExtractor) {
+    this(ComparatorBuilder.builder().addAll(comparatorFields, valueExtractor).build());
+  }
+
+  /**
+   * Instantiates a new sorted view that is sorted by the given comparator.
+   *
+   * @param comparator the comparator
+   */
+  public SortedView(Comparator<? super T> comparator) {
+    if (comparator == null) {
+      throw new IllegalArgumentException("Comparator must not be null.");
+    }
+    this.comparator = comparator;
+    this.elements = new Object[10];
+  }
+
+  /**
+   * Gets the comparator.
+   *
+   * @return the comparator
+   */
+  public Comparator<? super T> getComparator() {
+    return comparator;
+  }
+
+  /**
+   * Returns the number of elements.
+   *
+   * @return the number of elements
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks whether this view is empty.
+   *
+   * @return {@code true} if this view is empty, otherwise {@code false}
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the element at the given position.
+   *
+   * @param index the position
+   * @return the element
+   */
+  public T get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return elementAt(index);
+  }
+
+  /**
+   * Adds the given element at its sorted position. It is placed behind all equal elements.
+   *
+   * @param element the element
+   * @return the position of the added element
+   */
+  public int add(T element) {
+    int index = upperBound(0, size, element);
+    ensureCapacity(size + 1);
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = element;
+    size++;
+    modCount++;
+    return index;
+  }
+
+  /**
+   * Adds all given elements. If many elements are added, they are appended and the array is
+   * sorted once (the existing elements are already an ascending run, so this is cheap).
+   *
+   * @param elements the elements
+   */
+  public void addAll(Collection<? extends T> elements) {
+    if (elements == null || elements.isEmpty()) {
+      return;
+    }
+    if (elements.size() < BULK_SORT_THRESHOLD) {
+      for (T element : elements) {
+        add(element);
+      }
+      return;
+    }
+    ensureCapacity(size + elements.size());
+    for (T element : elements) {
+      this.elements[size++] = element;
+    }
+    //noinspection unchecked
+    Arrays.sort((T[]) this.elements, 0, size, comparator);
+    modCount++;
+  }
+
+  /**
+   * Removes the given element. The element is searched by binary search, so its sort key fields
+   * should not have been changed. If it is not found there, it is searched linearly.
+   *
+   * @param element the element
+   * @return {@code true} if the element was removed, otherwise {@code false}
+   */
+  public boolean remove(Object element) {
+    int index = indexOf(element);
+    if (index < 0) {
+      return false;
+    }
+    removeAt(index);
+    return true;
+  }
+
+  /**
+   * Removes the element at the given position.
+   *
+   * @param index the position
+   * @return the removed element
+   */
+  public T removeAt(int index) {
+    T element = get(index);
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    elements[--size] = null;
+    modCount++;
+    return element;
+  }
+
+  /**
+   * Changes the given element with the given mutation and moves it to its new position. The
+   * element is searched by identity.
+   *
+   * @param element  the element
+   * @param mutation the mutation, that may change the sort key fields of the element
+   * @return {@code true} if the element is part of this view, otherwise {@code false} (the
+   *     mutation is applied anyway)
+   */
+  public boolean update(T element, Consumer<? super T> mutation) {
+    int index = identityIndexOf(element);
+    mutation.accept(element);
+    if (index < 0) {
+      return false;
+    }
+    moveToSortedPosition(index);
+    return true;
+  }
+
+  /**
+   * Moves the given element to its sorted position after its sort key fields have been changed.
+   * The element is searched by identity.
+   *
+   * @param element the element
+   * @return {@code true} if the element is part of this view, otherwise {@code false}
+   */
+  public boolean reposition(T element) {
+    for (int i = 0; i < size; i++) {
+      if (elements[i] == element) {
+        moveToSortedPosition(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the position of the given element or {@code -1}, if it is not part of this view.
+   *
+   * @param element the element
+   * @return the position of the element or {@code -1}
+   */
+  public int indexOf(Object element) {
+    if (element == null) {
+      return linearIndexOf(null);
+    }
+    int index;
+    try {
+      //noinspection unchecked
+      index = lowerBound(0, size, (T) element);
+    } catch (ClassCastException | ComparatorException e) {
+      return linearIndexOf(element);
+    }
+    for (int i = index; i < size && compare(elementAt(i), element) == 0; i++) {
+      if (Objects.equals(elements[i], element)) {
+        return i;
+      }
+    }
+    return linearIndexOf(element);
+  }
+
+  /**
+   * Checks whether the given element is part of this view.
+   *
+   * @param element the element
+   * @return {@code true} if the element is part of this view, otherwise {@code false}
+   */
+  public boolean contains(Object element) {
+    return indexOf(element) >= 0;
+  }
+
+  /**
+   * Removes all elements.
+   */
+  public void clear() {
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+    modCount++;
+  }
+
+  /**
+   * Returns an unmodifiable list view of the sorted elements.
+   *
+   * @return the list view
+   */
+  public List<T> asList() {
+    return new ListView();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+
+      private final int expectedModCount = modCount;
+
+      private int cursor;
+
+      @Override
+      public boolean hasNext() {
+        return cursor < size;
+      }
+
+      @Override
+      public T next() {
+        if (expectedModCount != modCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (cursor >= size) {
+          throw new NoSuchElementException();
+        }
+        return elementAt(cursor++);
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return asList().toString();
+  }
+
+  private void moveToSortedPosition(int index) {
+    T element = elementAt(index);
+    if (index > 0 && comparator.compare(elementAt(index - 1), element) > 0) {
+      int newIndex = upperBound(0, index, element);
+      System.arraycopy(elements, newIndex, elements, newIndex + 1, index - newIndex);
+      elements[newIndex] = element;
+      modCount++;
+    } else if (index < size - 1 && comparator.compare(element, elementAt(index + 1)) > 0) {
+      int newIndex = upperBound(index + 1, size, element) - 1;
+      System.arraycopy(elements, index + 1, elements, index, newIndex - index);
+      elements[newIndex] = element;
+      modCount++;
+    }
+  }
+
+  private int identityIndexOf(T element) {
+    if (element != null) {
+      try {
+        int index = lowerBound(0, size, element);
+        for (int i = index; i < size && compare(elementAt(i), element) == 0; i++) {
+          if (elements[i] == element) {
+            return i;
+          }
+        }
+      } catch (ComparatorException ignored) {
+        // the element is searched linearly
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      if (elements[i] == element) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int linearIndexOf(Object element) {
+    for (int i = 0; i < size; i++) {
+      if (Objects.equals(elements[i], element)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(T element, Object other) {
+    return comparator.compare(element, (T) other);
+  }
+
+  /**
+   * Returns the first position in the given range whose element is greater than or equal to the
+   * given element.
+   */
+  private int lowerBound(int from, int to, T element) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (comparator.compare(elementAt(mid), element) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the first position in the given range whose element is greater than the given
+   * element.
+   */
+  private int upperBound(int from, int to, T element) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (comparator.compare(elementAt(mid), element) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T elementAt(int index) {
+    return (T) elements[index];
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > elements.length) {
+      int newCapacity = Math.max(capacity, elements.length + (elements.length >> 1));
+      elements = Arrays.copyOf(elements, newCapacity);
+    }
+  }
+
+  private class ListView extends AbstractList<T> implements RandomAccess {
+
+    @Override
+    public T get(int index) {
+      return SortedView.this.get(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+      return SortedView.this.indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return SortedView.this.contains(o);
+    }
+  }
+
+}
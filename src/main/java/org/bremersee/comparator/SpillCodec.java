@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ServiceLoader;
+
+/**
+ * The spill codec compresses the blocks of the run files of an {@link ExternalSorter}. Each block
+ * is compressed independently, so the merge decompresses only one block per run at a time.
+ *
+ * <p>Implementations can be registered as service provider (in
+ * {@code META-INF/services/org.bremersee.comparator.SpillCodec}) and then be looked up by name
+ * (see {@link #forName(String)}). The built-in codec is {@code deflate} (see
+ * {@link DeflateSpillCodec}).
+ *
+ * @author Christian Bremer
+ * @see ExternalSorter.Builder#threads(int) thread-safety with spill threads
+ */
+public interface SpillCodec {
+
+  /**
+   * Gets the name of the codec. The name is stored in the run files.
+   *
+   * @return the name
+   */
+  String getName();
+
+  /**
+   * Compresses the given bytes.
+   *
+   * @param data   the bytes
+   * @param length the number of bytes to compress
+   * @return the compressed bytes
+   */
+  byte[] compress(byte[] data, int length);
+
+  /**
+   * Decompresses the bytes between position and limit of the given buffer. The buffer may be a
+   * view of a memory-mapped run file.
+   *
+   * @param compressed the compressed bytes
+   * @param data       the array of the decompressed bytes
+   * @param length     the number of decompressed bytes
+   * @throws IOException if the compressed bytes are corrupt
+   */
+  void decompress(ByteBuffer compressed, byte[] data, int length) throws IOException;
+
+  /**
+   * Finds the codec with the given name.
+   *
+   * @param name the name
+   * @return the codec
+   * @throws IllegalArgumentException if there is no codec with the given name
+   */
+  static SpillCodec forName(String name) {
+    for (SpillCodec codec : ServiceLoader.load(SpillCodec.class)) {
+      if (codec.getName().equals(name)) {
+        return codec;
+      }
+    }
+    throw new IllegalArgumentException("There is no spill codec with name [" + name + "].");
+  }
+
+}
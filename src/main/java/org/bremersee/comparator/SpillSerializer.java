@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The spill serializer writes the elements of an {@link ExternalSorter} into the payload of a
+ * sort run and reads them back during the merge.
+ *
+ * @param <T> the type of the elements
+ * @author Christian Bremer
+ * @see ExternalSorter.Builder#threads(int) thread-safety with spill threads
+ */
+public interface SpillSerializer<T> {
+
+  /**
+   * Serializes the given element.
+   *
+   * @param value the element
+   * @return the payload bytes
+   */
+  byte[] serialize(T value);
+
+  /**
+   * Deserializes an element from the payload bytes between position and limit of the given
+   * buffer. The buffer may be a view of a memory-mapped run file, so it must not be kept.
+   *
+   * @param payload the payload
+   * @return the element
+   */
+  T deserialize(ByteBuffer payload);
+
+  /**
+   * Estimates the number of bytes, that the given element occupies in memory. The estimation is
+   * used for the memory limit of the {@link ExternalSorter}. The default implementation returns
+   * the length of the serialized element, implementations should return a cheaper estimation.
+   *
+   * @param value the element
+   * @return the estimated size in bytes
+   */
+  default long sizeOf(T value) {
+    return serialize(value).length;
+  }
+
+  /**
+   * Returns a serializer of strings, that are encoded with UTF-8.
+   *
+   * @return the serializer of strings
+   */
+  static SpillSerializer<String> utf8() {
+    return new SpillSerializer<String>() {
+      @Override
+      public byte[] serialize(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+      }
+
+      @Override
+      public String deserialize(ByteBuffer payload) {
+        return StandardCharsets.UTF_8.decode(payload).toString();
+      }
+
+      @Override
+      public long sizeOf(String value) {
+        return 40L + 2L * value.length();
+      }
+    };
+  }
+
+}
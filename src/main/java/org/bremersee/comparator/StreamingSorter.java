@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A streaming sorter reads serialized records from an input stream and writes them in sorted
+ * order to an output stream, usually with an {@link ExternalSorter}, so that the records need not
+ * fit into memory.
+ *
+ * @author Christian Bremer
+ */
+public interface StreamingSorter {
+
+  /**
+   * Reads the records from the given input and writes them in sorted order to the given output.
+   * The streams are not closed.
+   *
+   * @param input  the input
+   * @param output the output
+   * @throws IOException if reading, spilling or writing fails or the input is malformed
+   */
+  void sort(InputStream input, OutputStream output) throws IOException;
+
+}
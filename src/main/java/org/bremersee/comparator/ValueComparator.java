@@ -107,11 +107,40 @@ public class ValueComparator implements Comparator<Object> {
     this.valueExtractor = valueExtractor != null ? valueExtractor : new DefaultValueExtractor();
   }
 
+  /**
+   * Returns the description of this comparator as comparator field.
+   *
+   * @return the comparator field
+   */
+  public ComparatorField getComparatorField() {
+    return new ComparatorField(field, asc, ignoreCase, nullIsFirst);
+  }
+
   @Override
   public int compare(Object o1, Object o2) {
-    final Object v1 = valueExtractor.findValue(o1, field);
-    final Object v2 = valueExtractor.findValue(o2, field);
+    return compareValues(extractValue(o1), extractValue(o2));
+  }
+
+  /**
+   * Extracts the value of the field name or path of this comparator from the given object.
+   *
+   * @param obj the object
+   * @return the value
+   */
+  public Object extractValue(Object obj) {
+    return valueExtractor.findValue(obj, field);
+  }
 
+  /**
+   * Compares two already extracted values (see {@link #extractValue(Object)}) with the
+   * description of this comparator.
+   *
+   * @param v1 the first value
+   * @param v2 the second value
+   * @return a negative integer, zero, or a positive integer as the first value is less than, equal
+   *     to, or greater than the second
+   */
+  public int compareValues(Object v1, Object v2) {
     if (v1 == null && v2 == null) {
       return 0;
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.csv;
+
+/**
+ * The type of a CSV column, that determines how the values of the column are compared.
+ *
+ * @author Christian Bremer
+ */
+public enum CsvColumnType {
+
+  /**
+   * The values are compared as strings (default).
+   */
+  STRING,
+
+  /**
+   * The values are parsed and compared as longs.
+   */
+  LONG,
+
+  /**
+   * The values are parsed and compared as decimal numbers (a dot is the decimal separator).
+   */
+  DECIMAL,
+
+  /**
+   * The values are parsed and compared as dates (ISO-8601 or the date formatter of the sorter).
+   */
+  DATE
+
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.csv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bremersee.comparator.AbstractStreamingSorter;
+import org.bremersee.comparator.ExternalSorter;
+
+/**
+ * The CSV sorter sorts UTF-8 encoded CSV data with a header line by comparator fields, whose field
+ * names are column names of the header.
+ *
+ * <p>The records are kept as raw bytes, only the fields of the sort columns are parsed from them.
+ * The values are compared as strings, unless a column type is specified (see
+ * {@link CsvColumnType}), so that for example {@code 9} is less than {@code 10} in a
+ * {@link CsvColumnType#LONG} column. An empty field is {@code null}, a quoted empty field is an
+ * empty string. Fields can be quoted with double quotes, so they can contain delimiters, line
+ * breaks and (doubled) quotes. The records are sorted with an {@link ExternalSorter}, so they are
+ * spilled to disk, if they exceed the run size or the memory limit.
+ *
+ * <pre>
+ * CsvSorter sorter = CsvSorter.builder()
+ *     .comparatorFields(new WellKnownTextConverter().convert("lastName|amount,desc"))
+ *     .columnType("amount", CsvColumnType.DECIMAL)
+ *     .memoryLimit(512L * 1024L * 1024L)
+ *     .build();
+ * sorter.sort(input, output);
+ * </pre>
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class CsvSorter extends AbstractStreamingSorter {
+
+  private static final byte QUOTE = '"';
+
+  private static final byte[] BYTE_ORDER_MARK = {(byte) 0xef, (byte) 0xbb, (byte) 0xbf};
+
+  private final byte delimiter;
+
+  private final DateTimeFormatter dateFormatter;
+
+  private final String[] sortColumns;
+
+  private final CsvColumnType[] sortColumnTypes;
+
+  private CsvSorter(Builder builder) {
+    super(builder);
+    this.delimiter = (byte) builder.delimiter;
+    this.dateFormatter = builder.dateFormatter;
+    Map<String, Integer> indexes = getSortFieldIndexes();
+    this.sortColumns = new String[indexes.size()];
+    this.sortColumnTypes = new CsvColumnType[indexes.size()];
+    for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+      sortColumns[entry.getValue()] = entry.getKey();
+      sortColumnTypes[entry.getValue()] = builder.columnTypes
+          .getOrDefault(entry.getKey(), CsvColumnType.STRING);
+    }
+  }
+
+  /**
+   * Creates a new builder of a CSV sorter.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Reads the header and the records from the given input and writes the header and the records
+   * in sorted order to the given output. The records are terminated by the line terminator of the
+   * header.
+   *
+   * @param input  the input
+   * @param output the output
+   * @throws IOException if reading, spilling or writing fails or a value cannot be parsed
+   * @throws IllegalArgumentException if a sort column does not exist in the header
+   */
+  @Override
+  public void sort(InputStream input, OutputStream output) throws IOException {
+    RecordReader reader = new RecordReader(new BufferedInputStream(input));
+    byte[] header = reader.readRecord();
+    if (header == null) {
+      return;
+    }
+    byte[] lineTerminator = reader.lineTerminator;
+    int[] columns = columns(header);
+    boolean[] wanted = new boolean[Arrays.stream(columns).max().orElse(0) + 1];
+    for (int column : columns) {
+      wanted[column] = true;
+    }
+    OutputStream out = new BufferedOutputStream(output);
+    out.write(header);
+    out.write(lineTerminator);
+    sort(new RawRecordIterator() {
+      @Override
+      protected RawRecord readNext() throws IOException {
+        byte[] bytes = reader.readRecord();
+        return bytes != null
+            ? new RawRecord(bytes, values(bytes, columns, wanted, reader.count))
+            : null;
+      }
+    }, record -> {
+      out.write(record.getBytes());
+      out.write(lineTerminator);
+    });
+    out.flush();
+  }
+
+  /**
+   * Finds the column numbers of the sort columns in the header.
+   */
+  private int[] columns(byte[] header) {
+    int offset = header.length >= BYTE_ORDER_MARK.length
+        && Arrays.equals(BYTE_ORDER_MARK, Arrays.copyOf(header, BYTE_ORDER_MARK.length))
+        ? BYTE_ORDER_MARK.length
+        : 0;
+    List<String> names = new ArrayList<>();
+    new FieldScanner(header, offset).forEach(Integer.MAX_VALUE, (column, text) -> names.add(text));
+    int[] columns = new int[sortColumns.length];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = names.indexOf(sortColumns[i]);
+      if (columns[i] < 0) {
+        throw new IllegalArgumentException("Column [" + sortColumns[i]
+            + "] does not exist in header " + names + ".");
+      }
+    }
+    return columns;
+  }
+
+  private Object[] values(byte[] bytes, int[] columns, boolean[] wanted, long recordNumber)
+      throws IOException {
+    String[] texts = new String[wanted.length];
+    new FieldScanner(bytes, 0).forEach(wanted.length - 1, (column, text) -> texts[column] = text,
+        wanted);
+    Object[] values = new Object[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      values[i] = value(texts[columns[i]], i, recordNumber);
+    }
+    return values;
+  }
+
+  private Object value(String text, int index, long recordNumber) throws IOException {
+    if (text == null || (text.isEmpty() && sortColumnTypes[index] != CsvColumnType.STRING)) {
+      return null;
+    }
+    try {
+      switch (sortColumnTypes[index]) {
+        case LONG:
+          return Long.parseLong(text.trim());
+        case DECIMAL:
+          return new BigDecimal(text.trim());
+        case DATE:
+          return LocalDate.parse(text.trim(), dateFormatter);
+        default:
+          return text;
+      }
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw new IOException("Value [" + text + "] of column [" + sortColumns[index]
+          + "] in record " + recordNumber + " is not of type " + sortColumnTypes[index] + ".", e);
+    }
+  }
+
+  /**
+   * Scans the fields of a record.
+   */
+  private class FieldScanner {
+
+    private final byte[] bytes;
+
+    private int position;
+
+    private FieldScanner(byte[] bytes, int position) {
+      this.bytes = bytes;
+      this.position = position;
+    }
+
+    private void forEach(int maxColumn, FieldConsumer consumer) {
+      forEach(maxColumn, consumer, null);
+    }
+
+    /**
+     * Passes the text of the fields up to the given column to the consumer. Empty unquoted fields
+     * are {@code null}. Only the fields, that are wanted (or all, if wanted is {@code null}), are
+     * decoded.
+     */
+    private void forEach(int maxColumn, FieldConsumer consumer, boolean[] wanted) {
+      for (int column = 0; column <= maxColumn && position <= bytes.length; column++) {
+        boolean decode = wanted == null || wanted[column];
+        String text;
+        if (position < bytes.length && bytes[position] == QUOTE) {
+          ByteArrayOutputStream field = new ByteArrayOutputStream();
+          int i = position + 1;
+          for (; i < bytes.length; i++) {
+            if (bytes[i] == QUOTE) {
+              if (i + 1 < bytes.length && bytes[i + 1] == QUOTE) {
+                i++;
+              } else {
+                break;
+              }
+            }
+            if (decode) {
+              field.write(bytes[i]);
+            }
+          }
+          text = decode ? field.toString(StandardCharsets.UTF_8) : null;
+          position = i + 1;
+          while (position < bytes.length && bytes[position] != delimiter) {
+            position++;
+          }
+        } else {
+          int start = position;
+          while (position < bytes.length && bytes[position] != delimiter) {
+            position++;
+          }
+          text = decode && position > start
+              ? new String(bytes, start, position - start, StandardCharsets.UTF_8)
+              : null;
+        }
+        consumer.accept(column, text);
+        position++;
+      }
+    }
+  }
+
+  private interface FieldConsumer {
+
+    void accept(int column, String text);
+  }
+
+  /**
+   * Reads the records of an input stream as bytes without the line terminator. Line breaks in
+   * quoted fields are part of the record, empty lines are skipped.
+   */
+  private static final class RecordReader {
+
+    private final InputStream in;
+
+    private byte[] record = new byte[1024];
+
+    private byte[] lineTerminator;
+
+    private long count;
+
+    private RecordReader(InputStream in) {
+      this.in = in;
+    }
+
+    private byte[] readRecord() throws IOException {
+      int length = 0;
+      boolean quoted = false;
+      int b;
+      while ((b = in.read()) >= 0) {
+        if (b == '\n' && !quoted) {
+          boolean crlf = length > 0 && record[length - 1] == '\r';
+          if (lineTerminator == null) {
+            lineTerminator = crlf ? new byte[]{'\r', '\n'} : new byte[]{'\n'};
+          }
+          if (crlf) {
+            length--;
+          }
+          if (length > 0) {
+            break;
+          }
+          continue;
+        }
+        if (b == QUOTE) {
+          quoted = !quoted;
+        }
+        if (length == record.length) {
+          record = Arrays.copyOf(record, length * 2);
+        }
+        record[length++] = (byte) b;
+      }
+      if (length == 0) {
+        return null;
+      }
+      if (lineTerminator == null) {
+        lineTerminator = new byte[]{'\n'};
+      }
+      count++;
+      return Arrays.copyOf(record, length);
+    }
+  }
+
+  /**
+   * The builder of the CSV sorter. The field names of the comparator fields are column names.
+   */
+  public static class Builder extends AbstractBuilder<Builder> {
+
+    private char delimiter = ',';
+
+    private final Map<String, CsvColumnType> columnTypes = new LinkedHashMap<>();
+
+    private DateTimeFormatter dateFormatter = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private Builder() {
+    }
+
+    @Override
+    protected Builder self() {
+      return this;
+    }
+
+    /**
+     * Sets the delimiter (default is {@code ,}).
+     *
+     * @param delimiter the delimiter (an ASCII character)
+     * @return the builder
+     */
+    public Builder delimiter(char delimiter) {
+      if (delimiter > 127 || delimiter == QUOTE || delimiter == '\r' || delimiter == '\n') {
+        throw new IllegalArgumentException("Illegal delimiter: " + delimiter);
+      }
+      this.delimiter = delimiter;
+      return this;
+    }
+
+    /**
+     * Sets the type of a column (default is {@link CsvColumnType#STRING}).
+     *
+     * @param column the column name
+     * @param type   the type
+     * @return the builder
+     */
+    public Builder columnType(String column, CsvColumnType type) {
+      if (column != null && type != null) {
+        columnTypes.put(column, type);
+      }
+      return this;
+    }
+
+    /**
+     * Sets the formatter of the {@link CsvColumnType#DATE} columns (default is ISO-8601).
+     *
+     * @param dateFormatter the date formatter
+     * @return the builder
+     */
+    public Builder dateFormatter(DateTimeFormatter dateFormatter) {
+      if (dateFormatter != null) {
+        this.dateFormatter = dateFormatter;
+      }
+      return this;
+    }
+
+    /**
+     * Builds the CSV sorter.
+     *
+     * @return the CSV sorter
+     * @throws IllegalArgumentException if the comparator fields are {@code null} or empty
+     */
+    public CsvSorter build() {
+      return new CsvSorter(this);
+    }
+  }
+
+}
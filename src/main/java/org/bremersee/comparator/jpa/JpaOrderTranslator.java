@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.jpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import org.bremersee.comparator.model.ComparatorField;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The JPA order translator transforms comparator fields into orders of the JPA criteria API, so
+ * that the sorting can be done by the database instead of in memory.
+ *
+ * <p>Only field names or paths that are registered are allowed. A field that is not registered
+ * causes an {@link IllegalArgumentException}. A field is mapped to an attribute path of the entity,
+ * whose segments are separated by dots (.).
+ *
+ * <p>The translation has the same semantics as the {@link
+ * org.bremersee.comparator.ValueComparator}: {@code ignoreCase} is only applied to attributes of
+ * type {@code String} and {@code nullIsFirst} refers to the ascending order. The criteria API has
+ * no null precedence, so the order of {@code null} values is emulated with an additional {@code
+ * CASE} expression, unless this is switched off.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class JpaOrderTranslator {
+
+  private final Map<String, String> attributePaths;
+
+  private final boolean nullHandlingEmulated;
+
+  /**
+   * Instantiates a new JPA order translator. The given fields are the allowed attribute paths.
+   *
+   * @param allowedFields the allowed fields
+   */
+  public JpaOrderTranslator(Collection<String> allowedFields) {
+    this(toIdentityMap(allowedFields), true);
+  }
+
+  /**
+   * Instantiates a new JPA order translator.
+   *
+   * @param attributePaths       the allowed fields mapped to the attribute paths of the entity
+   * @param nullHandlingEmulated specifies whether the order of {@code null} values is emulated
+   */
+  public JpaOrderTranslator(Map<String, String> attributePaths, boolean nullHandlingEmulated) {
+    this.attributePaths = attributePaths != null
+        ? Collections.unmodifiableMap(new LinkedHashMap<>(attributePaths))
+        : Collections.emptyMap();
+    this.nullHandlingEmulated = nullHandlingEmulated;
+  }
+
+  private static Map<String, String> toIdentityMap(Collection<String> fields) {
+    Map<String, String> map = new LinkedHashMap<>();
+    if (fields != null) {
+      for (String field : fields) {
+        map.put(field, field);
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Translates the given comparator fields into orders.
+   *
+   * @param comparatorFields the comparator fields (can be {@code null})
+   * @param criteriaBuilder  the criteria builder
+   * @param root             the root (or any other path) of the query
+   * @return the orders
+   * @throws IllegalArgumentException if a field is not registered
+   */
+  public List<Order> toOrders(
+      ComparatorFields comparatorFields,
+      CriteriaBuilder criteriaBuilder,
+      Path<?> root) {
+    return toOrders(comparatorFields != null ? comparatorFields.getFields() : null,
+        criteriaBuilder, root);
+  }
+
+  /**
+   * Translates the given comparator fields into orders.
+   *
+   * @param comparatorFields the comparator fields (can be {@code null})
+   * @param criteriaBuilder  the criteria builder
+   * @param root             the root (or any other path) of the query
+   * @return the orders
+   * @throws IllegalArgumentException if a field is not registered
+   */
+  public List<Order> toOrders(
+      Collection<? extends ComparatorField> comparatorFields,
+      CriteriaBuilder criteriaBuilder,
+      Path<?> root) {
+    List<Order> orders = new ArrayList<>();
+    if (comparatorFields == null) {
+      return orders;
+    }
+    for (ComparatorField comparatorField : comparatorFields) {
+      String attributePath = comparatorField != null
+          ? attributePaths.get(comparatorField.getField())
+          : null;
+      if (attributePath == null) {
+        throw new IllegalArgumentException("Field [" + (comparatorField != null
+            ? comparatorField.getField() : null) + "] is not allowed for sorting.");
+      }
+      Path<?> path = getPath(root, attributePath);
+      if (nullHandlingEmulated) {
+        boolean nullsFirst = comparatorField.isAsc() == comparatorField.isNullIsFirst();
+        Expression<Integer> nullOrder = criteriaBuilder.<Integer>selectCase()
+            .when(criteriaBuilder.isNull(path), nullsFirst ? 0 : 1)
+            .otherwise(nullsFirst ? 1 : 0);
+        orders.add(criteriaBuilder.asc(nullOrder));
+      }
+      Expression<?> expression = path;
+      if (comparatorField.isIgnoreCase() && String.class.equals(path.getJavaType())) {
+        //noinspection unchecked
+        expression = criteriaBuilder.lower((Expression<String>) path);
+      }
+      orders.add(comparatorField.isAsc()
+          ? criteriaBuilder.asc(expression)
+          : criteriaBuilder.desc(expression));
+    }
+    return orders;
+  }
+
+  private static Path<?> getPath(Path<?> root, String attributePath) {
+    Path<?> path = root;
+    for (String segment : attributePath.split("\\.")) {
+      if (!segment.trim().isEmpty()) {
+        path = path.get(segment.trim());
+      }
+    }
+    return path;
+  }
+
+}
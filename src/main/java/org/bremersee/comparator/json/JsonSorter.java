@@ -0,0 +1,292 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.bremersee.comparator.AbstractStreamingSorter;
+import org.bremersee.comparator.ExternalSorter;
+
+/**
+ * The JSON sorter sorts newline-delimited JSON (one object per line) or a JSON array of objects
+ * by comparator fields, whose field names are paths of the objects (like {@code address.city}).
+ *
+ * <p>The records are not bound to objects: a streaming parser extracts only the values of the
+ * sort fields, the raw bytes of the record are kept as payload and written unchanged to the
+ * output (the elements of a JSON array are written compactly). The records are sorted with an
+ * {@link ExternalSorter}, so they are spilled to disk, if they exceed the run size or the memory
+ * limit.
+ *
+ * <p>JSON strings are compared as strings, numbers as decimal numbers (so integral and floating
+ * point numbers can be mixed) and booleans as booleans; missing fields and JSON {@code null} are
+ * {@code null}. The values of a field should have the same type in all records. Arrays cannot be
+ * sort fields.
+ *
+ * <pre>
+ * JsonSorter sorter = JsonSorter.builder()
+ *     .comparatorFields(new WellKnownTextConverter().convert("lastName|address.city,desc"))
+ *     .memoryLimit(512L * 1024L * 1024L)
+ *     .build();
+ * sorter.sort(input, output);
+ * </pre>
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class JsonSorter extends AbstractStreamingSorter {
+
+  // the input stream of the caller is not closed, when the parser of a JSON array is closed
+  private static final JsonFactory JSON_FACTORY = new JsonFactory()
+      .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+  private static final byte[] NEW_LINE = {'\n'};
+
+  private static final byte[] SEPARATOR = {',', '\n'};
+
+  private static final byte[] ARRAY_END = {']', '\n'};
+
+  private final Map<String, Integer> indexes;
+
+  private final Set<String> objectPaths = new HashSet<>();
+
+  private JsonSorter(Builder builder) {
+    super(builder);
+    this.indexes = getSortFieldIndexes();
+    for (String path : indexes.keySet()) {
+      for (int i = path.indexOf('.'); i > 0; i = path.indexOf('.', i + 1)) {
+        objectPaths.add(path.substring(0, i));
+      }
+    }
+  }
+
+  /**
+   * Creates a new builder of a JSON sorter.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Reads newline-delimited JSON or a JSON array from the given input and writes the records in
+   * sorted order in the same format to the given output.
+   *
+   * @param input  the input
+   * @param output the output
+   * @throws IOException if reading, spilling or writing fails or the input is malformed
+   */
+  @Override
+  public void sort(InputStream input, OutputStream output) throws IOException {
+    PushbackInputStream in = new PushbackInputStream(new BufferedInputStream(input), 1);
+    int first = in.read();
+    while (first == ' ' || first == '\t' || first == '\r' || first == '\n') {
+      first = in.read();
+    }
+    if (first < 0) {
+      return;
+    }
+    in.unread(first);
+    OutputStream out = new BufferedOutputStream(output);
+    if (first == '[') {
+      sortArray(in, out);
+    } else {
+      sortLines(in, out);
+    }
+    out.flush();
+  }
+
+  private void sortLines(InputStream in, OutputStream out) throws IOException {
+    sort(new RawRecordIterator() {
+      private final LineReader reader = new LineReader(in);
+
+      @Override
+      protected RawRecord readNext() throws IOException {
+        byte[] line = reader.readLine();
+        return line != null ? record(line) : null;
+      }
+    }, record -> write(out, record.getBytes(), NEW_LINE));
+  }
+
+  private void sortArray(InputStream in, OutputStream out) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+      parser.nextToken();
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      boolean[] empty = {true};
+      out.write('[');
+      sort(new RawRecordIterator() {
+        @Override
+        protected RawRecord readNext() throws IOException {
+          if (parser.nextToken() == JsonToken.END_ARRAY) {
+            return null;
+          }
+          buffer.reset();
+          try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer)) {
+            generator.copyCurrentStructure(parser);
+          }
+          return record(buffer.toByteArray());
+        }
+      }, record -> {
+        write(out, empty[0] ? NEW_LINE : SEPARATOR, record.getBytes());
+        empty[0] = false;
+      });
+      write(out, empty[0] ? new byte[0] : NEW_LINE, ARRAY_END);
+    }
+  }
+
+  private RawRecord record(byte[] bytes) throws IOException {
+    Object[] values = new Object[indexes.size()];
+    try (JsonParser parser = JSON_FACTORY.createParser(bytes)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("JSON record is not an object: "
+            + new String(bytes, 0, Math.min(bytes.length, 100), StandardCharsets.UTF_8));
+      }
+      scan(parser, "", values);
+    }
+    return new RawRecord(bytes, values);
+  }
+
+  private void scan(JsonParser parser, String prefix, Object[] values) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String path = prefix + parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_OBJECT) {
+        if (objectPaths.contains(path)) {
+          scan(parser, path + '.', values);
+        } else {
+          parser.skipChildren();
+        }
+      } else if (token == JsonToken.START_ARRAY) {
+        parser.skipChildren();
+      } else {
+        Integer index = indexes.get(path);
+        if (index != null) {
+          values[index] = value(parser, token);
+        }
+      }
+    }
+  }
+
+  private static Object value(JsonParser parser, JsonToken token) throws IOException {
+    switch (token) {
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDecimalValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      default:
+        return null;
+    }
+  }
+
+  private static void write(OutputStream out, byte[] bytes1, byte[] bytes2) throws IOException {
+    out.write(bytes1);
+    out.write(bytes2);
+  }
+
+  /**
+   * Reads the non-blank lines of an input stream as bytes without the line terminator.
+   */
+  private static final class LineReader {
+
+    private final InputStream in;
+
+    private byte[] line = new byte[1024];
+
+    private LineReader(InputStream in) {
+      this.in = in;
+    }
+
+    private byte[] readLine() throws IOException {
+      int length = 0;
+      int b;
+      while ((b = in.read()) >= 0) {
+        if (b == '\n') {
+          if (isBlank(length)) {
+            length = 0;
+            continue;
+          }
+          break;
+        }
+        if (length == line.length) {
+          line = Arrays.copyOf(line, length * 2);
+        }
+        line[length++] = (byte) b;
+      }
+      if (isBlank(length)) {
+        return null;
+      }
+      if (line[length - 1] == '\r') {
+        length--;
+      }
+      return Arrays.copyOf(line, length);
+    }
+
+    private boolean isBlank(int length) {
+      for (int i = 0; i < length; i++) {
+        if (line[i] != ' ' && line[i] != '\t' && line[i] != '\r') {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * The builder of the JSON sorter. The field names of the comparator fields are paths of the JSON
+   * objects.
+   */
+  public static class Builder extends AbstractBuilder<Builder> {
+
+    private Builder() {
+    }
+
+    @Override
+    protected Builder self() {
+      return this;
+    }
+
+    /**
+     * Builds the JSON sorter.
+     *
+     * @return the JSON sorter
+     * @throws IllegalArgumentException if the comparator fields are {@code null} or empty
+     */
+    public JsonSorter build() {
+      return new JsonSorter(this);
+    }
+  }
+
+}
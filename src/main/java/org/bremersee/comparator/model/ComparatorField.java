@@ -190,6 +190,17 @@ public class ComparatorField {
         + nullIsFirst;
   }
 
+  /**
+   * Returns an immutable and interned copy of this field ordering description. The copy caches
+   * its hash code and its well known text.
+   *
+   * @return the immutable comparator field
+   * @see ImmutableComparatorField#copyOf(ComparatorField)
+   */
+  public ImmutableComparatorField freeze() {
+    return ImmutableComparatorField.copyOf(this);
+  }
+
   @Override
   public String toString() {
     return toWkt();
@@ -212,7 +223,24 @@ public class ComparatorField {
 
   @Override
   public int hashCode() {
-    return Objects.hash(field, asc, ignoreCase, nullIsFirst);
+    return hashCode(field, asc, ignoreCase, nullIsFirst);
+  }
+
+  /**
+   * Calculates the hash code of a field ordering description without boxing. The result is the
+   * same as {@code Objects.hash(field, asc, ignoreCase, nullIsFirst)}.
+   *
+   * @param field the field name or path
+   * @param asc the ascending flag
+   * @param ignoreCase the ignore case flag
+   * @param nullIsFirst the null is first flag
+   * @return the hash code
+   */
+  static int hashCode(String field, boolean asc, boolean ignoreCase, boolean nullIsFirst) {
+    int result = 31 + (field != null ? field.hashCode() : 0);
+    result = 31 * result + Boolean.hashCode(asc);
+    result = 31 * result + Boolean.hashCode(ignoreCase);
+    return 31 * result + Boolean.hashCode(nullIsFirst);
   }
 
 }
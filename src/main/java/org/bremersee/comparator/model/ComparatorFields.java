@@ -24,7 +24,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -89,9 +88,25 @@ public class ComparatorFields {
    * @return the well known text
    */
   public String toWkt() {
-    return fields.stream()
-        .map(ComparatorField::toWkt)
-        .collect(Collectors.joining("|"));
+    StringBuilder sb = new StringBuilder();
+    for (ComparatorField field : fields) {
+      if (sb.length() > 0) {
+        sb.append('|');
+      }
+      sb.append(field.toWkt());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns an immutable and interned copy of this list of field ordering descriptions. The copy
+   * caches its hash code and its well known text, so it can be used as a cache key.
+   *
+   * @return the immutable comparator fields
+   * @see ImmutableComparatorFields#copyOf(ComparatorFields)
+   */
+  public ImmutableComparatorFields freeze() {
+    return ImmutableComparatorFields.copyOf(this);
   }
 
   @Override
@@ -113,7 +128,7 @@ public class ComparatorFields {
 
   @Override
   public int hashCode() {
-    return Objects.hash(fields);
+    return 31 + fields.hashCode();
   }
 
 }
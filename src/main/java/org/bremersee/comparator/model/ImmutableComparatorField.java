@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.model;
+
+import javax.xml.bind.annotation.XmlTransient;
+
+/**
+ * An immutable comparator field. The hash code and the well known text are calculated once on
+ * creation. Instances are interned, so that equal field ordering descriptions share one instance.
+ *
+ * <p>It is serialized exactly like a {@link ComparatorField}.
+ *
+ * @author Christian Bremer
+ */
+@XmlTransient
+public final class ImmutableComparatorField extends ComparatorField {
+
+  private static final WeakInterner<ImmutableComparatorField> INTERNER = new WeakInterner<>();
+
+  @XmlTransient
+  private final transient String wkt;
+
+  @XmlTransient
+  private final transient int hash;
+
+  private ImmutableComparatorField(
+      String field,
+      boolean asc,
+      boolean ignoreCase,
+      boolean nullIsFirst) {
+    super(field, asc, ignoreCase, nullIsFirst);
+    this.wkt = super.toWkt();
+    this.hash = super.hashCode();
+  }
+
+  /**
+   * Returns the interned immutable comparator field with the given values.
+   *
+   * @param field the field name or path (can be {@code null})
+   * @param asc {@code true} for an ascending order, {@code false} for a descending order
+   * @param ignoreCase {@code true} for a case insensitive order,  {@code false} for a case
+   *     sensitive order
+   * @param nullIsFirst specifies the order of {@code null} values
+   * @return the immutable comparator field
+   */
+  public static ImmutableComparatorField of(
+      String field,
+      boolean asc,
+      boolean ignoreCase,
+      boolean nullIsFirst) {
+    return copyOf(new ComparatorField(field, asc, ignoreCase, nullIsFirst));
+  }
+
+  /**
+   * Returns the interned immutable copy of the given comparator field.
+   *
+   * @param comparatorField the comparator field (cannot be {@code null})
+   * @return the immutable comparator field
+   */
+  public static ImmutableComparatorField copyOf(ComparatorField comparatorField) {
+    if (comparatorField == null) {
+      throw new IllegalArgumentException("Comparator field must not be null.");
+    }
+    return INTERNER.intern(comparatorField, () -> new ImmutableComparatorField(
+        comparatorField.getField(),
+        comparatorField.isAsc(),
+        comparatorField.isIgnoreCase(),
+        comparatorField.isNullIsFirst()));
+  }
+
+  @Override
+  public ImmutableComparatorField freeze() {
+    return this;
+  }
+
+  @Override
+  public String toWkt() {
+    return wkt;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+}
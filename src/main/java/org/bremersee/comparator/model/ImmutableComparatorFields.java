@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.xml.bind.annotation.XmlTransient;
+
+/**
+ * An immutable list of comparator fields. The hash code and the well known text are calculated
+ * once on creation, so it can be used as key of a cache and it can be logged cheaply. Instances
+ * are interned, so that equal specifications share one instance.
+ *
+ * <p>It is serialized exactly like {@link ComparatorFields}.
+ *
+ * @author Christian Bremer
+ */
+@XmlTransient
+public final class ImmutableComparatorFields extends ComparatorFields {
+
+  private static final WeakInterner<ImmutableComparatorFields> INTERNER = new WeakInterner<>();
+
+  /**
+   * The empty immutable comparator fields.
+   */
+  public static final ImmutableComparatorFields EMPTY = copyOf(new ComparatorFields());
+
+  @XmlTransient
+  private final transient List<ComparatorField> immutableFields;
+
+  @XmlTransient
+  private final transient String wkt;
+
+  @XmlTransient
+  private final transient int hash;
+
+  private ImmutableComparatorFields(List<ImmutableComparatorField> fields) {
+    super(fields);
+    this.immutableFields = Collections.unmodifiableList(new ArrayList<>(fields));
+    this.wkt = super.toWkt();
+    this.hash = super.hashCode();
+  }
+
+  /**
+   * Returns the interned immutable list of the given comparator fields.
+   *
+   * @param fields the comparator fields
+   * @return the immutable comparator fields
+   */
+  public static ImmutableComparatorFields of(ComparatorField... fields) {
+    return copyOf(fields != null ? Arrays.asList(fields) : null);
+  }
+
+  /**
+   * Returns the interned immutable copy of the given comparator fields.
+   *
+   * @param fields the comparator fields (can be {@code null})
+   * @return the immutable comparator fields
+   */
+  public static ImmutableComparatorFields copyOf(Collection<? extends ComparatorField> fields) {
+    return copyOf(new ComparatorFields(fields));
+  }
+
+  /**
+   * Returns the interned immutable copy of the given comparator fields.
+   *
+   * @param comparatorFields the comparator fields (can be {@code null})
+   * @return the immutable comparator fields
+   */
+  public static ImmutableComparatorFields copyOf(ComparatorFields comparatorFields) {
+    ComparatorFields probe = comparatorFields != null ? comparatorFields : new ComparatorFields();
+    return INTERNER.intern(probe, () -> {
+      List<ImmutableComparatorField> fields = new ArrayList<>(probe.getFields().size());
+      for (ComparatorField field : probe.getFields()) {
+        fields.add(ImmutableComparatorField.copyOf(field));
+      }
+      return new ImmutableComparatorFields(fields);
+    });
+  }
+
+  /**
+   * Gets the unmodifiable list of comparator fields. All elements are instances of {@link
+   * ImmutableComparatorField}.
+   *
+   * @return the unmodifiable list of comparator fields
+   */
+  @Override
+  public List<ComparatorField> getFields() {
+    return immutableFields;
+  }
+
+  @Override
+  public ImmutableComparatorFields freeze() {
+    return this;
+  }
+
+  @Override
+  public String toWkt() {
+    return wkt;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+}
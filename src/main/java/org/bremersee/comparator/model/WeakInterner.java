@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.model;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A simple interner that holds its canonical instances weakly, so that instances which are no
+ * longer used elsewhere can be garbage collected.
+ *
+ * @param <T> the type of the interned instances
+ * @author Christian Bremer
+ */
+final class WeakInterner<T> {
+
+  private final Map<Object, WeakReference<T>> instances = new WeakHashMap<>();
+
+  /**
+   * Returns the canonical instance that is equal to the given probe. If there is no such instance,
+   * the factory is called to create it.
+   *
+   * <p>The probe must be equal to the instance that is created by the factory and it must have
+   * the same hash code.
+   *
+   * @param probe the probe
+   * @param factory the factory that creates the canonical instance
+   * @return the canonical instance
+   */
+  synchronized T intern(Object probe, Supplier<T> factory) {
+    WeakReference<T> reference = instances.get(probe);
+    T instance = reference != null ? reference.get() : null;
+    if (instance == null) {
+      instance = factory.get();
+      instances.put(instance, new WeakReference<>(instance));
+    }
+    return instance;
+  }
+
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2015-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.SortedView;
+import org.bremersee.comparator.ValueExtractor;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.model.ImmutableComparatorFields;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.PagingAndSortingRepository;
+
+/**
+ * An in-memory repository that answers {@link #findAll(Sort)} and {@link #findAll(Pageable)} from
+ * maintained sorted indexes instead of sorting all entities on each request.
+ *
+ * <p>The {@code Sort} of a request is transformed into comparator fields (see {@link
+ * ComparatorSpringUtils#fromSort(Sort)}). A sorted index (a {@link SortedView}) is created lazily,
+ * when the same sort order has been requested {@code indexThreshold} times. Until then the
+ * entities are sorted per request. At most {@code maxIndexes} indexes are kept, the least recently
+ * used one is evicted. All indexes are updated on each write by binary search, so a page is just a
+ * slice of an index.
+ *
+ * <p>The repository is thread safe. Reads are executed concurrently, writes exclusively.
+ *
+ * @param <T>  the type of the entities
+ * @param <ID> the type of the ids
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class InMemoryPagingAndSortingRepository<T, ID>
+    implements PagingAndSortingRepository<T, ID> {
+
+  /**
+   * The default maximum number of sorted indexes.
+   */
+  public static final int DEFAULT_MAX_INDEXES = 8;
+
+  /**
+   * The default number of requests of a sort order after which an index is created.
+   */
+  public static final int DEFAULT_INDEX_THRESHOLD = 2;
+
+  private final Function<? super T, ? extends ID> idFunction;
+
+  private final ValueExtractor valueExtractor;
+
+  private final int maxIndexes;
+
+  private final int indexThreshold;
+
+  private final Map<ID, T> entities = new LinkedHashMap<>();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final LinkedHashMap<ComparatorFields, SortedView<T>> indexes;
+
+  private final LinkedHashMap<ComparatorFields, Integer> requestCounts;
+
+  /**
+   * Instantiates a new in-memory paging and sorting repository.
+   *
+   * @param idFunction the function that returns the id of an entity
+   */
+  public InMemoryPagingAndSortingRepository(Function<? super T, ? extends ID> idFunction) {
+    this(idFunction, DEFAULT_MAX_INDEXES, DEFAULT_INDEX_THRESHOLD, null);
+  }
+
+  /**
+   * Instantiates a new in-memory paging and sorting repository.
+   *
+   * @param idFunction     the function that returns the id of an entity
+   * @param maxIndexes     the maximum number of sorted indexes (if it is zero, no index is
+   *                       created)
+   * @param indexThreshold the number of requests of a sort order after which an index is created
+   * @param valueExtractor the value extractor that is used for sorting (can be {@code null})
+   */
+  public InMemoryPagingAndSortingRepository(
+      Function<? super T, ? extends ID> idFunction,
+      int maxIndexes,
+      int indexThreshold,
+      ValueExtractor valueExtractor) {
+    if (idFunction == null) {
+      throw new IllegalArgumentException("Id function must not be null.");
+    }
+    if (maxIndexes < 0 || indexThreshold < 1) {
+      throw new IllegalArgumentException("Max indexes must not be negative and index threshold "
+          + "must be greater than zero.");
+    }
+    this.idFunction = idFunction;
+    this.maxIndexes = maxIndexes;
+    this.indexThreshold = indexThreshold;
+    this.valueExtractor = valueExtractor;
+    this.indexes = new LinkedHashMap<ComparatorFields, SortedView<T>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ComparatorFields, SortedView<T>> eldest) {
+        return size() > InMemoryPagingAndSortingRepository.this.maxIndexes;
+      }
+    };
+    this.requestCounts = new LinkedHashMap<ComparatorFields, Integer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ComparatorFields, Integer> eldest) {
+        return size() > 4 * Math.max(InMemoryPagingAndSortingRepository.this.maxIndexes, 1);
+      }
+    };
+  }
+
+  /**
+   * Returns the comparator fields of the indexes that are currently maintained in the order of
+   * their last usage (the least recently used first).
+   *
+   * @return the comparator fields of the indexes
+   */
+  public List<ComparatorFields> getIndexedComparatorFields() {
+    synchronized (indexes) {
+      return new ArrayList<>(indexes.keySet());
+    }
+  }
+
+  @Override
+  public <S extends T> S save(S entity) {
+    if (entity == null) {
+      throw new IllegalArgumentException("Entity must not be null.");
+    }
+    ID id = getId(entity);
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      T old = entities.put(id, entity);
+      for (SortedView<T> index : indexes()) {
+        if (old == entity) {
+          index.reposition(entity);
+        } else {
+          if (old != null) {
+            index.remove(old);
+          }
+          index.add(entity);
+        }
+      }
+      return entity;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public <S extends T> Iterable<S> saveAll(Iterable<S> entities) {
+    List<S> result = new ArrayList<>();
+    if (entities != null) {
+      for (S entity : entities) {
+        result.add(save(entity));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Optional<T> findById(ID id) {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      return Optional.ofNullable(entities.get(id));
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean existsById(ID id) {
+    return findById(id).isPresent();
+  }
+
+  @Override
+  public Iterable<T> findAll() {
+    return findAll(Sort.unsorted());
+  }
+
+  @Override
+  public Iterable<T> findAllById(Iterable<ID> ids) {
+    List<T> result = new ArrayList<>();
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      if (ids != null) {
+        for (ID id : ids) {
+          T entity = entities.get(id);
+          if (entity != null) {
+            result.add(entity);
+          }
+        }
+      }
+      return result;
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public long count() {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      return entities.size();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public void deleteById(ID id) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      T old = entities.remove(id);
+      if (old != null) {
+        for (SortedView<T> index : indexes()) {
+          index.remove(old);
+        }
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void delete(T entity) {
+    if (entity != null) {
+      deleteById(getId(entity));
+    }
+  }
+
+  /**
+   * Deletes the entities with the given ids.
+   *
+   * @param ids the ids
+   */
+  public void deleteAllById(Iterable<? extends ID> ids) {
+    if (ids != null) {
+      for (ID id : ids) {
+        deleteById(id);
+      }
+    }
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends T> entities) {
+    if (entities != null) {
+      for (T entity : entities) {
+        delete(entity);
+      }
+    }
+  }
+
+  @Override
+  public void deleteAll() {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      entities.clear();
+      for (SortedView<T> index : indexes()) {
+        index.clear();
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public Iterable<T> findAll(Sort sort) {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      return new ArrayList<>(sorted(sort));
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public Page<T> findAll(Pageable pageable) {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      if (pageable == null || pageable.isUnpaged()) {
+        Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+        return new PageImpl<>(new ArrayList<>(sorted(sort)));
+      }
+      List<T> sorted = sorted(pageable.getSort());
+      long offset = Math.min(pageable.getOffset(), sorted.size());
+      int toIndex = (int) Math.min(offset + pageable.getPageSize(), sorted.size());
+      List<T> content = new ArrayList<>(sorted.subList((int) offset, toIndex));
+      return new PageImpl<>(content, pageable, sorted.size());
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  private ID getId(T entity) {
+    ID id = idFunction.apply(entity);
+    if (id == null) {
+      throw new IllegalArgumentException("Id of entity [" + entity + "] must not be null.");
+    }
+    return id;
+  }
+
+  private List<SortedView<T>> indexes() {
+    synchronized (indexes) {
+      return new ArrayList<>(indexes.values());
+    }
+  }
+
+  /**
+   * Returns the sorted entities. Must be called with the read lock.
+   */
+  private List<T> sorted(Sort sort) {
+    ComparatorFields fields = ImmutableComparatorFields
+        .copyOf(ComparatorSpringUtils.fromSort(sort));
+    if (fields.getFields().isEmpty()) {
+      return new ArrayList<>(entities.values());
+    }
+    SortedView<T> index;
+    boolean createIndex;
+    synchronized (indexes) {
+      index = indexes.get(fields);
+      int count = requestCounts.merge(fields, 1, Integer::sum);
+      createIndex = index == null && maxIndexes > 0 && count >= indexThreshold;
+    }
+    if (index != null) {
+      return index.asList();
+    }
+    if (createIndex) {
+      index = new SortedView<>(fields, valueExtractor);
+      index.addAll(entities.values());
+      synchronized (indexes) {
+        SortedView<T> existing = indexes.putIfAbsent(fields, index);
+        if (existing != null) {
+          index = existing;
+        }
+      }
+      return index.asList();
+    }
+    List<T> list = new ArrayList<>(entities.values());
+    list.sort(ComparatorBuilder.builder().addAll(fields, valueExtractor).build());
+    return list;
+  }
+
+}
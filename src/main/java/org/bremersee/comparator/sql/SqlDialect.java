@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.sql;
+
+/**
+ * The SQL dialect specifies how the order of {@code null} values is expressed.
+ *
+ * @author Christian Bremer
+ */
+public enum SqlDialect {
+
+  /**
+   * Standard SQL with {@code NULLS FIRST} and {@code NULLS LAST}.
+   */
+  ANSI(true),
+
+  /**
+   * PostgreSQL.
+   */
+  POSTGRESQL(true),
+
+  /**
+   * Oracle.
+   */
+  ORACLE(true),
+
+  /**
+   * H2.
+   */
+  H2(true),
+
+  /**
+   * HSQLDB.
+   */
+  HSQLDB(true),
+
+  /**
+   * DB2.
+   */
+  DB2(true),
+
+  /**
+   * MySQL (the order of {@code null} values is emulated).
+   */
+  MYSQL(false),
+
+  /**
+   * MariaDB (the order of {@code null} values is emulated).
+   */
+  MARIADB(false),
+
+  /**
+   * Microsoft SQL Server (the order of {@code null} values is emulated).
+   */
+  SQL_SERVER(false);
+
+  private final boolean nullsOrderingSupported;
+
+  SqlDialect(boolean nullsOrderingSupported) {
+    this.nullsOrderingSupported = nullsOrderingSupported;
+  }
+
+  /**
+   * Specifies whether the dialect supports {@code NULLS FIRST} and {@code NULLS LAST}. If not, the
+   * order of {@code null} values is emulated with an additional {@code CASE} expression.
+   *
+   * @return {@code true} if {@code NULLS FIRST} and {@code NULLS LAST} are supported, otherwise
+   *     {@code false}
+   */
+  public boolean isNullsOrderingSupported() {
+    return nullsOrderingSupported;
+  }
+
+}
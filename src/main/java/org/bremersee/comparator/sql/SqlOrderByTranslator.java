@@ -0,0 +1,238 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.sql;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.bremersee.comparator.model.ComparatorField;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * The SQL order by translator transforms comparator fields into an SQL {@code ORDER BY} clause,
+ * so that the sorting can be done by the database instead of in memory.
+ *
+ * <p>Only field names or paths that are registered with a column expression are allowed. The
+ * comparator fields usually come from a request (as well known text), so this white list prevents
+ * SQL injection. A field that is not registered causes an {@link IllegalArgumentException}.
+ *
+ * <p>The translation has the same semantics as the {@link
+ * org.bremersee.comparator.ValueComparator}:
+ * <ul>
+ * <li>{@code ignoreCase} is only applied to text columns (by {@code LOWER(column)}),</li>
+ * <li>{@code nullIsFirst} refers to the ascending order, so in a descending order {@code null}
+ * values are last, if {@code nullIsFirst} is {@code true}.</li>
+ * </ul>
+ *
+ * <p>For example:
+ * <pre>
+ * SqlOrderByTranslator translator = SqlOrderByTranslator.builder()
+ *     .dialect(SqlDialect.POSTGRESQL)
+ *     .textColumn("lastName", "p.last_name")
+ *     .column("age", "p.age")
+ *     .build();
+ * // ORDER BY LOWER(p.last_name) ASC NULLS LAST, p.age DESC NULLS FIRST
+ * String orderBy = translator.toOrderBy(new WellKnownTextConverter().convert("lastName|age,desc"));
+ * </pre>
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("WeakerAccess")
+public class SqlOrderByTranslator {
+
+  private final SqlDialect dialect;
+
+  private final Map<String, Column> columns;
+
+  private SqlOrderByTranslator(SqlDialect dialect, Map<String, Column> columns) {
+    this.dialect = dialect;
+    this.columns = Collections.unmodifiableMap(new LinkedHashMap<>(columns));
+  }
+
+  /**
+   * Creates a new builder.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Gets the dialect.
+   *
+   * @return the dialect
+   */
+  public SqlDialect getDialect() {
+    return dialect;
+  }
+
+  /**
+   * Translates the given comparator fields into an {@code ORDER BY} clause.
+   *
+   * @param comparatorFields the comparator fields (can be {@code null})
+   * @return the {@code ORDER BY} clause or an empty string, if there are no comparator fields
+   * @throws IllegalArgumentException if a field is not registered
+   */
+  public String toOrderBy(ComparatorFields comparatorFields) {
+    return toOrderBy(comparatorFields != null ? comparatorFields.getFields() : null);
+  }
+
+  /**
+   * Translates the given comparator fields into an {@code ORDER BY} clause.
+   *
+   * @param comparatorFields the comparator fields (can be {@code null})
+   * @return the {@code ORDER BY} clause or an empty string, if there are no comparator fields
+   * @throws IllegalArgumentException if a field is not registered
+   */
+  public String toOrderBy(Collection<? extends ComparatorField> comparatorFields) {
+    String sortSpecifications = toSortSpecifications(comparatorFields);
+    return sortSpecifications.isEmpty() ? "" : "ORDER BY " + sortSpecifications;
+  }
+
+  /**
+   * Translates the given comparator fields into a comma separated list of sort specifications
+   * (the {@code ORDER BY} clause without the key words).
+   *
+   * @param comparatorFields the comparator fields (can be {@code null})
+   * @return the sort specifications (can be empty)
+   * @throws IllegalArgumentException if a field is not registered
+   */
+  public String toSortSpecifications(Collection<? extends ComparatorField> comparatorFields) {
+    if (comparatorFields == null) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder();
+    for (ComparatorField comparatorField : comparatorFields) {
+      Column column = comparatorField != null ? columns.get(comparatorField.getField()) : null;
+      if (column == null) {
+        throw new IllegalArgumentException("Field [" + (comparatorField != null
+            ? comparatorField.getField() : null) + "] is not allowed for sorting.");
+      }
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      appendSortSpecification(sb, column, comparatorField);
+    }
+    return sb.toString();
+  }
+
+  private void appendSortSpecification(
+      StringBuilder sb,
+      Column column,
+      ComparatorField comparatorField) {
+    boolean nullsFirst = comparatorField.isAsc() == comparatorField.isNullIsFirst();
+    if (!dialect.isNullsOrderingSupported()) {
+      sb.append("CASE WHEN ").append(column.expression).append(" IS NULL THEN ")
+          .append(nullsFirst ? "0 ELSE 1" : "1 ELSE 0").append(" END, ");
+    }
+    if (column.text && comparatorField.isIgnoreCase()) {
+      sb.append("LOWER(").append(column.expression).append(')');
+    } else {
+      sb.append(column.expression);
+    }
+    sb.append(comparatorField.isAsc() ? " ASC" : " DESC");
+    if (dialect.isNullsOrderingSupported()) {
+      sb.append(nullsFirst ? " NULLS FIRST" : " NULLS LAST");
+    }
+  }
+
+  private static final class Column {
+
+    private final String expression;
+
+    private final boolean text;
+
+    private Column(String expression, boolean text) {
+      this.expression = expression;
+      this.text = text;
+    }
+  }
+
+  /**
+   * The builder of the SQL order by translator.
+   */
+  public static class Builder {
+
+    private SqlDialect dialect = SqlDialect.ANSI;
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the dialect (default is {@link SqlDialect#ANSI}).
+     *
+     * @param dialect the dialect
+     * @return the builder
+     */
+    public Builder dialect(SqlDialect dialect) {
+      this.dialect = dialect != null ? dialect : SqlDialect.ANSI;
+      return this;
+    }
+
+    /**
+     * Registers a column that is not a text column ({@code ignoreCase} is not applied).
+     *
+     * @param field            the field name or path of the comparator field
+     * @param columnExpression the column expression (e. g. {@code p.age})
+     * @return the builder
+     */
+    public Builder column(String field, String columnExpression) {
+      return column(field, columnExpression, false);
+    }
+
+    /**
+     * Registers a text column ({@code ignoreCase} is applied).
+     *
+     * @param field            the field name or path of the comparator field
+     * @param columnExpression the column expression (e. g. {@code p.last_name})
+     * @return the builder
+     */
+    public Builder textColumn(String field, String columnExpression) {
+      return column(field, columnExpression, true);
+    }
+
+    /**
+     * Registers a column.
+     *
+     * @param field            the field name or path of the comparator field
+     * @param columnExpression the column expression
+     * @param text             specifies whether the column is a text column
+     * @return the builder
+     */
+    public Builder column(String field, String columnExpression, boolean text) {
+      if (field == null || columnExpression == null || columnExpression.trim().isEmpty()) {
+        throw new IllegalArgumentException("Field and column expression must be present.");
+      }
+      columns.put(field, new Column(columnExpression.trim(), text));
+      return this;
+    }
+
+    /**
+     * Builds the SQL order by translator.
+     *
+     * @return the SQL order by translator
+     */
+    public SqlOrderByTranslator build() {
+      return new SqlOrderByTranslator(dialect, columns);
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+import org.bremersee.comparator.AbstractStreamingSorter.RawRecord;
+import org.bremersee.comparator.AbstractStreamingSorter.RawRecordIterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The abstract streaming sorter tests.
+ *
+ * @author Christian Bremer
+ */
+class AbstractStreamingSorterTests {
+
+  /**
+   * Test that the raw record iterator reads the end of the input only once.
+   */
+  @Test
+  void testRawRecordIterator() {
+    int[] reads = {0};
+    RawRecordIterator iterator = new RawRecordIterator() {
+      @Override
+      protected RawRecord readNext() {
+        return reads[0]++ == 0 ? new RawRecord(new byte[]{1}, new Object[]{"a"}) : null;
+      }
+    };
+    assertTrue(iterator.hasNext());
+    assertTrue(iterator.hasNext());
+    assertEquals("a", iterator.next().getValue(0));
+    assertFalse(iterator.hasNext());
+    assertFalse(iterator.hasNext());
+    assertThrows(NoSuchElementException.class, iterator::next);
+    assertEquals(2, reads[0]);
+  }
+
+  /**
+   * Test that I/O exceptions are wrapped into unchecked exceptions.
+   */
+  @Test
+  void testRawRecordIteratorWithIoException() {
+    RawRecordIterator iterator = new RawRecordIterator() {
+      @Override
+      protected RawRecord readNext() throws IOException {
+        throw new IOException("Test");
+      }
+    };
+    assertThrows(UncheckedIOException.class, iterator::hasNext);
+  }
+
+}
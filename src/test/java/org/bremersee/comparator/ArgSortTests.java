@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.bremersee.comparator.testmodel.TestData.persons;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The arg sort tests.
+ *
+ * @author Christian Bremer
+ */
+class ArgSortTests {
+
+  /**
+   * Test that the permutation is the stable sort order.
+   */
+  @Test
+  void testArgsort() {
+    List<Person> persons = persons(1000, 43L);
+    List<Person> backup = new ArrayList<>(persons);
+    for (String wkt : new String[]{"lastName", "age,desc,true,true|lastName", "id,desc"}) {
+      List<Person> expected = new ArrayList<>(persons);
+      expected.sort(ComparatorBuilder.builder().fromWellKnownText(wkt).build());
+      int[] permutation = ArgSort.argsort(persons, fields(wkt));
+      assertEquals(expected, ArgSort.permuted(persons, permutation));
+      assertArrayEquals(expected.toArray(),
+          ArgSort.apply(persons.toArray(new Person[0]), permutation));
+      assertArrayEquals(permutation, ArgSort.argsort(persons.toArray(), fields(wkt)));
+    }
+    assertEquals(backup, persons);
+  }
+
+  /**
+   * Test the inverse permutation.
+   */
+  @Test
+  void testInverse() {
+    List<Person> persons = persons(100, 43L);
+    int[] permutation = ArgSort.argsort(persons, fields("age|id"));
+    int[] inverse = ArgSort.inverse(permutation);
+    List<Person> sorted = ArgSort.permuted(persons, permutation);
+    for (int i = 0; i < persons.size(); i++) {
+      assertEquals(persons.get(i), sorted.get(inverse[i]));
+    }
+  }
+
+  /**
+   * Test sorted, empty and invalid input.
+   */
+  @Test
+  void testEdgeCases() {
+    List<Person> persons = persons(50, 43L);
+    persons.sort(ComparatorBuilder.builder().fromWellKnownText("id").build());
+    assertArrayEquals(ArgSort.identity(50), ArgSort.argsort(persons, fields("id")));
+    assertArrayEquals(new int[0], ArgSort.argsort((List<?>) null, fields("id")));
+    assertArrayEquals(new int[0], ArgSort.argsort(Collections.emptyList(), fields("id")));
+    assertThrows(IllegalArgumentException.class,
+        () -> ArgSort.permuted(persons, new int[3]));
+    assertThrows(IllegalArgumentException.class,
+        () -> ArgSort.apply(new Person[2], new int[3]));
+    assertThrows(IllegalArgumentException.class,
+        () -> ArgSort.argsort(persons, new ComparatorFields()));
+  }
+
+}
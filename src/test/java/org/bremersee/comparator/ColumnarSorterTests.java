@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.bremersee.comparator.testmodel.TestData.persons;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The columnar sorter tests.
+ *
+ * @author Christian Bremer
+ */
+class ColumnarSorterTests {
+
+  private static ColumnarSorter columns(List<Person> persons) {
+    long[] ids = new long[persons.size()];
+    String[] lastNames = new String[persons.size()];
+    long[] ages = new long[persons.size()];
+    BitSet agesNulls = new BitSet();
+    for (int i = 0; i < persons.size(); i++) {
+      Person person = persons.get(i);
+      ids[i] = person.getId();
+      lastNames[i] = person.getLastName();
+      if (person.getAge() == null) {
+        agesNulls.set(i);
+      } else {
+        ages[i] = person.getAge();
+      }
+    }
+    return ColumnarSorter.builder(persons.size())
+        .longColumn("id", ids)
+        .stringColumn("lastName", lastNames)
+        .longColumn("age", ages, agesNulls)
+        .build();
+  }
+
+  /**
+   * Test that the permutation is the same as the one of the arg sort of the row objects.
+   */
+  @Test
+  void testArgsort() {
+    List<Person> persons = persons(1000, 44L);
+    ColumnarSorter sorter = columns(persons);
+    for (String wkt : new String[]{
+        "lastName",
+        "lastName,asc,false",
+        "age,desc,true,true|lastName,desc,true,false|id",
+        "age,asc,true,true|id,desc",
+        "id"}) {
+      assertArrayEquals(ArgSort.argsort(persons, fields(wkt)), sorter.argsort(fields(wkt)), wkt);
+    }
+  }
+
+  /**
+   * Test double columns with null bitmap.
+   */
+  @Test
+  void testDoubleColumn() {
+    BitSet nulls = new BitSet();
+    nulls.set(1);
+    ColumnarSorter sorter = ColumnarSorter.builder(5)
+        .doubleColumn("value", new double[]{2.5, 0, -1, Double.NaN, 2.5}, nulls)
+        .build();
+    assertArrayEquals(new int[]{2, 0, 4, 3, 1}, sorter.argsort(fields("value")));
+    assertArrayEquals(new int[]{1, 3, 0, 4, 2}, sorter.argsort(fields("value,desc,true,false")));
+    assertArrayEquals(new int[]{1, 2, 0, 4, 3}, sorter.argsort(fields("value,asc,true,true")));
+  }
+
+  /**
+   * Test column names and row count.
+   */
+  @Test
+  void testColumnNames() {
+    ColumnarSorter sorter = columns(persons(3, 44L));
+    assertEquals(3, sorter.getRowCount());
+    assertEquals(Arrays.asList("id", "lastName", "age"), new ArrayList<>(sorter.getColumnNames()));
+    assertArrayEquals(new int[0], ColumnarSorter.builder(0)
+        .stringColumn("empty", new String[0])
+        .build()
+        .argsort(fields("empty")));
+  }
+
+  /**
+   * Test illegal arguments.
+   */
+  @Test
+  void testIllegalArguments() {
+    ColumnarSorter sorter = columns(persons(3, 44L));
+    assertThrows(IllegalArgumentException.class, () -> sorter.argsort(fields("unknown")));
+    assertThrows(IllegalArgumentException.class, () -> sorter.argsort(new ComparatorFields()));
+    assertThrows(IllegalArgumentException.class, () -> ColumnarSorter.builder(2)
+        .longColumn("id", new long[3]));
+    assertThrows(IllegalArgumentException.class, () -> ColumnarSorter.builder(1)
+        .longColumn("id", new long[1])
+        .stringColumn("id", new String[1]));
+    assertThrows(IllegalArgumentException.class, () -> ColumnarSorter.builder(-1));
+  }
+
+}
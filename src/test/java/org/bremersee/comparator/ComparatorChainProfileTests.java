@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.bremersee.comparator.ComparatorChainProfile.Level;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The comparator chain profile tests.
+ *
+ * @author Christian Bremer
+ */
+class ComparatorChainProfileTests {
+
+  private static final List<Person> PERSONS = Arrays.asList(
+      new Person(1L, "smith", "Anna", 30),
+      new Person(2L, "Smith", "Bert", null),
+      new Person(3L, null, "Carl", 25),
+      new Person(4L, "Adams", "Dora", 30),
+      new Person(5L, "SMITH", "Anna", 30),
+      new Person(6L, "adams", "Fred", 41),
+      new Person(7L, null, "Gina", null));
+
+  /**
+   * Test the levels of a chain built from well known text.
+   */
+  @Test
+  void testExplain() {
+    ComparatorChain chain = (ComparatorChain) ComparatorBuilder.builder()
+        .fromWellKnownText("lastName|firstName|id")
+        .build();
+    List<Person> sample = new ArrayList<>(PERSONS);
+    ComparatorChainProfile profile = chain.explain(sample);
+    assertEquals(PERSONS, sample);
+    assertEquals(7, profile.getSampleSize());
+
+    List<Level> levels = profile.getLevels();
+    assertEquals(3, levels.size());
+    assertEquals("lastName,asc,true,false", levels.get(0).getDescription());
+    assertEquals("firstName,asc,true,false", levels.get(1).getDescription());
+    assertEquals("id,asc,true,false", levels.get(2).getDescription());
+    assertEquals(profile.getComparisons(), levels.get(0).getComparisons());
+    assertEquals(levels.get(0).getTies(), levels.get(1).getComparisons());
+    assertEquals(levels.get(1).getTies(), levels.get(2).getComparisons());
+    assertTrue(levels.get(2).isReached());
+    assertTrue(levels.get(0).getDecisionRate() > 0. && levels.get(0).getDecisionRate() < 1.);
+    assertTrue(levels.get(0).getAverageNanos() > 0.);
+
+    String explanation = profile.toString();
+    assertTrue(explanation.contains("lastName,asc,true,false"));
+    assertTrue(explanation.contains("Sample size: 7"));
+  }
+
+  /**
+   * Test a level, that is never reached.
+   */
+  @Test
+  void testUnreachedLevel() {
+    Comparator<Object> comparator = ComparatorBuilder.builder()
+        .fromWellKnownText("id|lastName")
+        .add("firstName", Comparator.naturalOrder())
+        .add((o1, o2) -> 0)
+        .build();
+    ComparatorChainProfile profile = ComparatorChainProfile.explain(comparator, PERSONS);
+    List<Level> levels = profile.getLevels();
+    assertEquals(4, levels.size());
+    assertEquals(1., levels.get(0).getDecisionRate());
+    assertFalse(levels.get(1).isReached());
+    assertEquals(0., levels.get(1).getAverageNanos());
+    assertEquals("firstName", levels.get(2).getDescription());
+    assertFalse(levels.get(3).isReached());
+  }
+
+  /**
+   * Test an instrumented chain and a single comparator.
+   */
+  @Test
+  void testInstrumentedAndSingleComparator() {
+    Comparator<Object> instrumented = ComparatorBuilder.builder(new ComparatorMetrics())
+        .fromWellKnownText("age,desc|id")
+        .build();
+    ComparatorChainProfile profile = ComparatorChainProfile.explain(instrumented, PERSONS);
+    assertEquals("age,desc,true,false", profile.getLevels().get(0).getDescription());
+    assertEquals(2, profile.getLevels().size());
+
+    profile = ComparatorChainProfile.explain(new ValueComparator("id", true, true, false), null);
+    assertEquals(1, profile.getLevels().size());
+    assertEquals(0, profile.getComparisons());
+    assertThrows(IllegalArgumentException.class,
+        () -> ComparatorChainProfile.explain(null, PERSONS));
+  }
+
+}
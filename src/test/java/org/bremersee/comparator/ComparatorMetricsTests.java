@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bremersee.comparator.ComparatorMetrics.FieldStatistics;
+import org.bremersee.comparator.ComparatorMetrics.LevelStatistics;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The comparator metrics tests.
+ *
+ * @author Christian Bremer
+ */
+class ComparatorMetricsTests {
+
+  private static final List<Person> PERSONS = Arrays.asList(
+      new Person(1L, "smith", "Anna", 30),
+      new Person(2L, "Smith", "Bert", null),
+      new Person(3L, null, "Carl", 25),
+      new Person(4L, "Adams", "Dora", 30),
+      new Person(5L, "SMITH", "Anna", 30),
+      new Person(6L, "adams", "Fred", 41),
+      new Person(7L, null, "Gina", null));
+
+  /**
+   * Test comparisons per level and extractions per field.
+   */
+  @Test
+  void testLevelsAndFields() {
+    ComparatorMetrics metrics = new ComparatorMetrics();
+    Comparator<Object> instrumented = ComparatorBuilder.builder(metrics)
+        .fromWellKnownText("lastName|firstName")
+        .add("age", true, true, false)
+        .build();
+    Comparator<Object> plain = ComparatorBuilder.builder()
+        .fromWellKnownText("lastName|firstName|age")
+        .build();
+    AtomicInteger count = new AtomicInteger();
+    List<Person> actual = new ArrayList<>(PERSONS);
+    actual.sort((p1, p2) -> {
+      count.incrementAndGet();
+      return instrumented.compare(p1, p2);
+    });
+    List<Person> expected = new ArrayList<>(PERSONS);
+    expected.sort(plain);
+    assertEquals(expected, actual);
+
+    assertEquals(count.get(), metrics.getComparisons());
+    List<LevelStatistics> levels = metrics.getLevels();
+    assertEquals(3, levels.size());
+    assertEquals(Arrays.asList("lastName", "firstName", "age"),
+        Arrays.asList(levels.get(0).getField(), levels.get(1).getField(), levels.get(2).getField()));
+    assertEquals(levels.get(0).getTies(), levels.get(1).getComparisons());
+    assertEquals(levels.get(1).getTies(), levels.get(2).getComparisons());
+    assertTrue(levels.get(0).getDecisions() > 0);
+    assertTrue(levels.get(0).getNanos() > 0);
+
+    List<FieldStatistics> fields = metrics.getFields();
+    assertEquals(Arrays.asList("age", "firstName", "lastName"),
+        Arrays.asList(fields.get(0).getField(), fields.get(1).getField(), fields.get(2).getField()));
+    assertEquals(2 * levels.get(0).getComparisons(), fields.get(2).getExtractions());
+    assertEquals(2 * levels.get(2).getComparisons(), fields.get(0).getExtractions());
+    assertEquals(0, fields.get(0).getFailures());
+
+    metrics.reset();
+    assertEquals(0, metrics.getComparisons());
+    assertTrue(metrics.getLevels().isEmpty());
+  }
+
+  /**
+   * Test extraction failures.
+   */
+  @Test
+  void testExtractionFailure() {
+    ComparatorMetrics metrics = new ComparatorMetrics();
+    Comparator<Object> comparator = ComparatorBuilder.builder(metrics)
+        .fromWellKnownText("notExists")
+        .build();
+    assertThrows(ValueExtractorException.class,
+        () -> comparator.compare(PERSONS.get(0), PERSONS.get(1)));
+    FieldStatistics statistics = metrics.getFields().get(0);
+    assertEquals("notExists", statistics.getField());
+    assertEquals(1, statistics.getFailures());
+    assertEquals(0, statistics.getExtractions());
+  }
+
+  /**
+   * Test a custom well known text parser and delegating comparators.
+   */
+  @Test
+  void testCustomParserAndDelegatingComparator() {
+    ComparatorMetrics metrics = new ComparatorMetrics();
+    Comparator<Object> comparator = ComparatorBuilder.builder(metrics)
+        .fromWellKnownText("age|lastName", ValueComparator::new)
+        .add("id", Comparator.naturalOrder())
+        .build();
+    assertTrue(comparator.compare(PERSONS.get(0), PERSONS.get(4)) < 0);
+    List<LevelStatistics> levels = metrics.getLevels();
+    assertEquals(3, levels.size());
+    assertEquals("id", levels.get(2).getField());
+    assertEquals(1, levels.get(2).getDecisions());
+    assertEquals(2, metrics.getFields().get(0).getExtractions());
+  }
+
+  /**
+   * Test that the listener methods do nothing by default.
+   */
+  @Test
+  void testDefaultListener() {
+    Comparator<Object> comparator = ComparatorBuilder.builder(new ComparatorListener() {
+    }).fromWellKnownText("lastName").build();
+    assertTrue(comparator.compare(PERSONS.get(3), PERSONS.get(0)) < 0);
+  }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The concurrent sorted index tests.
+ *
+ * @author Christian Bremer
+ */
+class ConcurrentSortedIndexTests {
+
+  private static final String WKT = "lastName|firstName,desc";
+
+  private static ComparatorFields fields() {
+    return new WellKnownTextConverter().convert(WKT);
+  }
+
+  private static List<Person> sorted(Iterable<? extends Person> persons) {
+    List<Person> list = new ArrayList<>();
+    persons.forEach(list::add);
+    list.sort(ComparatorBuilder.builder().fromWellKnownText(WKT).build());
+    return list;
+  }
+
+  private static List<Person> toList(Iterable<? extends Person> persons) {
+    List<Person> list = new ArrayList<>();
+    persons.forEach(list::add);
+    return list;
+  }
+
+  /**
+   * Test concurrent writers.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void testConcurrentWriters() throws Exception {
+    ConcurrentSortedIndex<IdPerson> index = new ConcurrentSortedIndex<>(fields());
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          Random random = new Random(thread);
+          for (int i = 0; i < 1000; i++) {
+            long id = thread * 1000L + i;
+            index.put(new IdPerson(id, "n" + random.nextInt(50), "f" + random.nextInt(50)));
+            if (i % 3 == 0) {
+              index.remove(new IdPerson(id, null, null));
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(8 * 666, index.size());
+    List<Person> actual = toList(index);
+    assertEquals(8 * 666, actual.size());
+    assertEquals(sorted(actual), actual);
+  }
+
+  /**
+   * Test put replaces old entry.
+   */
+  @Test
+  void testPutReplacesOldEntry() {
+    ConcurrentSortedIndex<IdPerson> index = new ConcurrentSortedIndex<>(fields());
+    IdPerson anna = new IdPerson(1L, "Smith", "Anna");
+    IdPerson bert = new IdPerson(2L, "Jones", "Bert");
+    index.put(anna);
+    index.put(bert);
+    assertEquals(bert, index.first());
+    anna.setLastName("Adams");
+    index.put(anna);
+    assertEquals(2, index.size());
+    assertEquals(anna, index.first());
+    assertEquals(bert, index.last());
+    assertTrue(index.contains(new IdPerson(1L, null, null)));
+    assertTrue(index.remove(new IdPerson(1L, null, null)));
+    assertFalse(index.remove(anna));
+    assertEquals(Collections.singletonList(bert), new ArrayList<>(index.descending()));
+    index.clear();
+    assertTrue(index.isEmpty());
+    assertNull(index.first());
+  }
+
+  /**
+   * Test range.
+   */
+  @Test
+  void testRange() {
+    ConcurrentSortedIndex<Person> index = new ConcurrentSortedIndex<>(fields());
+    String[] names = {"Adams", "Baker", "Brown", "Clark", "Davis"};
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      Person person = new Person(i, names[i % names.length], "f" + (i % 4), null);
+      persons.add(person);
+      index.put(person);
+    }
+    List<Person> expected = new ArrayList<>();
+    for (Person person : sorted(persons)) {
+      if (person.getLastName().compareTo("B") >= 0 && person.getLastName().compareTo("C") < 0) {
+        expected.add(person);
+      }
+    }
+    assertEquals(expected, new ArrayList<>(index.range(
+        new Object[]{"B"}, true, new Object[]{"C"}, false)));
+
+    expected.clear();
+    for (Person person : sorted(persons)) {
+      if (person.getLastName().equals("Baker")) {
+        expected.add(person);
+      }
+    }
+    assertEquals(expected, new ArrayList<>(index.range(
+        new Object[]{"baker"}, true, new Object[]{"baker"}, true)));
+    assertTrue(index.range(new Object[]{"baker"}, false, new Object[]{"baker"}, true).isEmpty());
+    assertEquals(20, index.range(null, true, null, true).size());
+    assertThrows(IllegalArgumentException.class,
+        () -> index.range(new Object[]{"a", "b", "c"}, true, null, true));
+  }
+
+  /**
+   * A person that is identified by its id.
+   */
+  static class IdPerson extends Person {
+
+    IdPerson(long id, String lastName, String firstName) {
+      super(id, lastName, firstName, null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof IdPerson && ((IdPerson) o).getId() == getId();
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(getId());
+    }
+  }
+
+}
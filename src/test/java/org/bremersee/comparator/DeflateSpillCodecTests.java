@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The deflate spill codec tests.
+ *
+ * @author Christian Bremer
+ */
+class DeflateSpillCodecTests {
+
+  /**
+   * Test compression and decompression.
+   *
+   * @throws IOException if decompression fails
+   */
+  @Test
+  void testCompressAndDecompress() throws IOException {
+    byte[] data = new byte[10_000];
+    byte[] line = "1;Doe;John;42\n".getBytes(StandardCharsets.UTF_8);
+    for (int i = 0; i < data.length; i++) {
+      data[i] = line[i % line.length];
+    }
+    SpillCodec codec = new DeflateSpillCodec();
+    byte[] compressed = codec.compress(data, 9_000);
+    assertTrue(compressed.length < 1_000);
+
+    byte[] decompressed = new byte[9_000];
+    ByteBuffer buffer = ByteBuffer.allocate(compressed.length + 4);
+    buffer.put(new byte[2]).put(compressed).flip().position(2);
+    codec.decompress(buffer, decompressed, decompressed.length);
+    assertArrayEquals(Arrays.copyOf(data, 9_000), decompressed);
+
+    assertThrows(IOException.class, () -> codec.decompress(
+        ByteBuffer.wrap(compressed, 0, compressed.length / 2), new byte[9_000], 9_000));
+    assertThrows(IOException.class, () -> codec.decompress(
+        ByteBuffer.wrap(line), new byte[9_000], 9_000));
+  }
+
+  /**
+   * Test the lookup of the codec by name.
+   */
+  @Test
+  void testForName() {
+    assertEquals(DeflateSpillCodec.NAME, SpillCodec.forName("deflate").getName());
+    assertThrows(IllegalArgumentException.class, () -> SpillCodec.forName("unknown"));
+    assertThrows(IllegalArgumentException.class, () -> new DeflateSpillCodec(10));
+  }
+
+}
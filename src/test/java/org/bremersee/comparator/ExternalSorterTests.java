@@ -0,0 +1,330 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.bremersee.comparator.testmodel.TestData.persons;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The external sorter tests.
+ *
+ * @author Christian Bremer
+ */
+class ExternalSorterTests {
+
+  private static final SpillSerializer<Person> SERIALIZER = new SpillSerializer<Person>() {
+    @Override
+    public byte[] serialize(Person value) {
+      return (value.getId() + ";" + value.getLastName() + ";" + value.getAge())
+          .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Person deserialize(ByteBuffer payload) {
+      String[] parts = StandardCharsets.UTF_8.decode(payload).toString().split(";");
+      return new Person(Long.parseLong(parts[0]),
+          "null".equals(parts[1]) ? null : parts[1],
+          null,
+          "null".equals(parts[2]) ? null : Integer.valueOf(parts[2]));
+    }
+  };
+
+  private static List<Long> ids(List<Person> persons) {
+    return persons.stream().map(Person::getId).collect(Collectors.toList());
+  }
+
+  private static List<Person> sort(ExternalSorter<Person> sorter, List<Person> persons)
+      throws IOException {
+    List<Person> sorted = new ArrayList<>();
+    sorter.sort(persons.iterator(), sorted::add);
+    return sorted;
+  }
+
+  /**
+   * Test that spilled runs are merged in the order of the comparator fields.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if spilling fails
+   */
+  @Test
+  void testSortWithSpilling(@TempDir Path tempDirectory) throws IOException {
+    List<Person> persons = persons(1000, 47L);
+    for (String wkt : new String[]{"lastName", "age,desc,true,true|lastName,desc", "age"}) {
+      List<Person> expected = ArgSort.permuted(persons, ArgSort.argsort(persons, fields(wkt)));
+      for (int runSize : new int[]{1, 7, 999, 1000, 1001}) {
+        ExternalSorter<Person> sorter = ExternalSorter.builder(SERIALIZER)
+            .comparatorFields(fields(wkt))
+            .runSize(runSize)
+            .tempDirectory(tempDirectory)
+            .build();
+        assertEquals(ids(expected), ids(sort(sorter, persons)), wkt + " / " + runSize);
+      }
+    }
+    try (Stream<Path> files = Files.list(tempDirectory)) {
+      assertEquals(0L, files.count());
+    }
+  }
+
+  /**
+   * Test that runs, that exceed the maximum run file size, are split into several run files.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if spilling fails
+   */
+  @Test
+  void testSortWithSplitRuns(@TempDir Path tempDirectory) throws IOException {
+    List<Person> persons = persons(1000, 47L);
+    String wkt = "age|lastName,desc";
+    List<Person> expected = ArgSort.permuted(persons, ArgSort.argsort(persons, fields(wkt)));
+    for (int threads : new int[]{1, 2}) {
+      for (SpillCodec codec : new SpillCodec[]{null, new DeflateSpillCodec()}) {
+        ExternalSorter<Person> sorter = ExternalSorter.builder(SERIALIZER)
+            .comparatorFields(fields(wkt))
+            .runSize(300)
+            .threads(threads)
+            .codec(codec)
+            .tempDirectory(tempDirectory)
+            .maxRunFileSize(512L)
+            .build();
+        assertEquals(ids(expected), ids(sort(sorter, persons)), threads + " / " + codec);
+      }
+    }
+    try (Stream<Path> files = Files.list(tempDirectory)) {
+      assertEquals(0L, files.count());
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> ExternalSorter.builder(SERIALIZER).maxRunFileSize(8L));
+    assertThrows(IllegalArgumentException.class,
+        () -> ExternalSorter.builder(SERIALIZER).maxRunFileSize(RunFile.MAX_SIZE + 1L));
+  }
+
+  /**
+   * Test the string serializer and an empty input.
+   *
+   * @throws IOException if spilling fails
+   */
+  @Test
+  void testStrings() throws IOException {
+    ExternalSorter<String> sorter = ExternalSorter.builder(SpillSerializer.utf8())
+        .comparatorFields(fields("value,desc"))
+        .valueExtractor((obj, field) -> obj)
+        .runSize(2)
+        .build();
+    List<String> sorted = new ArrayList<>();
+    sorter.sort(List.of("b", "ä", "a", "c", "bb").iterator(), sorted::add);
+    assertEquals(List.of("ä", "c", "bb", "b", "a"), sorted);
+    sorted.clear();
+    sorter.sort(new ArrayList<String>().iterator(), sorted::add);
+    assertTrue(sorted.isEmpty());
+    assertEquals("value,desc,true,false", sorter.getComparatorFields().toWkt());
+  }
+
+  /**
+   * Test that runs, that are spilled by parallel threads, are merged in input order.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if spilling fails
+   */
+  @Test
+  void testSortWithSpillThreads(@TempDir Path tempDirectory) throws IOException {
+    List<Person> persons = persons(5000, 47L);
+    String wkt = "lastName|age,desc";
+    List<Person> expected = ArgSort.permuted(persons, ArgSort.argsort(persons, fields(wkt)));
+    ExternalSorter<Person> sorter = ExternalSorter.builder(SERIALIZER)
+        .comparatorFields(fields(wkt))
+        .memoryLimit(4 * 1024)
+        .threads(4)
+        .tempDirectory(tempDirectory)
+        .codec(new DeflateSpillCodec())
+        .build();
+    assertEquals(ids(expected), ids(sort(sorter, persons)));
+    try (Stream<Path> files = Files.list(tempDirectory)) {
+      assertEquals(0L, files.count());
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> ExternalSorter.builder(SERIALIZER).threads(0));
+
+    ExternalSorter<Person> failing = ExternalSorter.builder(new SpillSerializer<Person>() {
+      @Override
+      public byte[] serialize(Person value) {
+        throw new IllegalStateException("Test");
+      }
+
+      @Override
+      public Person deserialize(ByteBuffer payload) {
+        return null;
+      }
+    })
+        .comparatorFields(fields(wkt))
+        .runSize(100)
+        .threads(2)
+        .tempDirectory(tempDirectory)
+        .build();
+    assertThrows(IllegalStateException.class, () -> sort(failing, persons));
+    try (Stream<Path> files = Files.list(tempDirectory)) {
+      assertEquals(0L, files.count());
+    }
+  }
+
+  /**
+   * Test that the run files of pending spills are deleted, if the sorting thread is interrupted.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if listing the temporary directory fails
+   */
+  @Test
+  void testInterruptedSortDeletesRunFiles(@TempDir Path tempDirectory) throws IOException {
+    List<Person> persons = persons(1000, 47L);
+    Iterator<Person> input = new Iterator<Person>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < persons.size();
+      }
+
+      @Override
+      public Person next() {
+        if (index == 35) {
+          Thread.currentThread().interrupt();
+        }
+        return persons.get(index++);
+      }
+    };
+    // the spills are slow, so they are pending, when the sorting thread is interrupted
+    ExternalSorter<Person> sorter = ExternalSorter.builder(new SpillSerializer<Person>() {
+      @Override
+      public byte[] serialize(Person value) {
+        try {
+          Thread.sleep(5L);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return SERIALIZER.serialize(value);
+      }
+
+      @Override
+      public Person deserialize(ByteBuffer payload) {
+        return SERIALIZER.deserialize(payload);
+      }
+    })
+        .comparatorFields(fields("lastName"))
+        .runSize(10)
+        .threads(4)
+        .tempDirectory(tempDirectory)
+        .build();
+    assertThrows(InterruptedIOException.class, () -> sorter.sort(input, person -> {
+    }));
+    assertTrue(Thread.interrupted());
+    try {
+      // a leaked run file would be written after the sort has returned
+      Thread.sleep(300L);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    try (Stream<Path> files = Files.list(tempDirectory)) {
+      assertEquals(0L, files.count());
+    }
+  }
+
+  /**
+   * Test that compressed runs are merged in the order of the comparator fields.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if spilling fails
+   */
+  @Test
+  void testSortWithCompression(@TempDir Path tempDirectory) throws IOException {
+    List<Person> persons = persons(1000, 47L);
+    String wkt = "age,desc|lastName";
+    List<Person> expected = ArgSort.permuted(persons, ArgSort.argsort(persons, fields(wkt)));
+    ExternalSorter<Person> sorter = ExternalSorter.builder(SERIALIZER)
+        .comparatorFields(fields(wkt))
+        .runSize(300)
+        .tempDirectory(tempDirectory)
+        .codec(SpillCodec.forName(DeflateSpillCodec.NAME))
+        .build();
+    assertEquals(ids(expected), ids(sort(sorter, persons)));
+  }
+
+  /**
+   * Test compressed run files with entries, that are larger than a block.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if reading or writing fails
+   */
+  @Test
+  void testCompressedRunFile(@TempDir Path tempDirectory) throws IOException {
+    Random random = new Random(48L);
+    List<byte[]> keys = new ArrayList<>();
+    List<byte[]> payloads = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      keys.add(new byte[]{(byte) i});
+      byte[] payload = new byte[i % 10 == 0 ? 100_000 + random.nextInt(100_000) : i];
+      random.nextBytes(payload);
+      payloads.add(payload);
+    }
+    SpillCodec codec = new DeflateSpillCodec(9);
+    Path file = tempDirectory.resolve("run.bin");
+    Files.createFile(file);
+    RunFile.write(file, keys, payloads, codec);
+    RunFile.Cursor cursor = RunFile.open(file, codec);
+    for (byte[] payload : payloads) {
+      assertTrue(cursor.next());
+      ByteBuffer actual = cursor.payload();
+      assertEquals(ByteBuffer.wrap(payload), actual);
+    }
+    assertFalse(cursor.next());
+    assertThrows(IOException.class, () -> RunFile.open(file, null));
+
+    RunFile.write(file, keys, payloads, null);
+    assertThrows(IOException.class, () -> RunFile.open(file, codec));
+  }
+
+  /**
+   * Test illegal arguments.
+   */
+  @Test
+  void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class, () -> ExternalSorter.builder(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> ExternalSorter.builder(SERIALIZER).build());
+    assertThrows(IllegalArgumentException.class,
+        () -> ExternalSorter.builder(SERIALIZER).runSize(0));
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The grouping tests.
+ *
+ * @author Christian Bremer
+ */
+class GroupingTests {
+
+  private static final List<Person> PERSONS = Arrays.asList(
+      new Person(1L, "smith", "Anna", 30),
+      new Person(2L, "Smith", "Bert", null),
+      new Person(3L, null, "Carl", 25),
+      new Person(4L, "Adams", "Dora", 30),
+      new Person(5L, "SMITH", "Eva", 30),
+      new Person(6L, "adams", "Fred", 41),
+      new Person(7L, null, "Gina", null));
+
+  private static List<List<Long>> ids(List<List<Person>> groups) {
+    List<List<Long>> ids = new ArrayList<>();
+    for (List<Person> group : groups) {
+      List<Long> groupIds = new ArrayList<>();
+      group.forEach(person -> groupIds.add(person.getId()));
+      ids.add(groupIds);
+    }
+    return ids;
+  }
+
+  /**
+   * Test group.
+   */
+  @Test
+  void testGroup() {
+    assertEquals(
+        Arrays.asList(Arrays.asList(4L, 6L), Arrays.asList(1L, 2L, 5L), Arrays.asList(3L, 7L)),
+        ids(Grouping.group(PERSONS, fields("lastName"))));
+    assertEquals(
+        Arrays.asList(Arrays.asList(4L), Arrays.asList(5L), Arrays.asList(2L), Arrays.asList(6L),
+            Arrays.asList(1L), Arrays.asList(3L, 7L)),
+        ids(Grouping.group(PERSONS, fields("lastName,asc,false"))));
+    assertEquals(
+        Arrays.asList(Arrays.asList(2L, 7L), Arrays.asList(6L), Arrays.asList(1L, 4L, 5L),
+            Arrays.asList(3L)),
+        ids(Grouping.group(PERSONS, fields("age,desc,true,false"))));
+  }
+
+  /**
+   * Test distinct.
+   */
+  @Test
+  void testDistinct() {
+    List<Long> ids = new ArrayList<>();
+    Grouping.<Person>distinct(PERSONS, fields("lastName")).forEach(p -> ids.add(p.getId()));
+    assertEquals(Arrays.asList(4L, 1L, 3L), ids);
+  }
+
+  /**
+   * Test count.
+   */
+  @Test
+  void testCount() {
+    Map<SortKey, Integer> counts = Grouping.count(PERSONS, fields("age,asc,true,true"));
+    List<List<Object>> keys = new ArrayList<>();
+    counts.keySet().forEach(key -> keys.add(key.getValues()));
+    assertEquals(Arrays.asList(
+        Collections.singletonList(null),
+        Collections.singletonList(25),
+        Collections.singletonList(30),
+        Collections.singletonList(41)), keys);
+    assertEquals(Arrays.asList(2, 1, 3, 1), new ArrayList<>(counts.values()));
+  }
+
+  /**
+   * Test runs.
+   */
+  @Test
+  void testRuns() {
+    assertEquals(
+        Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(3L), Arrays.asList(4L),
+            Arrays.asList(5L), Arrays.asList(6L), Arrays.asList(7L)),
+        ids(Grouping.runs(PERSONS, fields("lastName"))));
+    assertEquals(Collections.emptyList(), Grouping.runs(Collections.emptyList(), fields("a")));
+  }
+
+  /**
+   * Test empty comparator fields and expect illegal argument exception.
+   */
+  @Test
+  void testEmptyComparatorFieldsAndExpectIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class,
+        () -> Grouping.group(PERSONS, new ComparatorFields()));
+  }
+
+}
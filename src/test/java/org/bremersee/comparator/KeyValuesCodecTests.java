@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The key values codec tests.
+ *
+ * @author Christian Bremer
+ */
+class KeyValuesCodecTests {
+
+  /**
+   * Test encode and decode.
+   */
+  @Test
+  void testEncodeAndDecode() {
+    Object[] values = new Object[]{
+        null, "Hällo", true, false, (byte) -3, (short) -300, Integer.MIN_VALUE, Long.MAX_VALUE,
+        1.5f, -2.25d, 'x', new BigInteger("-12345678901234567890"), new BigDecimal("-1.005"),
+        new Date(1234567L), Instant.ofEpochSecond(-5L, 7), LocalDate.of(1970, 1, 1).minusDays(3),
+        LocalDateTime.of(2020, 2, 29, 23, 59, 58, 1), LocalTime.of(12, 30),
+        OffsetDateTime.parse("2020-01-01T10:00:00+02:00"),
+        ZonedDateTime.parse("2020-01-01T10:00:00+01:00[Europe/Berlin]"),
+        UUID.randomUUID()
+    };
+    byte[] bytes = KeyValuesCodec.encode(values);
+    assertArrayEquals(values, KeyValuesCodec.decode(bytes, 0));
+  }
+
+  /**
+   * Test enum.
+   */
+  @Test
+  void testEnum() {
+    byte[] bytes = KeyValuesCodec.encode(new Object[]{DayOfWeek.FRIDAY});
+    Object value = KeyValuesCodec.decode(bytes, 0)[0];
+    assertEquals(KeyValuesCodec.EnumName.class, value.getClass());
+    assertEquals(DayOfWeek.FRIDAY, ((KeyValuesCodec.EnumName) value).resolve(DayOfWeek.MONDAY));
+    assertEquals("FRIDAY", ((KeyValuesCodec.EnumName) value).resolve("MONDAY"));
+  }
+
+  /**
+   * Test unsupported type and expect comparator exception.
+   */
+  @Test
+  void testUnsupportedTypeAndExpectComparatorException() {
+    assertThrows(ComparatorException.class,
+        () -> KeyValuesCodec.encode(new Object[]{new Object()}));
+  }
+
+  /**
+   * Test invalid bytes and expect illegal argument exception.
+   */
+  @Test
+  void testInvalidBytesAndExpectIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class,
+        () -> KeyValuesCodec.decode(new byte[]{1, 1, 5, 65}, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> KeyValuesCodec.decode(new byte[]{1, 99}, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> KeyValuesCodec.decode(new byte[]{1, 0, 0}, 0));
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The keyset pager tests.
+ *
+ * @author Christian Bremer
+ */
+class KeysetPagerTests {
+
+  private static final String WKT = "lastName|age,desc,true,true|id";
+
+  private static List<Person> createPersons() {
+    String[] names = {"anna", "Bert", "carl", "Dora", null};
+    Random random = new Random(42L);
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 103; i++) {
+      Integer age = random.nextInt(5) == 0 ? null : random.nextInt(10);
+      persons.add(new Person(i, names[random.nextInt(names.length)], "x", age));
+    }
+    Collections.shuffle(persons, random);
+    return persons;
+  }
+
+  /**
+   * Test paging through all elements.
+   */
+  @Test
+  void testPaging() {
+    ComparatorFields fields = new WellKnownTextConverter().convert(WKT);
+    List<Person> persons = createPersons();
+    List<Person> expected = new ArrayList<>(persons);
+    expected.sort(ComparatorBuilder.builder().fromWellKnownText(WKT).build());
+
+    KeysetPager pager = new KeysetPager(fields);
+    List<Person> actual = new ArrayList<>();
+    List<Person> page = pager.firstPage(persons, 10);
+    int pages = 0;
+    while (!page.isEmpty()) {
+      pages++;
+      assertTrue(page.size() <= 10);
+      actual.addAll(page);
+      String cursor = pager.createCursor(page.get(page.size() - 1));
+      page = pager.nextPage(persons, cursor, 10);
+    }
+    assertEquals(11, pages);
+    assertEquals(expected, actual);
+  }
+
+  /**
+   * Test cursor of other comparator fields and expect illegal argument exception.
+   */
+  @Test
+  void testCursorOfOtherComparatorFieldsAndExpectIllegalArgumentException() {
+    WellKnownTextConverter converter = new WellKnownTextConverter();
+    KeysetPager pager = new KeysetPager(converter.convert("lastName|id"));
+    String cursor = new KeysetPager(converter.convert("lastName,desc|id"))
+        .createCursor(new Person(1L, "a", "b", 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> pager.nextPage(createPersons(), cursor, 10));
+    assertThrows(IllegalArgumentException.class,
+        () -> pager.nextPage(createPersons(), "not a cursor", 10));
+  }
+
+  /**
+   * Test empty comparator fields and expect illegal argument exception.
+   */
+  @Test
+  void testEmptyComparatorFieldsAndExpectIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new KeysetPager(new ComparatorFields()));
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.bremersee.comparator.testmodel.TestData.persons;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bremersee.comparator.ComparatorMetrics.FieldStatistics;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The memoizing comparator tests.
+ *
+ * @author Christian Bremer
+ */
+class MemoizingComparatorTests {
+
+  /**
+   * A value extractor, that counts the extractions per field.
+   */
+  private static class CountingValueExtractor extends DefaultValueExtractor {
+
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    @Override
+    public Object findValue(Object obj, String fieldPath) {
+      counts.merge(fieldPath, 1, Integer::sum);
+      return super.findValue(obj, fieldPath);
+    }
+  }
+
+  /**
+   * Test that each value is extracted at most once.
+   */
+  @Test
+  void testExtractedOnce() {
+    List<Person> persons = persons(500, 42L);
+    ComparatorFields fields = fields("lastName,desc|firstName|age|id");
+    List<Person> expected = new ArrayList<>(persons);
+    expected.sort(ComparatorBuilder.builder().addAll(fields).build());
+
+    CountingValueExtractor extractor = new CountingValueExtractor();
+    List<Person> actual = new ArrayList<>(persons);
+    try (MemoizingComparator comparator = new MemoizingComparator(fields, extractor)) {
+      actual.sort(comparator);
+      assertEquals(500, comparator.size());
+      comparator.close();
+      assertEquals(0, comparator.size());
+    }
+    assertEquals(expected, actual);
+    assertEquals(500, extractor.counts.get("lastName"));
+    assertTrue(extractor.counts.get("firstName") <= 500);
+    assertTrue(extractor.counts.getOrDefault("id", 0) < extractor.counts.get("firstName"));
+  }
+
+  /**
+   * Test the static sort.
+   */
+  @Test
+  void testSort() {
+    List<Person> persons = persons(100, 42L);
+    List<Person> expected = new ArrayList<>(persons);
+    expected.sort(ComparatorBuilder.builder().fromWellKnownText("age|id,desc").build());
+    MemoizingComparator.sort(persons, fields("age|id,desc"));
+    assertEquals(expected, persons);
+    MemoizingComparator.sort(null, fields("age"));
+    assertThrows(IllegalArgumentException.class,
+        () -> MemoizingComparator.sort(persons, new ComparatorFields()));
+  }
+
+  /**
+   * Test that cache hits are reported.
+   */
+  @Test
+  void testCacheHits() {
+    ComparatorMetrics metrics = new ComparatorMetrics();
+    List<Person> persons = persons(200, 42L);
+    try (MemoizingComparator comparator = new MemoizingComparator(fields("age"), null, metrics)) {
+      persons.sort(comparator);
+    }
+    FieldStatistics statistics = metrics.getFields().get(0);
+    assertEquals("age", statistics.getField());
+    assertEquals(200, statistics.getExtractions());
+    assertTrue(statistics.getCacheHits() > 200);
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The normalized key encoder tests.
+ *
+ * @author Christian Bremer
+ */
+class NormalizedKeyEncoderTests {
+
+  private static final String[] SPECIFICATIONS = {
+      "value",
+      "value,desc",
+      "value,asc,false,true",
+      "value,desc,false,true",
+      "value,asc,true,false",
+      "value,desc,true,false"
+  };
+
+  private static void assertOrder(Function<Random, Object> generator) {
+    Random random = new Random(46L);
+    List<Object> values = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      values.add(random.nextInt(10) == 0 ? null : generator.apply(random));
+    }
+    for (String wkt : SPECIFICATIONS) {
+      ComparatorFields fields = new WellKnownTextConverter().convert(wkt + "|index");
+      // the object is an array of the value and the index
+      SortKeyExtractor keyExtractor = new SortKeyExtractor(fields,
+          (obj, field) -> ((Object[]) obj)[field.equals("value") ? 0 : 1]);
+      NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(keyExtractor);
+      for (int i = 0; i < values.size(); i++) {
+        Object[] obj1 = {values.get(i), i};
+        byte[] key1 = encoder.encode(obj1);
+        for (int j = 0; j < values.size(); j += 7) {
+          Object[] obj2 = {values.get(j), j};
+          byte[] key2 = encoder.encode(obj2);
+          int expected = Integer.signum(keyExtractor.compareValues(
+              keyExtractor.extractValues(obj1), keyExtractor.extractValues(obj2)));
+          assertEquals(expected, Integer.signum(NormalizedKeyEncoder.compare(key1, key2)),
+              wkt + ": " + values.get(i) + " <> " + values.get(j));
+          assertEquals(expected, Integer.signum(NormalizedKeyEncoder.compare(
+              ByteBuffer.wrap(key1), 0, key1.length, ByteBuffer.wrap(key2), 0, key2.length)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Test strings.
+   */
+  @Test
+  void testStrings() {
+    String chars = "aAbBäÄz\u0000\uffff";
+    assertOrder(random -> {
+      StringBuilder sb = new StringBuilder();
+      int length = random.nextInt(5);
+      for (int i = 0; i < length; i++) {
+        sb.append(chars.charAt(random.nextInt(chars.length())));
+      }
+      return sb.toString();
+    });
+  }
+
+  /**
+   * Test numbers.
+   */
+  @Test
+  void testNumbers() {
+    assertOrder(random -> random.nextBoolean() ? Long.MIN_VALUE : random.nextLong());
+    assertOrder(random -> random.nextInt(100) - 50);
+    assertOrder(random -> (short) random.nextInt());
+    assertOrder(random -> (byte) random.nextInt());
+    double[] doubles = {Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -0.0, 0.0};
+    assertOrder(random -> random.nextBoolean()
+        ? doubles[random.nextInt(doubles.length)]
+        : random.nextGaussian());
+    assertOrder(random -> random.nextBoolean() ? -0.0f : (float) random.nextGaussian());
+    assertOrder(random -> BigDecimal.valueOf(random.nextInt(2001) - 1000, random.nextInt(7) - 3));
+    assertOrder(random -> new BigDecimal(random.nextGaussian() * 1e10).toBigInteger());
+  }
+
+  /**
+   * Test other types.
+   */
+  @Test
+  void testOtherTypes() {
+    assertOrder(Random::nextBoolean);
+    assertOrder(random -> (char) random.nextInt(0x10000));
+    assertOrder(random -> ChronoUnit.values()[random.nextInt(ChronoUnit.values().length)]);
+    assertOrder(random -> new Date(random.nextLong() >> 20));
+    assertOrder(random -> Instant.ofEpochSecond(random.nextInt(5) - 2, random.nextInt(3)));
+    assertOrder(random -> LocalDate.ofEpochDay(random.nextInt(20_000) - 10_000));
+    assertOrder(random -> LocalDateTime.of(LocalDate.ofEpochDay(random.nextInt(3) - 1),
+        LocalTime.ofNanoOfDay(random.nextInt(1000))));
+    assertOrder(random -> LocalTime.ofSecondOfDay(random.nextInt(86_400)));
+  }
+
+  /**
+   * Test that unsupported types are rejected.
+   */
+  @Test
+  void testUnsupportedType() {
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(new SortKeyExtractor(
+        new WellKnownTextConverter().convert("value"), (obj, field) -> obj));
+    assertThrows(ComparatorException.class, () -> encoder.encode(new Object()));
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The order statistics tests.
+ *
+ * @author Christian Bremer
+ */
+class OrderStatisticsTests {
+
+  private static List<Integer> createNumbers(int size, int bound) {
+    Random random = new Random(size);
+    List<Integer> numbers = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      numbers.add(random.nextInt(bound));
+    }
+    return numbers;
+  }
+
+  /**
+   * Test nth element.
+   */
+  @Test
+  void testNthElement() {
+    for (int size : new int[]{1, 7, 100, 1001}) {
+      for (int bound : new int[]{3, 1000000}) {
+        List<Integer> numbers = createNumbers(size, bound);
+        List<Integer> sorted = new ArrayList<>(numbers);
+        Collections.sort(sorted);
+        List<Integer> copy = new ArrayList<>(numbers);
+        for (int k = 0; k < size; k += Math.max(1, size / 17)) {
+          assertEquals(sorted.get(k),
+              OrderStatistics.nthElement(numbers, k, Comparator.naturalOrder()));
+        }
+        assertEquals(copy, numbers);
+      }
+    }
+  }
+
+  /**
+   * Test nth element of array.
+   */
+  @Test
+  void testNthElementOfArray() {
+    Integer[] numbers = createNumbers(500, 50).toArray(new Integer[0]);
+    Integer value = OrderStatistics.nthElement(numbers, 250, Comparator.naturalOrder());
+    for (int i = 0; i < numbers.length; i++) {
+      if (i < 250) {
+        assertTrue(numbers[i] <= value);
+      } else {
+        assertTrue(numbers[i] >= value);
+      }
+    }
+  }
+
+  /**
+   * Test median and percentiles.
+   */
+  @Test
+  void testMedianAndPercentiles() {
+    List<Integer> numbers = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      numbers.add(i);
+    }
+    Collections.shuffle(numbers, new Random(1L));
+    assertEquals(50, OrderStatistics.median(numbers, Comparator.<Integer>naturalOrder()));
+    assertEquals(95, OrderStatistics.percentile(numbers, 95., Comparator.<Integer>naturalOrder()));
+    assertEquals(1, OrderStatistics.percentile(numbers, 0., Comparator.<Integer>naturalOrder()));
+    assertEquals(Arrays.asList(99, 50, 95, 100), OrderStatistics.percentiles(
+        numbers, Comparator.<Integer>naturalOrder(), 99., 50., 95., 100.));
+    assertThrows(IllegalArgumentException.class,
+        () -> OrderStatistics.percentile(numbers, 101., Comparator.<Integer>naturalOrder()));
+  }
+
+  /**
+   * Test with comparator fields.
+   */
+  @Test
+  void testWithComparatorFields() {
+    ComparatorFields fields = new WellKnownTextConverter().convert("age,desc|id");
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      persons.add(new Person(i, "a", "b", i % 3));
+    }
+    Collections.shuffle(persons, new Random(2L));
+    assertEquals(4L, OrderStatistics.<Person>median(persons, fields).getId());
+    assertEquals(2L, OrderStatistics.<Person>nthElement(persons, 0, fields).getId());
+    assertEquals(Arrays.asList(2L, 6L), Arrays.asList(
+        OrderStatistics.<Person>percentiles(persons, fields, 0., 100.).get(0).getId(),
+        OrderStatistics.<Person>percentile(persons, 100., fields).getId()));
+  }
+
+  /**
+   * Test empty list and expect illegal argument exception.
+   */
+  @Test
+  void testEmptyListAndExpectIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class,
+        () -> OrderStatistics.median(Collections.emptyList(), Comparator.<Integer>naturalOrder()));
+  }
+
+}
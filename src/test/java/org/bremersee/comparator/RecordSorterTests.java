@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.bremersee.comparator.testmodel.TestData.persons;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bremersee.comparator.RecordSchema.Type;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The record sorter tests.
+ *
+ * @author Christian Bremer
+ */
+class RecordSorterTests {
+
+  private static final RecordSchema SCHEMA = RecordSchema.builder(23)
+      .field("id", Type.LONG, 0)
+      .field("age", Type.INT, 8)
+      .stringField("lastName", 12, 10)
+      .nullBitmap(22)
+      .build();
+
+  private static ByteBuffer records(List<Person> persons, ByteBuffer buffer) {
+    for (Person person : persons) {
+      int position = buffer.position();
+      byte nulls = 0;
+      buffer.putLong(person.getId());
+      if (person.getAge() == null) {
+        nulls |= 2;
+        buffer.putInt(0);
+      } else {
+        buffer.putInt(person.getAge());
+      }
+      byte[] lastName = new byte[10];
+      if (person.getLastName() == null) {
+        nulls |= 4;
+      } else {
+        byte[] bytes = person.getLastName().getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(bytes, 0, lastName, 0, bytes.length);
+      }
+      buffer.put(lastName);
+      buffer.put(nulls);
+      assertEquals(position + SCHEMA.getRecordLength(), buffer.position());
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private static long[] ids(ByteBuffer buffer) {
+    long[] ids = new long[buffer.remaining() / SCHEMA.getRecordLength()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = buffer.getLong(buffer.position() + i * SCHEMA.getRecordLength());
+    }
+    return ids;
+  }
+
+  /**
+   * Test that the permutation is the same as the one of the arg sort of the row objects.
+   */
+  @Test
+  void testArgsort() {
+    List<Person> persons = persons(1000, 45L);
+    int size = persons.size() * SCHEMA.getRecordLength();
+    RecordSorter sorter = new RecordSorter(SCHEMA);
+    for (ByteBuffer buffer : new ByteBuffer[]{
+        records(persons, ByteBuffer.allocate(size)),
+        records(persons, ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN))}) {
+      for (String wkt : new String[]{
+          "lastName",
+          "lastName,asc,false",
+          "age,desc,true,true|lastName,desc,true,false|id",
+          "age,asc,true,true|id,desc",
+          "id"}) {
+        assertArrayEquals(ArgSort.argsort(persons, fields(wkt)),
+            sorter.argsort(buffer, fields(wkt)), wkt);
+      }
+    }
+  }
+
+  /**
+   * Test that the records are sorted in place.
+   */
+  @Test
+  void testSort() {
+    List<Person> persons = persons(500, 45L);
+    ByteBuffer buffer = ByteBuffer.allocate(7 + persons.size() * SCHEMA.getRecordLength());
+    buffer.position(7);
+    records(persons, buffer);
+    buffer.position(7);
+    ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+    copy.put(buffer.duplicate()).flip();
+
+    String wkt = "lastName,desc|age|id";
+    int[] permutation = new RecordSorter(SCHEMA).argsort(buffer, fields(wkt));
+    new RecordSorter(SCHEMA).sort(buffer, fields(wkt));
+    assertEquals(7, buffer.position());
+    long[] expected = new long[persons.size()];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = persons.get(permutation[i]).getId();
+    }
+    assertArrayEquals(expected, ids(buffer));
+    assertArrayEquals(ArgSort.identity(persons.size()),
+        new RecordSorter(SCHEMA).argsort(buffer, fields(wkt)));
+
+    new RecordSorter(SCHEMA).sort(buffer, fields("id"));
+    long[] ids = ids(copy);
+    Arrays.sort(ids);
+    assertArrayEquals(ids, ids(buffer));
+  }
+
+  /**
+   * Test the schema.
+   */
+  @Test
+  void testSchema() {
+    assertEquals(23, SCHEMA.getRecordLength());
+    assertEquals(Arrays.asList("id", "age", "lastName"), new ArrayList<>(SCHEMA.getFieldNames()));
+    RecordSchema schema = RecordSchema.builder(8)
+        .field("b", Type.BYTE, 0)
+        .field("s", Type.SHORT, 1)
+        .field("f", Type.FLOAT, 3)
+        .build();
+    ByteBuffer buffer = ByteBuffer.allocate(24);
+    buffer.put((byte) 1).putShort((short) 2).putFloat(-1.5f).put((byte) 0);
+    buffer.put((byte) 1).putShort((short) 1).putFloat(2.5f).put((byte) 0);
+    buffer.put((byte) -1).putShort((short) 3).putFloat(0f).put((byte) 0);
+    buffer.flip();
+    RecordSorter sorter = new RecordSorter(schema);
+    assertArrayEquals(new int[]{2, 1, 0}, sorter.argsort(buffer, fields("b|s")));
+    assertArrayEquals(new int[]{0, 2, 1}, sorter.argsort(buffer, fields("f")));
+  }
+
+  /**
+   * Test illegal arguments.
+   */
+  @Test
+  void testIllegalArguments() {
+    RecordSorter sorter = new RecordSorter(SCHEMA);
+    ByteBuffer buffer = ByteBuffer.allocate(2 * SCHEMA.getRecordLength());
+    assertThrows(IllegalArgumentException.class, () -> sorter.argsort(buffer, fields("unknown")));
+    assertThrows(IllegalArgumentException.class,
+        () -> sorter.argsort(buffer, new ComparatorFields()));
+    assertThrows(IllegalArgumentException.class,
+        () -> sorter.argsort(ByteBuffer.allocate(24), fields("id")));
+    assertThrows(IllegalArgumentException.class, () -> new RecordSorter(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> RecordSchema.builder(8).field("id", Type.LONG, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> RecordSchema.builder(8).field("id", Type.STRING, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> RecordSchema.builder(8).field("id", Type.INT, 0).stringField("id", 4, 4));
+    assertThrows(IllegalArgumentException.class,
+        () -> RecordSchema.builder(8).field("id", Type.LONG, 0).nullBitmap(8).build());
+  }
+
+}
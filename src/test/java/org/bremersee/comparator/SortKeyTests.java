@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The sort key tests.
+ *
+ * @author Christian Bremer
+ */
+class SortKeyTests {
+
+  private static final List<Person> PERSONS = Arrays.asList(
+      new Person(1L, "smith", "Anna", 30),
+      new Person(2L, "Smith", "Bert", null),
+      new Person(3L, null, "Carl", 25),
+      new Person(4L, "Adams", "Dora", 30),
+      new Person(5L, "SMITH", "Anna", 30));
+
+  /**
+   * Test that equals and hash code are consistent with the order.
+   */
+  @Test
+  void testEqualsConsistentWithCompareTo() {
+    SortKeyExtractor extractor = new SortKeyExtractor(fields("lastName|firstName,desc"));
+    for (Person p1 : PERSONS) {
+      SortKey k1 = extractor.extract(p1);
+      for (Person p2 : PERSONS) {
+        SortKey k2 = extractor.extract(p2);
+        assertEquals(k1.compareTo(k2) == 0, k1.equals(k2));
+        if (k1.equals(k2)) {
+          assertEquals(k1.hashCode(), k2.hashCode());
+        }
+        assertEquals(Integer.signum(k1.compareTo(k2)), -Integer.signum(k2.compareTo(k1)));
+      }
+    }
+    assertEquals(extractor.extract(PERSONS.get(0)), extractor.extract(PERSONS.get(4)));
+    assertNotEquals(extractor.extract(PERSONS.get(0)), extractor.extract(PERSONS.get(1)));
+  }
+
+  /**
+   * Test that the order of sort keys is the order of the comparator.
+   */
+  @Test
+  void testOrder() {
+    ComparatorFields fields = fields("lastName,desc,true,true|age,asc,true,false");
+    SortKeyExtractor extractor = new SortKeyExtractor(fields);
+    List<Person> expected = new ArrayList<>(PERSONS);
+    expected.sort(ComparatorBuilder.builder().fromWellKnownText(fields.toWkt()).build());
+    List<Person> actual = new ArrayList<>(PERSONS);
+    actual.sort((p1, p2) -> extractor.extract(p1).compareTo(extractor.extract(p2)));
+    assertEquals(expected, actual);
+  }
+
+  /**
+   * Test case folding.
+   */
+  @Test
+  void testCaseFolding() {
+    SortKeyExtractor ignoreCase = new SortKeyExtractor(fields("lastName"));
+    assertEquals(Collections.singletonList("smith"), ignoreCase.extract(PERSONS.get(4)).getValues());
+    SortKeyExtractor caseSensitive = new SortKeyExtractor(fields("lastName,asc,false"));
+    assertEquals("SMITH", caseSensitive.extract(PERSONS.get(4)).get(0));
+    assertNotEquals(caseSensitive.extract(PERSONS.get(0)), caseSensitive.extract(PERSONS.get(4)));
+    assertEquals("straße", SortKey.foldCase("STRAßE"));
+    String same = "abc";
+    assertTrue(same == SortKey.foldCase(same));
+  }
+
+  /**
+   * Test sort keys of different extractors.
+   */
+  @Test
+  void testDifferentExtractors() {
+    SortKey k1 = new SortKeyExtractor(fields("lastName")).extract(PERSONS.get(0));
+    SortKey k2 = new SortKeyExtractor(fields("lastName")).extract(PERSONS.get(1));
+    SortKey k3 = new SortKeyExtractor(fields("lastName,desc")).extract(PERSONS.get(1));
+    assertEquals(k1, k2);
+    assertNotEquals(k1, k3);
+  }
+
+  /**
+   * Test decimal values.
+   */
+  @Test
+  void testDecimals() {
+    SortKeyExtractor extractor = new SortKeyExtractor(fields("amount"), (obj, field) -> obj);
+    SortKey k1 = extractor.extract(new BigDecimal("1.0"));
+    SortKey k2 = extractor.extract(new BigDecimal("1.00"));
+    SortKey k3 = extractor.extract(new BigDecimal("0.00"));
+    SortKey k4 = extractor.extract(BigDecimal.ZERO);
+    assertEquals(k1, k2);
+    assertEquals(k1.hashCode(), k2.hashCode());
+    assertEquals(k3, k4);
+    assertEquals(k3.hashCode(), k4.hashCode());
+  }
+
+  /**
+   * Test sort keys as map keys.
+   */
+  @Test
+  void testMapKeys() {
+    SortKeyExtractor extractor = new SortKeyExtractor(fields("lastName|age"));
+    Map<SortKey, Integer> hashMap = new HashMap<>();
+    Map<SortKey, Integer> treeMap = new TreeMap<>();
+    for (Person person : PERSONS) {
+      hashMap.merge(extractor.extract(person), 1, Integer::sum);
+      treeMap.merge(extractor.extract(person), 1, Integer::sum);
+    }
+    assertEquals(4, hashMap.size());
+    assertEquals(hashMap, treeMap);
+    assertEquals(2, hashMap.get(extractor.extract(new Person(9L, "SMiTH", null, 30))));
+  }
+
+  /**
+   * Test empty fields.
+   */
+  @Test
+  void testEmptyFields() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new SortKeyExtractor(new ComparatorFields()));
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.bremersee.comparator.testmodel.ComplexObject;
+import org.bremersee.comparator.testmodel.Person;
+import org.bremersee.comparator.testmodel.SimpleObject;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The sort merge join tests.
+ *
+ * @author Christian Bremer
+ */
+class SortMergeJoinTests {
+
+  private static List<String> ids(List<Map.Entry<Person, Person>> pairs) {
+    List<String> ids = new ArrayList<>();
+    for (Map.Entry<Person, Person> pair : pairs) {
+      ids.add(pair.getKey().getId() + ":"
+          + (pair.getValue() != null ? String.valueOf(pair.getValue().getId()) : "-"));
+    }
+    return ids;
+  }
+
+  /**
+   * Test inner join with different key paths.
+   */
+  @Test
+  void testInnerJoinWithPaths() {
+    List<SimpleObject> left = Arrays.asList(
+        new SimpleObject(3), new SimpleObject(1), new SimpleObject(2), new SimpleObject(5));
+    List<ComplexObject> right = Arrays.asList(
+        new ComplexObject(new SimpleObject(2)),
+        new ComplexObject(new SimpleObject(3)),
+        new ComplexObject(new SimpleObject(4)),
+        new ComplexObject(new SimpleObject(2)));
+    SortMergeJoin join = new SortMergeJoin(fields("number"), fields("simple.number"));
+    List<Map.Entry<SimpleObject, ComplexObject>> pairs = join.innerJoin(left, right);
+    assertEquals(3, pairs.size());
+    assertSame(left.get(2), pairs.get(0).getKey());
+    assertSame(right.get(0), pairs.get(0).getValue());
+    assertSame(left.get(2), pairs.get(1).getKey());
+    assertSame(right.get(3), pairs.get(1).getValue());
+    assertSame(left.get(0), pairs.get(2).getKey());
+    assertSame(right.get(1), pairs.get(2).getValue());
+  }
+
+  /**
+   * Test left join with case insensitive keys and null keys.
+   */
+  @Test
+  void testLeftJoin() {
+    List<Person> left = Arrays.asList(
+        new Person(1L, "smith", "Anna", 30),
+        new Person(2L, null, "Bert", null),
+        new Person(3L, "Adams", "Carl", 25),
+        new Person(4L, "Jones", "Dora", 30));
+    List<Person> right = Arrays.asList(
+        new Person(11L, "SMITH", "Eva", 30),
+        new Person(12L, null, "Fred", 41),
+        new Person(13L, "adams", "Gina", null),
+        new Person(14L, "Smith", "Hans", 22));
+    SortMergeJoin join = new SortMergeJoin(fields("lastName"), fields("lastName"));
+    assertEquals(Arrays.asList("3:13", "4:-", "1:11", "1:14", "2:-"),
+        ids(join.leftJoin(left, right)));
+    assertEquals(Arrays.asList("3:13", "1:11", "1:14"), ids(join.innerJoin(left, right)));
+    List<Map.Entry<Person, Person>> pairs = join.leftJoin(left, Collections.emptyList());
+    assertEquals(4, pairs.size());
+    pairs.forEach(pair -> assertNull(pair.getValue()));
+    assertTrue(join.innerJoin(null, right).isEmpty());
+  }
+
+  /**
+   * Test join against a nested loop join with random data.
+   */
+  @Test
+  void testAgainstNestedLoops() {
+    Random random = new Random(35L);
+    List<Person> left = new ArrayList<>();
+    List<Person> right = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      left.add(new Person(i, random.nextInt(10) == 0 ? null : "n" + random.nextInt(20), null,
+          random.nextInt(4)));
+      right.add(new Person(1000 + i, random.nextInt(10) == 0 ? null : "N" + random.nextInt(20),
+          null, random.nextInt(4)));
+    }
+    SortMergeJoin join = new SortMergeJoin(
+        fields("lastName,desc|age"), fields("lastName,desc|age"));
+    List<String> actual = ids(join.leftJoin(left, right));
+    int count = 0;
+    for (Person l : left) {
+      boolean matched = false;
+      for (Person r : right) {
+        if (l.getLastName() != null && l.getLastName().equalsIgnoreCase(r.getLastName())
+            && l.getAge().equals(r.getAge())) {
+          assertTrue(actual.contains(l.getId() + ":" + r.getId()));
+          matched = true;
+          count++;
+        }
+      }
+      if (!matched) {
+        assertTrue(actual.contains(l.getId() + ":-"));
+        count++;
+      }
+    }
+    assertEquals(count, actual.size());
+  }
+
+  /**
+   * Test join of sorted inputs.
+   */
+  @Test
+  void testSorted() {
+    List<Person> left = Arrays.asList(
+        new Person(1L, "Adams", null, 1),
+        new Person(2L, "Smith", null, 2));
+    List<Person> right = Arrays.asList(
+        new Person(11L, "Adams", null, 3),
+        new Person(12L, "Jones", null, 4),
+        new Person(13L, "Smith", null, 5));
+    SortMergeJoin join = new SortMergeJoin(fields("lastName"), fields("lastName"));
+    List<String> ids = new ArrayList<>();
+    join.<Person, Person>join(left, right, false, true,
+        (l, r) -> ids.add(l.getId() + ":" + r.getId()));
+    assertEquals(Arrays.asList("1:11", "2:13"), ids);
+    List<Person> unsorted = Arrays.asList(right.get(2), right.get(0));
+    assertThrows(IllegalArgumentException.class,
+        () -> join.join(left, unsorted, false, true, (l, r) -> {
+        }));
+  }
+
+  /**
+   * Test incompatible comparator fields.
+   */
+  @Test
+  void testIncompatibleFields() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new SortMergeJoin(fields("lastName"), fields("lastName|age")));
+    assertThrows(IllegalArgumentException.class,
+        () -> new SortMergeJoin(fields("lastName"), fields("lastName,desc")));
+  }
+
+}
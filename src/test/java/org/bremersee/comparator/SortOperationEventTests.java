@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The sort operation event tests.
+ *
+ * @author Christian Bremer
+ */
+class SortOperationEventTests {
+
+  private static final List<Person> PERSONS = Arrays.asList(
+      new Person(1L, "smith", "Anna", 30),
+      new Person(2L, "Smith", "Bert", null),
+      new Person(3L, null, "Carl", 25),
+      new Person(4L, "Adams", "Dora", 30));
+
+  private static List<RecordedEvent> record(Runnable runnable) throws Exception {
+    Path file = Files.createTempFile("sort-operation", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable(SortOperationEvent.NAME).withThreshold(Duration.ZERO);
+        recording.start();
+        runnable.run();
+        recording.stop();
+        recording.dump(file);
+      }
+      List<RecordedEvent> events = new ArrayList<>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (SortOperationEvent.NAME.equals(event.getEventType().getName())) {
+          events.add(event);
+        }
+      }
+      return events;
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Test events of grouping, keyset paging and merge join.
+   *
+   * @throws Exception if recording fails
+   */
+  @Test
+  void testEvents() throws Exception {
+    List<RecordedEvent> events = record(() -> {
+      Grouping.group(PERSONS, fields("lastName"));
+      new KeysetPager(fields("lastName|id")).firstPage(PERSONS, 2);
+      new SortMergeJoin(fields("id"), fields("id")).innerJoin(PERSONS, PERSONS);
+    });
+    assertEquals(3, events.size());
+
+    RecordedEvent sort = events.get(0);
+    assertEquals(SortOperationEvent.SORT, sort.getString("operation"));
+    assertEquals("lastName,asc,true,false", sort.getString("specification"));
+    assertEquals(4L, sort.getLong("elementCount"));
+    assertTrue(sort.getLong("comparisons") >= 3L);
+    assertTrue(sort.getDuration("extractionTime").toNanos() > 0L);
+    assertFalse(sort.getBoolean("fastPath"));
+
+    RecordedEvent topK = events.get(1);
+    assertEquals(SortOperationEvent.TOP_K, topK.getString("operation"));
+    assertEquals("lastName,asc,true,false|id,asc,true,false", topK.getString("specification"));
+    assertTrue(topK.getLong("comparisons") > 0L);
+
+    RecordedEvent merge = events.get(2);
+    assertEquals(SortOperationEvent.MERGE, merge.getString("operation"));
+    assertEquals("id,asc,true,false = id,asc,true,false", merge.getString("specification"));
+    assertEquals(8L, merge.getLong("elementCount"));
+    assertTrue(merge.getLong("comparisons") >= 4L);
+  }
+
+  /**
+   * Test the fast path of a merge join of sorted inputs.
+   *
+   * @throws Exception if recording fails
+   */
+  @Test
+  void testFastPath() throws Exception {
+    List<RecordedEvent> events = record(() -> new SortMergeJoin(fields("id"), fields("id"))
+        .join(PERSONS, PERSONS, false, true, (l, r) -> {
+        }));
+    assertEquals(1, events.size());
+    assertTrue(events.get(0).getBoolean("fastPath"));
+  }
+
+  /**
+   * Test that nothing is counted without a recording.
+   */
+  @Test
+  void testDisabled() {
+    SortOperationEvent event = SortOperationEvent.start(SortOperationEvent.SORT);
+    assertEquals(0L, event.extractionStarted());
+    event.extractionFinished(0L);
+    assertEquals(0L, event.extractionTime);
+  }
+
+}
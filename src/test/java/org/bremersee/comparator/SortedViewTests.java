@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The sorted view tests.
+ *
+ * @author Christian Bremer
+ */
+class SortedViewTests {
+
+  private static final String WKT = "age,asc,true,true|lastName|id";
+
+  private static SortedView<Person> createView() {
+    return new SortedView<>(new WellKnownTextConverter().convert(WKT));
+  }
+
+  private static void assertSorted(SortedView<Person> view, List<Person> persons) {
+    List<Person> expected = new ArrayList<>(persons);
+    expected.sort(ComparatorBuilder.builder().fromWellKnownText(WKT).build());
+    assertEquals(expected, view.asList());
+  }
+
+  /**
+   * Test add, update, reposition and remove.
+   */
+  @Test
+  void testMutations() {
+    Random random = new Random(7L);
+    List<Person> persons = new ArrayList<>();
+    SortedView<Person> view = createView();
+    for (int i = 0; i < 200; i++) {
+      Person person = new Person(i, "n" + random.nextInt(20), "f",
+          random.nextInt(10) == 0 ? null : random.nextInt(30));
+      persons.add(person);
+      view.add(person);
+    }
+    assertSorted(view, persons);
+
+    for (int i = 0; i < 100; i++) {
+      Person person = persons.get(random.nextInt(persons.size()));
+      assertTrue(view.update(person, p -> p.setAge(random.nextInt(30))));
+      assertSorted(view, persons);
+
+      person = persons.get(random.nextInt(persons.size()));
+      person.setLastName("n" + random.nextInt(20));
+      assertTrue(view.reposition(person));
+      assertSorted(view, persons);
+
+      person = persons.remove(random.nextInt(persons.size()));
+      assertTrue(view.remove(person));
+      assertFalse(view.contains(person));
+      assertSorted(view, persons);
+    }
+    assertEquals(100, view.size());
+  }
+
+  /**
+   * Test add all.
+   */
+  @Test
+  void testAddAll() {
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      persons.add(new Person(i, "n" + (i % 7), "f", i % 5));
+    }
+    SortedView<Person> view = createView();
+    view.addAll(persons.subList(0, 3));
+    view.addAll(persons.subList(3, 50));
+    assertSorted(view, persons);
+    view.clear();
+    assertTrue(view.isEmpty());
+  }
+
+  /**
+   * Test that equal elements keep the insertion order.
+   */
+  @Test
+  void testStableOrder() {
+    SortedView<String> view = new SortedView<>(Comparator.comparingInt(String::length));
+    assertEquals(0, view.add("bb"));
+    assertEquals(1, view.add("cc"));
+    assertEquals(0, view.add("a"));
+    assertEquals(3, view.add("dd"));
+    assertEquals("[a, bb, cc, dd]", view.toString());
+    assertEquals(2, view.indexOf("cc"));
+    assertEquals("bb", view.removeAt(1));
+    assertEquals(-1, view.indexOf("bb"));
+  }
+
+  /**
+   * Test that update changes the given instance and not an equal one.
+   */
+  @Test
+  void testUpdateByIdentity() {
+    SortedView<List<Integer>> view = new SortedView<>(
+        Comparator.comparing((List<Integer> list) -> list.get(0)));
+    List<Integer> first = new ArrayList<>(Collections.singletonList(1));
+    List<Integer> second = new ArrayList<>(Collections.singletonList(1));
+    view.add(first);
+    view.add(second);
+    assertTrue(view.update(second, list -> list.set(0, 0)));
+    assertSame(second, view.get(0));
+    assertSame(first, view.get(1));
+  }
+
+  /**
+   * Test concurrent modification.
+   */
+  @Test
+  void testConcurrentModification() {
+    SortedView<String> view = new SortedView<>(Comparator.naturalOrder());
+    view.add("a");
+    view.add("b");
+    Iterator<String> iterator = view.iterator();
+    iterator.next();
+    view.add("c");
+    assertThrows(ConcurrentModificationException.class, iterator::next);
+    assertThrows(IndexOutOfBoundsException.class, () -> view.get(3));
+  }
+
+}
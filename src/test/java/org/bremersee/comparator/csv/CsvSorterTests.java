@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.csv;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.bremersee.comparator.testmodel.TestData.persons;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.bremersee.comparator.ArgSort;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The CSV sorter tests.
+ *
+ * @author Christian Bremer
+ */
+class CsvSorterTests {
+
+  private static String sort(CsvSorter sorter, String csv) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sorter.sort(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), out);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Test that the records are sorted like the objects.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if sorting fails
+   */
+  @Test
+  void testSort(@TempDir Path tempDirectory) throws IOException {
+    List<Person> persons = persons(500, 50L);
+    for (int i = 0; i < persons.size(); i++) {
+      Person person = persons.get(i);
+      person.setFirstName(i % 2 == 0 ? "Doe, \"J\"" : "Line\nbreak");
+      if (person.getAge() != null) {
+        person.setAge(person.getAge() - 10);
+      }
+    }
+    StringBuilder csv = new StringBuilder("id;lastName;firstName;age\r\n");
+    for (Person person : persons) {
+      csv.append(person.getId()).append(';')
+          .append(person.getLastName() != null ? person.getLastName() : "").append(';')
+          .append('"').append(person.getFirstName().replace("\"", "\"\"")).append("\";")
+          .append(person.getAge() != null ? person.getAge() : "").append("\r\n");
+    }
+    for (String wkt : new String[]{"lastName", "age,desc,true,true|lastName,desc", "id,desc"}) {
+      List<Person> expected = ArgSort.permuted(persons, ArgSort.argsort(persons, fields(wkt)));
+      CsvSorter sorter = CsvSorter.builder()
+          .comparatorFields(fields(wkt))
+          .delimiter(';')
+          .columnType("id", CsvColumnType.LONG)
+          .columnType("age", CsvColumnType.LONG)
+          .runSize(77)
+          .tempDirectory(tempDirectory)
+          .build();
+      String sorted = sort(sorter, csv.toString());
+      String[] lines = sorted.split("\r\n");
+      assertEquals("id;lastName;firstName;age", lines[0]);
+      List<Long> ids = new ArrayList<>();
+      for (int i = 1; i < lines.length; i++) {
+        ids.add(Long.valueOf(lines[i].substring(0, lines[i].indexOf(';'))));
+      }
+      assertEquals(expected.stream().map(Person::getId).collect(Collectors.toList()), ids, wkt);
+    }
+  }
+
+  /**
+   * Test the column types.
+   *
+   * @throws IOException if sorting fails
+   */
+  @Test
+  void testColumnTypes() throws IOException {
+    String csv = "\ufeffname,amount,\"due date\"\n"
+        + "a,10,03.01.2020\n"
+        + "b,9.5,01.02.2020\n"
+        + "\"c\",,\n"
+        + "d,-1e1,01.01.2021";
+    CsvSorter.Builder builder = CsvSorter.builder()
+        .columnType("amount", CsvColumnType.DECIMAL)
+        .columnType("due date", CsvColumnType.DATE)
+        .dateFormatter(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
+    assertEquals("\ufeffname,amount,\"due date\"\nd,-1e1,01.01.2021\nb,9.5,01.02.2020\n"
+            + "a,10,03.01.2020\n\"c\",,\n",
+        sort(builder.comparatorFields(fields("amount")).build(), csv));
+    assertEquals("\ufeffname,amount,\"due date\"\n\"c\",,\na,10,03.01.2020\n"
+            + "b,9.5,01.02.2020\nd,-1e1,01.01.2021\n",
+        sort(builder.comparatorFields(fields("due date,asc,true,true")).build(), csv));
+    assertEquals("\ufeffname,amount,\"due date\"\n\"c\",,\nd,-1e1,01.01.2021\n"
+            + "a,10,03.01.2020\nb,9.5,01.02.2020\n",
+        sort(CsvSorter.builder().comparatorFields(fields("amount,asc,true,true")).build(), csv));
+    assertEquals("", sort(builder.build(), ""));
+  }
+
+  /**
+   * Test malformed input and illegal arguments.
+   */
+  @Test
+  void testIllegalInput() {
+    CsvSorter sorter = CsvSorter.builder()
+        .comparatorFields(fields("a"))
+        .columnType("a", CsvColumnType.LONG)
+        .build();
+    assertThrows(IOException.class, () -> sort(sorter, "a,b\n1,2\nx,3"));
+    assertThrows(IllegalArgumentException.class, () -> sort(sorter, "b,c\n1,2"));
+    assertThrows(IllegalArgumentException.class, () -> CsvSorter.builder().build());
+    assertThrows(IllegalArgumentException.class, () -> CsvSorter.builder().delimiter('"'));
+  }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaBuilder.Case;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.WellKnownTextConverter;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The JPA order translator tests. The translated orders are executed by a JPA provider against an
+ * embedded database and the result is compared with the order of the in-memory comparator.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+class JpaOrderTranslatorTests {
+
+  private static final List<PersonEntity> PERSONS = Arrays.asList(
+      new PersonEntity(1L, "smith", "Anna", 30),
+      new PersonEntity(2L, "Smith", "bert", null),
+      new PersonEntity(3L, null, "Carl", 25),
+      new PersonEntity(4L, "adams", null, 30),
+      new PersonEntity(5L, "Baker", "anna", null),
+      new PersonEntity(6L, "baker", "Dora", 41),
+      new PersonEntity(7L, null, "eva", null));
+
+  private static EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Creates the database.
+   */
+  @BeforeAll
+  static void createDatabase() {
+    entityManagerFactory = new Configuration()
+        .addAnnotatedClass(PersonEntity.class)
+        .setProperty("hibernate.connection.url", "jdbc:h2:mem:jpa_sort_test")
+        .setProperty("hibernate.connection.username", "sa")
+        .setProperty("hibernate.connection.password", "")
+        .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+        .buildSessionFactory();
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    entityManager.getTransaction().begin();
+    PERSONS.forEach(entityManager::persist);
+    entityManager.getTransaction().commit();
+    entityManager.close();
+  }
+
+  /**
+   * Closes the database.
+   */
+  @AfterAll
+  static void closeDatabase() {
+    entityManagerFactory.close();
+  }
+
+  private static List<Long> query(JpaOrderTranslator translator, ComparatorFields fields) {
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+      CriteriaQuery<PersonEntity> query = cb.createQuery(PersonEntity.class);
+      Root<PersonEntity> root = query.from(PersonEntity.class);
+      query.select(root).orderBy(translator.toOrders(fields, cb, root));
+      return entityManager.createQuery(query).getResultList().stream()
+          .map(PersonEntity::getId)
+          .collect(Collectors.toList());
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  private static List<Long> sortInMemory(ComparatorFields fields) {
+    List<PersonEntity> persons = new ArrayList<>(PERSONS);
+    persons.sort(ComparatorBuilder.builder().addAll(fields).build());
+    return persons.stream().map(PersonEntity::getId).collect(Collectors.toList());
+  }
+
+  /**
+   * Test that the database returns the same order as the in-memory comparator.
+   */
+  @Test
+  void testSameOrderAsInMemory() {
+    String[] wkts = {
+        "lastName|id",
+        "lastName,asc,false|id",
+        "lastName,desc,true,true|firstName|id",
+        "age,asc,true,true|id,desc",
+        "age,desc,true,false|lastName,desc,false,true|id",
+        "firstName,desc,true,true|id"
+    };
+    JpaOrderTranslator translator = new JpaOrderTranslator(
+        Arrays.asList("id", "lastName", "firstName", "age"));
+    WellKnownTextConverter converter = new WellKnownTextConverter();
+    for (String wkt : wkts) {
+      ComparatorFields fields = converter.convert(wkt);
+      assertEquals(sortInMemory(fields), query(translator, fields), "Order of '" + wkt + "'");
+    }
+  }
+
+  /**
+   * Test to orders.
+   */
+  @Test
+  void testToOrders() {
+    Path root = mock(Path.class);
+    Path person = mock(Path.class);
+    Path lastName = mock(Path.class);
+    Path age = mock(Path.class);
+    when(root.get("person")).thenReturn(person);
+    when(person.get("lastName")).thenReturn(lastName);
+    when(lastName.getJavaType()).thenReturn(String.class);
+    when(root.get("age")).thenReturn(age);
+    when(age.getJavaType()).thenReturn(Integer.class);
+
+    CriteriaBuilder cb = mock(CriteriaBuilder.class);
+    Expression lowerLastName = mock(Expression.class);
+    when(cb.lower(lastName)).thenReturn(lowerLastName);
+    Case selectCase = mock(Case.class);
+    Expression caseExpression = mock(Expression.class);
+    when(cb.selectCase()).thenReturn(selectCase);
+    when(selectCase.when(any(Expression.class), any(Integer.class))).thenReturn(selectCase);
+    when(selectCase.otherwise(any(Integer.class))).thenReturn(caseExpression);
+    when(cb.isNull(any())).thenReturn(mock(Predicate.class));
+    Order order0 = mock(Order.class);
+    Order order1 = mock(Order.class);
+    Order order2 = mock(Order.class);
+    when(cb.asc(caseExpression)).thenReturn(order0);
+    when(cb.asc(lowerLastName)).thenReturn(order1);
+    when(cb.desc(age)).thenReturn(order2);
+
+    JpaOrderTranslator translator = new JpaOrderTranslator(
+        Collections.singletonMap("name", "person.lastName"), false);
+    ComparatorFields fields = new WellKnownTextConverter().convert("name");
+    assertEquals(Collections.singletonList(order1), translator.toOrders(fields, cb, root));
+    verify(cb, never()).selectCase();
+
+    translator = new JpaOrderTranslator(Arrays.asList("person.lastName", "age"));
+    fields = new WellKnownTextConverter().convert("person.lastName|age,desc,true,true");
+    List<Order> orders = translator.toOrders(fields, cb, root);
+    assertEquals(4, orders.size());
+    assertSame(order0, orders.get(0));
+    assertSame(order1, orders.get(1));
+    assertSame(order0, orders.get(2));
+    assertSame(order2, orders.get(3));
+    verify(selectCase, times(2)).when(any(Expression.class), eq(1));
+    verify(selectCase, times(2)).otherwise(0);
+  }
+
+  /**
+   * Test field that is not allowed and expect illegal argument exception.
+   */
+  @Test
+  void testFieldThatIsNotAllowedAndExpectIllegalArgumentException() {
+    JpaOrderTranslator translator = new JpaOrderTranslator(Collections.singletonList("a"));
+    ComparatorFields fields = new WellKnownTextConverter().convert("b");
+    assertThrows(IllegalArgumentException.class,
+        () -> translator.toOrders(fields, mock(CriteriaBuilder.class), mock(Path.class)));
+  }
+
+  /**
+   * The person entity.
+   */
+  @Entity
+  @Table(name = "jpa_person")
+  static class PersonEntity {
+
+    @Id
+    private Long id;
+
+    private String lastName;
+
+    private String firstName;
+
+    private Integer age;
+
+    /**
+     * Instantiates a new person entity.
+     */
+    protected PersonEntity() {
+    }
+
+    private PersonEntity(Long id, String lastName, String firstName, Integer age) {
+      this.id = id;
+      this.lastName = lastName;
+      this.firstName = firstName;
+      this.age = age;
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the id
+     */
+    public Long getId() {
+      return id;
+    }
+  }
+
+}
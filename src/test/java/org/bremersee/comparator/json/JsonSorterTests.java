@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.json;
+
+import static org.bremersee.comparator.testmodel.TestData.fields;
+import static org.bremersee.comparator.testmodel.TestData.persons;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.bremersee.comparator.ArgSort;
+import org.bremersee.comparator.DeflateSpillCodec;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The JSON sorter tests.
+ *
+ * @author Christian Bremer
+ */
+class JsonSorterTests {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static String sort(JsonSorter sorter, String json) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sorter.sort(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), out);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Test that newline-delimited JSON is sorted like the bound objects.
+   *
+   * @param tempDirectory the temporary directory
+   * @throws IOException if sorting fails
+   */
+  @Test
+  void testNewlineDelimitedJson(@TempDir Path tempDirectory) throws IOException {
+    List<Person> persons = persons(500, 49L);
+    StringBuilder json = new StringBuilder();
+    for (Person person : persons) {
+      json.append(OBJECT_MAPPER.writeValueAsString(person)).append('\n');
+    }
+    for (String wkt : new String[]{"lastName", "age,desc,true,true|lastName,desc", "id,desc"}) {
+      List<Person> expected = ArgSort.permuted(persons, ArgSort.argsort(persons, fields(wkt)));
+      JsonSorter sorter = JsonSorter.builder()
+          .comparatorFields(fields(wkt))
+          .memoryLimit(8 * 1024)
+          .tempDirectory(tempDirectory)
+          .codec(new DeflateSpillCodec())
+          .build();
+      String sorted = sort(sorter, json.toString());
+      List<Long> ids = new ArrayList<>();
+      for (String line : sorted.split("\n")) {
+        ids.add(OBJECT_MAPPER.readTree(line).get("id").asLong());
+      }
+      assertEquals(expected.stream().map(Person::getId).collect(Collectors.toList()), ids, wkt);
+    }
+  }
+
+  /**
+   * Test nested paths, raw bytes, blank lines and line terminators.
+   *
+   * @throws IOException if sorting fails
+   */
+  @Test
+  void testPathsAndRawBytes() throws IOException {
+    String json = "{\"a\": {\"b\": 2, \"c\": [1]}, \"n\": \"x\"}\r\n"
+        + "\n"
+        + "{\"n\":\"y\",\"a\":{\"b\":1.5}}\n"
+        + "  \n"
+        + "{\"a\":{\"b\":null},\"d\":{\"a\":{\"b\":0}}}";
+    JsonSorter sorter = JsonSorter.builder()
+        .comparatorFields(fields("a.b,asc,true,true|n"))
+        .build();
+    assertEquals("{\"a\":{\"b\":null},\"d\":{\"a\":{\"b\":0}}}\n"
+        + "{\"n\":\"y\",\"a\":{\"b\":1.5}}\n"
+        + "{\"a\": {\"b\": 2, \"c\": [1]}, \"n\": \"x\"}\n", sort(sorter, json));
+    assertEquals("", sort(sorter, " \n"));
+  }
+
+  /**
+   * Test a JSON array.
+   *
+   * @throws IOException if sorting fails
+   */
+  @Test
+  void testArray() throws IOException {
+    JsonSorter sorter = JsonSorter.builder()
+        .comparatorFields(fields("name,desc|nice"))
+        .runSize(1)
+        .build();
+    String sorted = sort(sorter, " [ {\"name\": \"a\", \"nice\": true}, "
+        + "{\"name\": \"B\"}, {\"name\": \"a\", \"nice\": false} ]");
+    assertEquals("[\n{\"name\":\"B\"},\n"
+        + "{\"name\":\"a\",\"nice\":false},\n"
+        + "{\"name\":\"a\",\"nice\":true}\n]\n", sorted);
+    JsonNode node = OBJECT_MAPPER.readTree(sorted);
+    assertEquals(3, node.size());
+    assertEquals("[]\n", sort(sorter, "[]"));
+  }
+
+  /**
+   * Test that the input stream is not closed after sorting a JSON array.
+   *
+   * @throws IOException if sorting fails
+   */
+  @Test
+  void testInputStaysOpen() throws IOException {
+    boolean[] closed = {false};
+    InputStream in = new ByteArrayInputStream("[{\"a\":2},{\"a\":1}]"
+        .getBytes(StandardCharsets.UTF_8)) {
+      @Override
+      public void close() throws IOException {
+        closed[0] = true;
+        super.close();
+      }
+    };
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonSorter.builder().comparatorFields(fields("a")).build().sort(in, out);
+    assertEquals("[\n{\"a\":1},\n{\"a\":2}\n]\n", out.toString(StandardCharsets.UTF_8));
+    assertFalse(closed[0]);
+  }
+
+  /**
+   * Test malformed input and illegal arguments.
+   */
+  @Test
+  void testIllegalInput() {
+    JsonSorter sorter = JsonSorter.builder().comparatorFields(fields("a")).build();
+    assertThrows(IOException.class, () -> sort(sorter, "{\"a\":1}\n{\"a\":"));
+    assertThrows(IOException.class, () -> sort(sorter, "1\n2"));
+    assertThrows(IllegalArgumentException.class, () -> JsonSorter.builder().build());
+  }
+
+}
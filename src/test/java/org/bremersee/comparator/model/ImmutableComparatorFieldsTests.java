@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The immutable comparator field(s) tests.
+ *
+ * @author Christian Bremer
+ */
+class ImmutableComparatorFieldsTests {
+
+  private static JAXBContext jaxbContext;
+
+  /**
+   * Create jaxb context.
+   *
+   * @throws JAXBException the jaxb exception
+   */
+  @BeforeAll
+  static void createJaxbContext() throws JAXBException {
+    jaxbContext = JAXBContext.newInstance(ObjectFactory.class.getPackage().getName());
+  }
+
+  /**
+   * Test immutable comparator field.
+   */
+  @Test
+  void testImmutableComparatorField() {
+    ComparatorField field = new ComparatorField("i0", false, true, true);
+    ImmutableComparatorField immutableField = field.freeze();
+
+    assertEquals(field, immutableField);
+    assertEquals(immutableField, field);
+    assertEquals(field.hashCode(), immutableField.hashCode());
+    assertEquals(Objects.hash("i0", false, true, true), immutableField.hashCode());
+    assertEquals(field.toWkt(), immutableField.toWkt());
+    assertSame(immutableField, immutableField.freeze());
+    assertSame(immutableField, ImmutableComparatorField.of("i0", false, true, true));
+    assertThrows(IllegalArgumentException.class, () -> ImmutableComparatorField.copyOf(null));
+  }
+
+  /**
+   * Test immutable comparator fields.
+   */
+  @Test
+  void testImmutableComparatorFields() {
+    ComparatorFields fields = new ComparatorFields(Arrays.asList(
+        new ComparatorField("i0", true, true, false),
+        new ComparatorField("i1", false, true, false)));
+    ImmutableComparatorFields immutableFields = fields.freeze();
+
+    assertEquals(fields, immutableFields);
+    assertEquals(immutableFields, fields);
+    assertEquals(fields.hashCode(), immutableFields.hashCode());
+    assertEquals("i0,asc,true,false|i1,desc,true,false", immutableFields.toWkt());
+    assertEquals(fields.toWkt(), immutableFields.toString());
+    assertSame(immutableFields, immutableFields.freeze());
+    assertSame(immutableFields, ImmutableComparatorFields.copyOf(fields.getFields()));
+    assertSame(immutableFields, ImmutableComparatorFields.of(
+        ImmutableComparatorField.of("i0", true, true, false),
+        new ComparatorField("i1", false, true, false)));
+    assertSame(ImmutableComparatorField.of("i1", false, true, false),
+        immutableFields.getFields().get(1));
+    assertSame(ImmutableComparatorFields.EMPTY, ImmutableComparatorFields.copyOf(
+        (ComparatorFields) null));
+    assertThrows(UnsupportedOperationException.class,
+        () -> immutableFields.getFields().add(new ComparatorField()));
+  }
+
+  /**
+   * Test xml and json serialization.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void testSerialization() throws Exception {
+    ImmutableComparatorFields fields = ImmutableComparatorFields.of(
+        new ComparatorField("i0", true, false, false),
+        new ComparatorField("i1", false, true, true));
+
+    StringWriter sw = new StringWriter();
+    jaxbContext.createMarshaller().marshal(fields, sw);
+    ComparatorFields readFields = (ComparatorFields) jaxbContext.createUnmarshaller()
+        .unmarshal(new StringReader(sw.toString()));
+    assertEquals(fields, readFields);
+
+    ObjectMapper om = new ObjectMapper();
+    readFields = om.readValue(om.writeValueAsString(fields), ComparatorFields.class);
+    assertEquals(fields, readFields);
+  }
+
+}
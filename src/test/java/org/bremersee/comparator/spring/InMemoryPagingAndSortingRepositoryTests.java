@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+
+/**
+ * The in-memory paging and sorting repository tests.
+ *
+ * @author Christian Bremer
+ */
+class InMemoryPagingAndSortingRepositoryTests {
+
+  private static final Sort SORT = Sort.by(
+      new Order(Direction.DESC, "age").nullsLast(),
+      Order.asc("lastName").ignoreCase(),
+      Order.asc("id"));
+
+  private static List<Person> expected(Iterable<Person> persons) {
+    List<Person> list = new ArrayList<>();
+    persons.forEach(list::add);
+    list.sort(ComparatorBuilder.builder().addAll(ComparatorSpringUtils.fromSort(SORT)).build());
+    return list;
+  }
+
+  private static List<Person> toList(Iterable<Person> persons) {
+    List<Person> list = new ArrayList<>();
+    persons.forEach(list::add);
+    return list;
+  }
+
+  /**
+   * Test find all with sort and pageable while the repository is changed.
+   */
+  @Test
+  void testFindAll() {
+    InMemoryPagingAndSortingRepository<Person, Long> repository
+        = new InMemoryPagingAndSortingRepository<>(Person::getId);
+    Random random = new Random(3L);
+    for (long id = 0; id < 100; id++) {
+      repository.save(new Person(id, "n" + random.nextInt(10), "f", random.nextInt(20)));
+    }
+    assertEquals(expected(repository.findAll()), toList(repository.findAll(SORT)));
+    assertTrue(repository.getIndexedComparatorFields().isEmpty());
+    assertEquals(expected(repository.findAll()), toList(repository.findAll(SORT)));
+    assertEquals(1, repository.getIndexedComparatorFields().size());
+
+    for (int i = 0; i < 50; i++) {
+      long id = random.nextInt(120);
+      switch (random.nextInt(3)) {
+        case 0:
+          repository.save(new Person(id, "n" + random.nextInt(10), "f", random.nextInt(20)));
+          break;
+        case 1:
+          repository.findById(id).ifPresent(person -> {
+            person.setAge(random.nextInt(5) == 0 ? null : random.nextInt(20));
+            repository.save(person);
+          });
+          break;
+        default:
+          repository.deleteById(id);
+      }
+      List<Person> expected = expected(repository.findAll());
+      Pageable pageable = PageRequest.of(2, 7, SORT);
+      Page<Person> page = repository.findAll(pageable);
+      assertEquals(expected.size(), page.getTotalElements());
+      assertEquals(expected.subList(14, 21), page.getContent());
+    }
+  }
+
+  /**
+   * Test eviction of the least recently used index.
+   */
+  @Test
+  void testIndexEviction() {
+    InMemoryPagingAndSortingRepository<Person, Long> repository
+        = new InMemoryPagingAndSortingRepository<>(Person::getId, 1, 1, null);
+    repository.saveAll(Arrays.asList(
+        new Person(1L, "b", "x", 1),
+        new Person(2L, "a", "y", 2)));
+    assertEquals(Arrays.asList(2L, 1L), ids(repository.findAll(Sort.by("lastName"))));
+    assertEquals("lastName,asc,false,false",
+        repository.getIndexedComparatorFields().get(0).toWkt());
+    assertEquals(Arrays.asList(1L, 2L), ids(repository.findAll(Sort.by("firstName"))));
+    assertEquals("firstName,asc,false,false",
+        repository.getIndexedComparatorFields().get(0).toWkt());
+    assertEquals(1, repository.getIndexedComparatorFields().size());
+  }
+
+  /**
+   * Test crud operations.
+   */
+  @Test
+  void testCrud() {
+    InMemoryPagingAndSortingRepository<Person, Long> repository
+        = new InMemoryPagingAndSortingRepository<>(Person::getId);
+    Person anna = new Person(1L, "Smith", "Anna", 30);
+    Person bert = new Person(2L, "Jones", "Bert", 40);
+    repository.saveAll(Arrays.asList(anna, bert));
+    assertEquals(2L, repository.count());
+    assertTrue(repository.existsById(1L));
+    assertEquals(Collections.singletonList(bert), toList(repository.findAllById(
+        Arrays.asList(2L, 3L))));
+    assertEquals(Arrays.asList(anna, bert), repository.findAll(Pageable.unpaged()).getContent());
+    repository.delete(anna);
+    assertFalse(repository.existsById(1L));
+    repository.deleteAllById(Collections.singletonList(2L));
+    assertEquals(0L, repository.count());
+    repository.save(anna);
+    repository.deleteAll(Collections.singletonList(anna));
+    repository.save(bert);
+    repository.deleteAll();
+    assertEquals(0L, repository.count());
+  }
+
+  private static List<Long> ids(Iterable<Person> persons) {
+    List<Long> ids = new ArrayList<>();
+    persons.forEach(person -> ids.add(person.getId()));
+    return ids;
+  }
+
+}
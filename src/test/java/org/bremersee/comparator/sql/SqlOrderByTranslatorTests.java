@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.WellKnownTextConverter;
+import org.bremersee.comparator.model.ComparatorFields;
+import org.bremersee.comparator.testmodel.Person;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The SQL order by translator tests. The translated clauses are executed against an embedded
+ * database and the result is compared with the order of the in-memory comparator.
+ *
+ * @author Christian Bremer
+ */
+class SqlOrderByTranslatorTests {
+
+  private static final List<Person> PERSONS = Arrays.asList(
+      new Person(1L, "smith", "Anna", 30),
+      new Person(2L, "Smith", "bert", null),
+      new Person(3L, null, "Carl", 25),
+      new Person(4L, "adams", null, 30),
+      new Person(5L, "Baker", "anna", null),
+      new Person(6L, "baker", "Dora", 41),
+      new Person(7L, null, "eva", null));
+
+  private static Connection connection;
+
+  /**
+   * Creates the database.
+   *
+   * @throws SQLException the sql exception
+   */
+  @BeforeAll
+  static void createDatabase() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:sort_test", "sa", "");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE person (id BIGINT PRIMARY KEY, last_name VARCHAR(50), "
+          + "first_name VARCHAR(50), age INT)");
+    }
+    try (PreparedStatement statement = connection.prepareStatement(
+        "INSERT INTO person (id, last_name, first_name, age) VALUES (?, ?, ?, ?)")) {
+      for (Person person : PERSONS) {
+        statement.setLong(1, person.getId());
+        statement.setString(2, person.getLastName());
+        statement.setString(3, person.getFirstName());
+        if (person.getAge() != null) {
+          statement.setInt(4, person.getAge());
+        } else {
+          statement.setNull(4, Types.INTEGER);
+        }
+        statement.executeUpdate();
+      }
+    }
+  }
+
+  /**
+   * Closes the database.
+   *
+   * @throws SQLException the sql exception
+   */
+  @AfterAll
+  static void closeDatabase() throws SQLException {
+    connection.close();
+  }
+
+  private static SqlOrderByTranslator translator(SqlDialect dialect) {
+    return SqlOrderByTranslator.builder()
+        .dialect(dialect)
+        .column("id", "p.id")
+        .textColumn("lastName", "p.last_name")
+        .textColumn("firstName", "p.first_name")
+        .column("age", "p.age")
+        .build();
+  }
+
+  private static List<Long> query(String orderBy) throws SQLException {
+    List<Long> ids = new ArrayList<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT p.id FROM person p " + orderBy)) {
+      while (resultSet.next()) {
+        ids.add(resultSet.getLong(1));
+      }
+    }
+    return ids;
+  }
+
+  private static List<Long> sortInMemory(ComparatorFields fields) {
+    List<Person> persons = new ArrayList<>(PERSONS);
+    persons.sort(ComparatorBuilder.builder().addAll(fields).build());
+    List<Long> ids = new ArrayList<>();
+    persons.forEach(person -> ids.add(person.getId()));
+    return ids;
+  }
+
+  /**
+   * Test that the database returns the same order as the in-memory comparator.
+   *
+   * @throws SQLException the sql exception
+   */
+  @Test
+  void testSameOrderAsInMemory() throws SQLException {
+    String[] wkts = {
+        "lastName|id",
+        "lastName,asc,false|id",
+        "lastName,desc,true,true|firstName|id",
+        "age,asc,true,true|id,desc",
+        "age,desc,true,false|lastName,desc,false,true|id",
+        "firstName,desc,true,true|id"
+    };
+    WellKnownTextConverter converter = new WellKnownTextConverter();
+    for (SqlDialect dialect : Arrays.asList(SqlDialect.H2, SqlDialect.MYSQL)) {
+      SqlOrderByTranslator translator = translator(dialect);
+      for (String wkt : wkts) {
+        ComparatorFields fields = converter.convert(wkt);
+        assertEquals(sortInMemory(fields), query(translator.toOrderBy(fields)),
+            "Order of '" + wkt + "' with dialect " + dialect);
+      }
+    }
+  }
+
+  /**
+   * Test the generated clauses.
+   */
+  @Test
+  void testClauses() {
+    ComparatorFields fields = new WellKnownTextConverter().convert("lastName|age,desc");
+    assertEquals("ORDER BY LOWER(p.last_name) ASC NULLS LAST, p.age DESC NULLS FIRST",
+        translator(SqlDialect.POSTGRESQL).toOrderBy(fields));
+    assertEquals("ORDER BY CASE WHEN p.last_name IS NULL THEN 1 ELSE 0 END, LOWER(p.last_name) "
+            + "ASC, CASE WHEN p.age IS NULL THEN 0 ELSE 1 END, p.age DESC",
+        translator(SqlDialect.SQL_SERVER).toOrderBy(fields));
+    assertEquals("", translator(SqlDialect.ANSI).toOrderBy(new ComparatorFields()));
+  }
+
+  /**
+   * Test field that is not allowed and expect illegal argument exception.
+   */
+  @Test
+  void testFieldThatIsNotAllowedAndExpectIllegalArgumentException() {
+    ComparatorFields fields = new WellKnownTextConverter().convert("lastName|1; DROP TABLE x");
+    assertThrows(IllegalArgumentException.class,
+        () -> translator(SqlDialect.ANSI).toOrderBy(fields));
+  }
+
+}
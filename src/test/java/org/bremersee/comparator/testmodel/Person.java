@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.testmodel;
+
+/**
+ * The person test object.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("unused")
+public class Person {
+
+  private long id;
+
+  private String lastName;
+
+  private String firstName;
+
+  private Integer age;
+
+  /**
+   * Instantiates a new person.
+   *
+   * @param id        the id
+   * @param lastName  the last name
+   * @param firstName the first name
+   * @param age       the age
+   */
+  public Person(long id, String lastName, String firstName, Integer age) {
+    this.id = id;
+    this.lastName = lastName;
+    this.firstName = firstName;
+    this.age = age;
+  }
+
+  /**
+   * Gets id.
+   *
+   * @return the id
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Gets last name.
+   *
+   * @return the last name
+   */
+  public String getLastName() {
+    return lastName;
+  }
+
+  /**
+   * Sets last name.
+   *
+   * @param lastName the last name
+   */
+  public void setLastName(String lastName) {
+    this.lastName = lastName;
+  }
+
+  /**
+   * Gets first name.
+   *
+   * @return the first name
+   */
+  public String getFirstName() {
+    return firstName;
+  }
+
+  /**
+   * Sets first name.
+   *
+   * @param firstName the first name
+   */
+  public void setFirstName(String firstName) {
+    this.firstName = firstName;
+  }
+
+  /**
+   * Gets age.
+   *
+   * @return the age
+   */
+  public Integer getAge() {
+    return age;
+  }
+
+  /**
+   * Sets age.
+   *
+   * @param age the age
+   */
+  public void setAge(Integer age) {
+    this.age = age;
+  }
+
+  @Override
+  public String toString() {
+    return "Person{id=" + id + ", lastName='" + lastName + "', firstName='" + firstName
+        + "', age=" + age + '}';
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.testmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.bremersee.comparator.WellKnownTextConverter;
+import org.bremersee.comparator.model.ComparatorFields;
+
+/**
+ * Shared test data.
+ *
+ * @author Christian Bremer
+ */
+public abstract class TestData {
+
+  private TestData() {
+  }
+
+  /**
+   * Creates comparator fields from the given well known text.
+   *
+   * @param wkt the well known text
+   * @return the comparator fields
+   */
+  public static ComparatorFields fields(String wkt) {
+    return new WellKnownTextConverter().convert(wkt);
+  }
+
+  /**
+   * Creates random persons. The ids may be negative and are not unique, the last names and the
+   * ages are sometimes {@code null} and the last names differ in case.
+   *
+   * @param size the number of persons
+   * @param seed the seed of the random generator
+   * @return the persons
+   */
+  public static List<Person> persons(int size, long seed) {
+    Random random = new Random(seed);
+    List<Person> persons = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      persons.add(new Person(random.nextInt(2 * size + 1) - size,
+          random.nextInt(10) == 0 ? null
+              : (random.nextBoolean() ? "name" : "Name") + random.nextInt(30),
+          "First" + random.nextInt(5),
+          random.nextInt(10) == 0 ? null : random.nextInt(50)));
+    }
+    return persons;
+  }
+
+}